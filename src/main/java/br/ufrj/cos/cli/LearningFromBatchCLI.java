@@ -53,6 +53,7 @@ import br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic.RocCurveMetr
 import br.ufrj.cos.knowledge.theory.manager.TheoryRevisionManager;
 import br.ufrj.cos.knowledge.theory.manager.feature.DumbFeatureGenerator;
 import br.ufrj.cos.knowledge.theory.manager.feature.FeatureGenerator;
+import br.ufrj.cos.knowledge.theory.manager.revision.ParallelLeafRevisionManager;
 import br.ufrj.cos.knowledge.theory.manager.revision.RevisionManager;
 import br.ufrj.cos.knowledge.theory.manager.revision.RevisionOperatorEvaluator;
 import br.ufrj.cos.knowledge.theory.manager.revision.RevisionOperatorSelector;
@@ -693,11 +694,22 @@ public class LearningFromBatchCLI extends CommandLineInterface {
         } else {
             operatorEvaluator = Arrays.asList(revisionOperatorEvaluators);
         }
-        for (RevisionOperatorEvaluator operator : operatorEvaluator) {
+        setUpOperators(operatorEvaluator);
+        return operatorEvaluator;
+    }
+
+    /**
+     * Sets the {@link LearningSystem} and the {@link FeatureGenerator} of the {@link RevisionOperatorEvaluator}s.
+     *
+     * @param operatorEvaluators the {@link RevisionOperatorEvaluator}s
+     * @throws InitializationException if an error occurs during the initialization of an {@link Initializable}.
+     */
+    protected void setUpOperators(
+            Iterable<? extends RevisionOperatorEvaluator> operatorEvaluators) throws InitializationException {
+        for (RevisionOperatorEvaluator operator : operatorEvaluators) {
             operator.setLearningSystem(learningSystem);
             operator.setFeatureGenerator(featureGenerator);
         }
-        return operatorEvaluator;
     }
 
     /**
@@ -767,6 +779,12 @@ public class LearningFromBatchCLI extends CommandLineInterface {
             revisionManager = new RevisionManager();
         }
         revisionManager.setOperatorSelector(revisionOperatorSelector);
+        if (revisionManager instanceof ParallelLeafRevisionManager) {
+            for (RevisionOperatorSelector selector :
+                    ((ParallelLeafRevisionManager) revisionManager).getConcurrentOperatorSelectors()) {
+                if (selector.isOperatorEvaluatorsSetted()) { setUpOperators(selector.getOperatorEvaluators()); }
+            }
+        }
     }
 
     @Override
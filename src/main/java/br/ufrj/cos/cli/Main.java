@@ -48,6 +48,7 @@ import edu.cmu.ml.proppr.Grounder;
 import edu.cmu.ml.proppr.QueryAnswerer;
 import edu.cmu.ml.proppr.Trainer;
 import edu.cmu.ml.proppr.graph.ArrayLearningGraphBuilder;
+import edu.cmu.ml.proppr.learn.tools.BinaryRWExampleFile;
 import edu.cmu.ml.proppr.prove.InnerProductWeighter;
 import edu.cmu.ml.proppr.util.*;
 import edu.cmu.ml.proppr.util.Dictionary;
@@ -359,8 +360,15 @@ public class Main {
             }
             log.info("Training model parameters on " + groundedFile + "...");
             long start = System.currentTimeMillis();
-            ParamVector<String, ?> params = c.trainer.train(masterFeatures, new ParsedFile(groundedFile), new
-                    ArrayLearningGraphBuilder(), c.initParamsFile, c.epochs);
+            File grounded = new File(groundedFile);
+            ParamVector<String, ?> params;
+            if (BinaryRWExampleFile.isBinary(grounded)) {
+                params = c.trainer.train(masterFeatures, new BinaryRWExampleFile(grounded),
+                                         new ArrayLearningGraphBuilder(), c.initParamsFile, c.epochs);
+            } else {
+                params = c.trainer.train(masterFeatures, new ParsedFile(grounded), new ArrayLearningGraphBuilder(),
+                                         c.initParamsFile, c.epochs);
+            }
             System.out.println("Training time: " + (System.currentTimeMillis() - start));
 
             if (c.paramsFile != null) {
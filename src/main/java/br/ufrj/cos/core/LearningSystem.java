@@ -45,6 +45,7 @@ import br.ufrj.cos.logic.HornClause;
 import br.ufrj.cos.logic.Term;
 import br.ufrj.cos.util.Initializable;
 import br.ufrj.cos.util.InitializationException;
+import br.ufrj.cos.util.LanguageUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -73,6 +74,11 @@ public class LearningSystem implements Initializable {
      */
     public static final int NO_MAXIMUM_DEPTH = -1;
 
+    /**
+     * Represents a constant for no maximum number of {@link Atom}s of each predicate reached from a {@link Term}.
+     */
+    public static final int NO_MAXIMUM_ATOMS_PER_PREDICATE = -1;
+
     //Theory Manager
     protected final KnowledgeBase knowledgeBase;
     protected final Examples examples;
@@ -367,8 +373,30 @@ public class LearningSystem implements Initializable {
      * @param safeStop       if is to stop the search when the found atoms is sufficient to make the terms safe
      * @return the relevant {@link Atom}s to the seed {@link Term}s
      */
-    @SuppressWarnings({"OverlyComplexMethod", "OverlyLongMethod"})
     public Set<Atom> relevantsBreadthFirstSearch(Iterable<? extends Term> terms, int relevantsDepth, boolean safeStop) {
+        return relevantsBreadthFirstSearch(terms, relevantsDepth, safeStop, NO_MAXIMUM_ATOMS_PER_PREDICATE, 0);
+    }
+
+    /**
+     * Gets the relevant {@link Atom}s, given the relevant seed {@link Term}s, by performing a breadth-first search
+     * on the {@link KnowledgeBase}'s cached graph.
+     * <p>
+     * From each {@link Term}, at most maximumAtomsPerPredicate {@link Atom}s of each predicate are followed, sampled
+     * by {@link LanguageUtils#shuffleByPredicate(Collection, long)}; which bounds the search around high-degree
+     * {@link Term}s.
+     *
+     * @param terms                    the seed {@link Term}s
+     * @param relevantsDepth           the depth of the relevant breadth first search
+     * @param safeStop                 if is to stop the search when the found atoms is sufficient to make the terms
+     *                                 safe
+     * @param maximumAtomsPerPredicate the maximum number of {@link Atom}s of each predicate followed from a
+     *                                 {@link Term}, or {@link #NO_MAXIMUM_ATOMS_PER_PREDICATE}
+     * @param seed                     the seed of the sampling
+     * @return the relevant {@link Atom}s to the seed {@link Term}s
+     */
+    @SuppressWarnings({"OverlyComplexMethod", "OverlyLongMethod"})
+    public Set<Atom> relevantsBreadthFirstSearch(Iterable<? extends Term> terms, int relevantsDepth, boolean safeStop,
+                                                 int maximumAtomsPerPredicate, long seed) {
         Map<Term, Integer> termDistance = new HashMap<>();
         Queue<Term> queue = new ArrayDeque<>();
         Set<Atom> atoms = new HashSet<>();
@@ -409,6 +437,14 @@ public class LearningSystem implements Initializable {
             }
 
             atomSet = getKnowledgeBase().getAtomsWithTerm(currentTerm);
+            Iterable<Term> neighbours = null;
+            if (maximumAtomsPerPredicate > NO_MAXIMUM_ATOMS_PER_PREDICATE) {
+                atomSet = LanguageUtils.shuffleByPredicate(atomSet, seed).values().stream()
+                        .flatMap(l -> l.stream().limit(maximumAtomsPerPredicate)).collect(Collectors.toSet());
+                // follows only the terms of the sampled atoms
+                neighbours = atomSet.stream().flatMap(a -> a.getTerms().stream()).filter(Term::isConstant)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+            }
             atoms.addAll(atomSet);
             if (safeStop) {
                 // if is not to safeStop and all the head term are already added to the atom set, we can stop the search
@@ -416,7 +452,8 @@ public class LearningSystem implements Initializable {
                 if (bodyTerms.containsAll(headTerms)) { break; }
             }
             if (relevantsDepth == NO_MAXIMUM_DEPTH || currentDistance < relevantsDepth) {
-                for (Term neighbour : getKnowledgeBase().getTermNeighbours(currentTerm)) {
+                if (neighbours == null) { neighbours = getKnowledgeBase().getTermNeighbours(currentTerm); }
+                for (Term neighbour : neighbours) {
                     if (!termDistance.containsKey(neighbour)) {
                         termDistance.put(neighbour, currentDistance + 1);
                         queue.add(neighbour);
@@ -503,4 +540,14 @@ public class LearningSystem implements Initializable {
         engineSystemTranslator.addAtomsToKnowledgeBase(atoms);
     }
 
+    /**
+     * Gets the version of the knowledge of the {@link EngineSystemTranslator}.
+     *
+     * @return the version of the knowledge
+     * @see EngineSystemTranslator#getKnowledgeVersion()
+     */
+    public long getKnowledgeVersion() {
+        return engineSystemTranslator.getKnowledgeVersion();
+    }
+
 }
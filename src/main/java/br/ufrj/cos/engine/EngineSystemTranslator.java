@@ -44,6 +44,7 @@ import java.io.File;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static br.ufrj.cos.util.log.EngineSystemLog.INITIALIZING_ENGINE_SYSTEM_TRANSLATOR;
 
@@ -70,10 +71,34 @@ public abstract class EngineSystemTranslator extends ThreadLocal<EngineSystemTra
 
     protected KnowledgeBase knowledgeBase;
     protected Theory theory;
+    /**
+     * The version of the knowledge of the translator, shared with its thread local copies.
+     */
+    protected AtomicLong knowledgeVersion = new AtomicLong();
 
     @Override
     public void initialize() {
         logger.debug(INITIALIZING_ENGINE_SYSTEM_TRANSLATOR.toString(), this.getClass().getName());
+        updateKnowledgeVersion();
+    }
+
+    /**
+     * Gets the version of the knowledge of the translator. The version changes whenever the {@link KnowledgeBase},
+     * the {@link Theory} or the parameters of the translator, or of any of its thread local copies, change, so the
+     * results inferred under a version are only valid while it does not change.
+     *
+     * @return the version of the knowledge
+     */
+    public long getKnowledgeVersion() {
+        return knowledgeVersion.get();
+    }
+
+    /**
+     * Changes the version of the knowledge of the translator. Must be called by the implementations whenever the
+     * {@link KnowledgeBase}, the {@link Theory} or the parameters change.
+     */
+    protected void updateKnowledgeVersion() {
+        knowledgeVersion.incrementAndGet();
     }
 
     @SuppressWarnings("AbstractMethodOverridesConcreteMethod")
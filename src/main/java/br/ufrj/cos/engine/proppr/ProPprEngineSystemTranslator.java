@@ -44,7 +44,8 @@ import br.ufrj.cos.util.FileIOUtils;
 import br.ufrj.cos.util.IterableConverter;
 import br.ufrj.cos.util.LanguageUtils;
 import br.ufrj.cos.util.log.FileIOLog;
-import edu.cmu.ml.proppr.Trainer;
+import br.ufrj.cos.util.time.TimeUtils;
+import edu.cmu.ml.proppr.CachingTrainer;
 import edu.cmu.ml.proppr.examples.GroundedExample;
 import edu.cmu.ml.proppr.examples.InferenceExample;
 import edu.cmu.ml.proppr.graph.ArrayLearningGraphBuilder;
@@ -53,8 +54,11 @@ import edu.cmu.ml.proppr.learn.RegularizationSchedule;
 import edu.cmu.ml.proppr.learn.Regularize;
 import edu.cmu.ml.proppr.learn.RegularizeL2;
 import edu.cmu.ml.proppr.learn.SRW;
+import edu.cmu.ml.proppr.learn.SparseLazyRegularizationSchedule;
 import edu.cmu.ml.proppr.learn.tools.ClippedExp;
+import edu.cmu.ml.proppr.learn.tools.RWExampleCache;
 import edu.cmu.ml.proppr.learn.tools.SquashingFunction;
+import edu.cmu.ml.proppr.learn.tools.StoppingCriterion;
 import edu.cmu.ml.proppr.prove.DprProver;
 import edu.cmu.ml.proppr.prove.Prover;
 import edu.cmu.ml.proppr.prove.wam.*;
@@ -62,8 +66,9 @@ import edu.cmu.ml.proppr.prove.wam.plugins.FactsPlugin;
 import edu.cmu.ml.proppr.prove.wam.plugins.WamPlugin;
 import edu.cmu.ml.proppr.util.*;
 import edu.cmu.ml.proppr.util.Dictionary;
+import edu.cmu.ml.proppr.util.math.DenseOverlayParamVector;
+import edu.cmu.ml.proppr.util.math.DenseParamVector;
 import edu.cmu.ml.proppr.util.math.ParamVector;
-import edu.cmu.ml.proppr.util.math.SimpleParamVector;
 import edu.cmu.ml.proppr.util.multithreading.Multithreading;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -71,13 +76,10 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static br.ufrj.cos.engine.proppr.ProPprUtils.getLabelForRule;
 import static br.ufrj.cos.util.log.EngineSystemLog.*;
-import static edu.cmu.ml.proppr.Trainer.DEFAULT_CAPACITY;
-import static edu.cmu.ml.proppr.Trainer.DEFAULT_LOAD;
 
 /**
  * Translator to convert the system's syntax to ProPPR, and vice versa.
@@ -113,6 +115,10 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
      * The default empty query array.
      */
     public static final Query[] EMPTY_QUERY = new Query[0];
+    /**
+     * The default value of {@link #trainingStoppingPatience}.
+     */
+    public static final int DEFAULT_TRAINING_STOPPING_PATIENCE = 1;
     /**
      * The map of predicates by the string on the form p/n, where p is the name of the predicate and n is its arity.
      */
@@ -126,6 +132,37 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
      * The number of training epochs per training.
      */
     public int numberOfTrainingEpochs = 5;
+    /**
+     * The number of consecutive epochs whose loss improves by no more than {@link #trainingStoppingPercent} before
+     * the training stops, even if it has not reached the {@link #numberOfTrainingEpochs}.
+     * <p>
+     * The first epoch has no loss to compare to, so the training stops, at the earliest, after patience + 1 epochs:
+     * with the defaults, a patience of 1 and 5 epochs, the training may stop after the second epoch.
+     */
+    public int trainingStoppingPatience = DEFAULT_TRAINING_STOPPING_PATIENCE;
+    /**
+     * The maximum improvement of the loss, in percent, for an epoch to count towards the
+     * {@link #trainingStoppingPatience}.
+     */
+    public double trainingStoppingPercent = StoppingCriterion.DEFAULT_MAX_PCT_IMPROVEMENT;
+    /**
+     * The number of examples per mini-batch of the training. Batches are trained in parallel with a single update
+     * each, which is reproducible regardless of the number of threads; 1 updates the parameters after each example.
+     */
+    public int trainingBatchSize = 1;
+    /**
+     * The estimated maximum memory, in bytes, of the parsed training examples kept across trainings, so the examples
+     * whose grounding did not change are not parsed again. Within a training, the examples are always parsed only
+     * once for all the epochs; 0 disables keeping them across trainings. The examples are only kept within an
+     * iteration: they are dropped whenever the knowledge base, the theory or the saved parameters change.
+     */
+    public long trainingExampleCacheMemoryBudget = 0;
+    /**
+     * If it is to retrain, after a revision of the theory, only the examples whose predicates depend on the changed
+     * clauses, starting from the saved parameters, instead of all the examples. The examples the saved parameters were
+     * not trained on are always trained.
+     */
+    public boolean incrementalRetraining = false;
     /**
      * The number of threads this class is allowed to use.
      */
@@ -142,6 +179,11 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
      * The {@link Regularize}.
      */
     public Regularize regularize = new RegularizeL2();
+    /**
+     * If it is to apply the {@link #regularize} lazily, only to the features touched by each example, catching up
+     * the skipped steps in closed form. Otherwise, all the features are regularized at each example.
+     */
+    public boolean lazyRegularization = false;
     /**
      * The {@link Prover}
      */
@@ -160,12 +202,15 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
 
     // Processing
     protected InMemoryGrounder<P> grounder;
-    protected Trainer trainer;
+    protected CachingTrainer trainer;
     protected InMemoryQueryAnswerer<P> answerer;
 
     // Parameters
     protected ParamVector<String, ?> currentParamVector;
     protected ParamVector<String, ?> savedParamVector;
+    protected Set<HornClause> savedClauses;
+    protected Set<Example> savedExamples;
+    protected Collection<Example> trainedExamples;
     protected Collection<Rule> featureRules;
 
     /**
@@ -188,34 +233,57 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
                                                program, factsPlugin);
         this.srw = new SRW(new SRWOptions(aprOptions, squashingFunction));
         //IMPROVE: set srw random seed
-        this.srw.setRegularizer(new RegularizationSchedule(this.srw, regularize));
-        this.trainer = new Trainer(srw, numberOfThreads, Multithreading.DEFAULT_THROTTLE);
-        this.savedParamVector = new SimpleParamVector<>(new ConcurrentHashMap<String, Double>(DEFAULT_CAPACITY,
-                                                                                              DEFAULT_LOAD,
-                                                                                              numberOfThreads));
-        this.currentParamVector = new SimpleParamVector<>(new ConcurrentHashMap<String, Double>(DEFAULT_CAPACITY,
-                                                                                                DEFAULT_LOAD,
-                                                                                                numberOfThreads));
+        this.srw.setRegularizer(buildRegularizationSchedule(this.srw));
+        this.trainer = new CachingTrainer(srw, numberOfThreads, Multithreading.DEFAULT_THROTTLE, false);
+        this.trainer.setBatchSize(trainingBatchSize);
+        this.trainer.setStoppingCriteria(trainingStoppingPatience, trainingStoppingPercent);
+        if (trainingExampleCacheMemoryBudget > 0) {
+            this.trainer.setExampleCache(new RWExampleCache(trainingExampleCacheMemoryBudget));
+        }
+        this.savedParamVector = new DenseParamVector();
+        this.currentParamVector = new DenseParamVector();
+        this.savedClauses = null;
+        this.savedExamples = null;
+        this.trainedExamples = null;
         this.answerer = buildAnswerer();
         answerer.addParams(prover, savedParamVector, squashingFunction);
     }
 
+    /**
+     * Builds the {@link RegularizationSchedule} of the {@link SRW}.
+     *
+     * @param srw the {@link SRW}
+     * @return the {@link RegularizationSchedule}
+     */
+    protected RegularizationSchedule buildRegularizationSchedule(SRW srw) {
+        if (lazyRegularization) { return new SparseLazyRegularizationSchedule(srw, regularize); }
+        return new RegularizationSchedule(srw, regularize);
+    }
+
     @Override
     protected synchronized EngineSystemTranslator initialValue() {
         ProPprEngineSystemTranslator copy = new ProPprEngineSystemTranslator();
         copy.useTernayIndex = this.useTernayIndex;
         copy.numberOfTrainingEpochs = this.numberOfTrainingEpochs;
+        copy.trainingStoppingPatience = this.trainingStoppingPatience;
+        copy.trainingStoppingPercent = this.trainingStoppingPercent;
+        copy.trainingBatchSize = this.trainingBatchSize;
+        copy.trainingExampleCacheMemoryBudget = this.trainingExampleCacheMemoryBudget;
+        copy.incrementalRetraining = this.incrementalRetraining;
         copy.numberOfThreads = this.numberOfThreads;
         copy.normalizeAnswers = this.normalizeAnswers;
         copy.aprOptions = this.aprOptions;
         copy.srw = new SRW(new SRWOptions(aprOptions, squashingFunction));
-        copy.srw.setRegularizer(new RegularizationSchedule(this.srw, regularize));
         copy.regularize = regularize;
+        copy.lazyRegularization = this.lazyRegularization;
+        copy.srw.setRegularizer(copy.buildRegularizationSchedule(this.srw));
         copy.prover = this.prover.copy();
         copy.squashingFunction = this.squashingFunction;
         copy.knowledgeBase = this.knowledgeBase;
+        copy.factsPlugin = this.factsPlugin;
         copy.setTheory(this.theory);
         copy.initialize();
+        copy.knowledgeVersion = this.knowledgeVersion;
         return copy;
     }
 
@@ -356,21 +424,122 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
 
     @Override
     public synchronized void trainParameters(Example... examples) {
-        logger.debug(TRAINING_PARAMETERS);
-        currentParamVector = trainParameters(new InferenceExampleIterable(examples), savedParamVector, grounder);
+        trainParameters(Arrays.asList(examples));
     }
 
     @Override
     public synchronized void trainParameters(Iterable<? extends Example> examples) {
         logger.debug(TRAINING_PARAMETERS);
-        currentParamVector = trainParameters(new InferenceExampleIterable(examples), savedParamVector, grounder);
+        if (incrementalRetraining) {
+            trainedExamples = new ArrayList<>();
+            examples.forEach(trainedExamples::add);
+        }
+        Collection<? extends Example> affected = affectedExamples(examples, theory);
+        currentParamVector = trainParameters(new InferenceExampleIterable(affected != null ? affected : examples),
+                                             savedParamVector, grounder);
+        updateKnowledgeVersion();
+    }
+
+    /**
+     * Gets the examples to retrain after the changes of the clauses since the parameters were saved: the examples the
+     * saved parameters were not trained on, and the examples whose predicate depends, through the clauses, on the
+     * predicate of a clause that was added or removed.
+     *
+     * @param examples the examples
+     * @param clauses  the clauses
+     * @return the examples to retrain, or {@code null} if all the examples must be trained, because
+     * {@link #incrementalRetraining} is not set, the clauses did not change, or none of the examples is new or affected
+     */
+    protected Collection<? extends Example> affectedExamples(Iterable<? extends Example> examples,
+                                                            Iterable<? extends HornClause> clauses) {
+        if (!incrementalRetraining || savedClauses == null || clauses == null) { return null; }
+        Set<HornClause> current = new HashSet<>();
+        clauses.forEach(current::add);
+        Set<Predicate> changed = new HashSet<>();
+        for (HornClause clause : current) {
+            if (!savedClauses.contains(clause)) { changed.add(clause.getHead().getPredicate()); }
+        }
+        for (HornClause clause : savedClauses) {
+            if (!current.contains(clause)) { changed.add(clause.getHead().getPredicate()); }
+        }
+        if (changed.isEmpty()) { return null; }
+        Set<Predicate> affectedPredicates = dependentPredicates(changed, current, savedClauses);
+        List<Example> affected = new ArrayList<>();
+        int total = 0;
+        for (Example example : examples) {
+            total++;
+            if (savedExamples == null || !savedExamples.contains(example) ||
+                    affectedPredicates.contains(example.getGoalQuery().getPredicate())) { affected.add(example); }
+        }
+        if (affected.isEmpty()) { return null; }
+        logger.debug(RETRAINING_AFFECTED_EXAMPLES.toString(), affected.size(), total, changed);
+        return affected;
+    }
+
+    /**
+     * Gets the predicates that depend on the changed predicates, including themselves, through the bodies of the
+     * clauses.
+     *
+     * @param changed the changed predicates
+     * @param clauses the clauses
+     * @return the dependent predicates
+     */
+    @SafeVarargs
+    protected static Set<Predicate> dependentPredicates(Set<Predicate> changed,
+                                                        Collection<? extends HornClause>... clauses) {
+        Map<Predicate, Set<Predicate>> dependents = new HashMap<>();
+        for (Collection<? extends HornClause> collection : clauses) {
+            for (HornClause clause : collection) {
+                Predicate head = clause.getHead().getPredicate();
+                for (Literal literal : clause.getBody()) {
+                    dependents.computeIfAbsent(literal.getPredicate(), k -> new HashSet<>()).add(head);
+                }
+            }
+        }
+        Set<Predicate> affected = new HashSet<>(changed);
+        Deque<Predicate> queue = new ArrayDeque<>(changed);
+        while (!queue.isEmpty()) {
+            for (Predicate dependent : dependents.getOrDefault(queue.poll(), Collections.emptySet())) {
+                if (affected.add(dependent)) { queue.add(dependent); }
+            }
+        }
+        return affected;
     }
 
     @Override
     public synchronized void saveTrainedParameters() {
         logger.debug(SAVING_TRAINED_PARAMETERS_AS_CURRENT);
-        savedParamVector = currentParamVector;
+        if (currentParamVector instanceof DenseOverlayParamVector &&
+                ((DenseOverlayParamVector) currentParamVector).getBase() == savedParamVector) {
+            savedParamVector = ((DenseOverlayParamVector) currentParamVector).fold();
+        } else {
+            savedParamVector = currentParamVector;
+        }
+        if (savedParamVector instanceof DenseParamVector && ((DenseParamVector) savedParamVector).isCompactable()) {
+            // drops the features of the rejected candidates from the feature table
+            savedParamVector = ((DenseParamVector) savedParamVector).compact();
+        }
+        if (incrementalRetraining && theory != null) {
+            savedClauses = new HashSet<>();
+            theory.forEach(savedClauses::add);
+        }
+        if (incrementalRetraining) {
+            // the examples left out of the last training were already in the saved parameters; the examples that
+            // were not given to it are forgotten, so they are trained again if they return
+            savedExamples = trainedExamples != null ? new HashSet<>(trainedExamples) : null;
+            trainedExamples = null;
+        }
+        clearExampleCache();
         answerer.addParams(prover, savedParamVector, squashingFunction);
+        updateKnowledgeVersion();
+    }
+
+    /**
+     * Drops the parsed training examples kept across trainings, along with the feature tables they refer to, once
+     * the knowledge base or the theory changes and their groundings are no longer reused.
+     */
+    protected void clearExampleCache() {
+        if (trainer != null && trainer.getExampleCache() != null) { trainer.getExampleCache().clear(); }
     }
 
     @Override
@@ -416,8 +585,10 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
     public Map<Example, Map<Atom, Double>> inferExampleTrainingParameters(
             Iterable<? extends Example> examples) {
 
-        ParamVector<String, ?> parameters = trainParameters(new InferenceExampleIterable(examples), savedParamVector,
-                                                            grounder);
+        Collection<? extends Example> affected = affectedExamples(examples, theory);
+        ParamVector<String, ?> parameters =
+                trainParameters(new InferenceExampleIterable(affected != null ? affected : examples),
+                                savedParamVector, grounder);
         InMemoryQueryAnswerer<P> answerer = buildAnswerer(parameters, program);
         return inferExamples(new QueryIterable(examples), answerer);
     }
@@ -441,7 +612,7 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
     public Map<Example, Map<Atom, Double>> inferExampleTrainingParameters
             (Theory theory, Iterable<? extends Example> examples) {
         WamProgram wamProgram = ProPprUtils.compileTheory(theory);
-        return inferExamplesTrainingParameters(examples, wamProgram);
+        return inferExamplesTrainingParameters(examples, affectedExamples(examples, theory), wamProgram);
     }
 
     @Override
@@ -449,7 +620,13 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
             (Iterable<? extends HornClause> appendClauses, Iterable<? extends Example> examples) {
         WamProgram wamProgram = ProPprUtils.compileTheory(theory);
         ProPprUtils.appendRuleToProgram(appendClauses, wamProgram);
-        return inferExamplesTrainingParameters(examples, wamProgram);
+        Collection<? extends Example> affected = null;
+        if (incrementalRetraining && theory != null) {
+            List<HornClause> clauses = new ArrayList<>(theory);
+            appendClauses.forEach(clauses::add);
+            affected = affectedExamples(examples, clauses);
+        }
+        return inferExamplesTrainingParameters(examples, affected, wamProgram);
     }
 
     /**
@@ -479,6 +656,8 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
         this.program = ProPprUtils.compileTheory(theory, featureRules);
         if (this.grounder != null) { this.grounder.setProgram(program); }
         if (this.answerer != null) { this.answerer.setProgram(program); }
+        clearExampleCache();
+        updateKnowledgeVersion();
     }
 
     @Override
@@ -498,7 +677,7 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
         final File file = new File(workingDirectory, SAVED_PARAMETERS_FILE_NAME);
         logger.debug(LOADING_PARAMETERS_FROM_FILE.toString(), file);
         ParamsFile paramsFile = new ParamsFile(file);
-        currentParamVector = new SimpleParamVector<>(Dictionary.load(paramsFile, new ConcurrentHashMap<>()));
+        currentParamVector = new DenseParamVector(Dictionary.load(paramsFile));
         saveTrainedParameters();
         loadFeatureClauses(workingDirectory);
     }
@@ -551,6 +730,8 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
                 factsPlugin.addFact(atom.getName(), LanguageUtils.toStringCollectionToArray(atom.getTerms()));
             }
         }
+        clearExampleCache();
+        updateKnowledgeVersion();
     }
 
     /**
@@ -589,6 +770,10 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
 
     /**
      * Trains the logic system if the given examples and initial parameters.
+     * <p>
+     * Dense initial parameters are not copied: the training writes into a {@link DenseOverlayParamVector} over them,
+     * which is folded back into the saved parameters by {@link #saveTrainedParameters()}, if the candidate is
+     * accepted.
      *
      * @param iterable    the examples
      * @param paramVector the initial parameters
@@ -599,9 +784,46 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
                                                      ParamVector<String, ?> paramVector, InMemoryGrounder<P> grounder) {
         SymbolTable<String> symbolTable = new SimpleSymbolTable<>();
         Map<Integer, Ground<P>> map = grounder.groundExamples(iterable, symbolTable);
-        return trainer.train(symbolTable,
-                             map.values().stream().map(Ground::toString).collect(Collectors.toSet()),
-                             new ArrayLearningGraphBuilder(), paramVector.copy(), numberOfTrainingEpochs);
+        long begin = TimeUtils.getNanoTime();
+        ParamVector<String, ?> trained = trainer.train(symbolTable, map.values().stream().map(Ground::toString)
+                                                               .collect(Collectors.toSet()),
+                                                       new ArrayLearningGraphBuilder(),
+                                                       candidateParameters(paramVector), numberOfTrainingEpochs);
+        logTrainedEpochs(TimeUtils.getNanoTime() - begin);
+        return trained;
+    }
+
+    /**
+     * Logs the number of epochs of the last training, and the time saved by stopping it before the
+     * {@link #numberOfTrainingEpochs}, estimated from the average time of its epochs.
+     *
+     * @param elapsedTime the time of the training, in nanoseconds
+     */
+    protected void logTrainedEpochs(long elapsedTime) {
+        if (!logger.isDebugEnabled()) { return; }
+        int epochs = trainer.getTrainedEpochs();
+        if (epochs < 1) { return; }
+        double seconds = TimeUtils.elapsedTimeInSeconds(elapsedTime);
+        logger.debug(TRAINED_PARAMETERS_EPOCHS.toString(), epochs, numberOfTrainingEpochs, seconds,
+                    seconds / epochs * (numberOfTrainingEpochs - epochs));
+    }
+
+    /**
+     * Creates the parameters to train a candidate from. Dense parameters get a copy-on-write overlay, other
+     * parameters are copied.
+     *
+     * @param paramVector the initial parameters
+     * @return the parameters to train
+     */
+    protected static ParamVector<String, ?> candidateParameters(ParamVector<String, ?> paramVector) {
+        if (paramVector instanceof DenseOverlayParamVector) {
+            // avoids chains of overlays when a candidate was saved without being folded, copying only the touched ids
+            return ((DenseOverlayParamVector) paramVector).copy();
+        }
+        if (paramVector instanceof DenseParamVector) {
+            return new DenseOverlayParamVector((DenseParamVector) paramVector);
+        }
+        return paramVector.copy();
     }
 
     /**
@@ -682,15 +904,20 @@ public class ProPprEngineSystemTranslator<P extends ProofGraph> extends EngineSy
      * <p>
      * This method is useful to evaluate a theory revision without save the parameters.
      *
-     * @param wamProgram the {@link WamProgram}
-     * @param examples   the iterable to infer
+     * @param examples         the iterable to infer
+     * @param trainingExamples the examples to train on, if not all the examples to infer; see
+     *                         {@link #affectedExamples(Iterable, Iterable)}
+     * @param wamProgram       the {@link WamProgram}
      * @return a {@link Map} of the solutions to its correspondent {@link Example}.
      */
     protected Map<Example, Map<Atom, Double>> inferExamplesTrainingParameters(Iterable<? extends Example> examples,
+                                                                              Collection<? extends Example>
+                                                                                      trainingExamples,
                                                                               WamProgram wamProgram) {
         InMemoryGrounder<P> grounder = buildGrounder(wamProgram);
-        ParamVector<String, ?> parameters = trainParameters(new InferenceExampleIterable(examples), savedParamVector,
-                                                            grounder);
+        ParamVector<String, ?> parameters =
+                trainParameters(new InferenceExampleIterable(trainingExamples != null ? trainingExamples : examples),
+                                savedParamVector, grounder);
         InMemoryQueryAnswerer<P> answerer = buildAnswerer(parameters, wamProgram);
         return inferExamples(new QueryIterable(examples), answerer);
     }
@@ -113,7 +113,13 @@ public class Ground<P extends ProofGraph> implements Callable<Ground<P>> {
     @Override
     public Ground<P> call() throws Exception {
         proofGraph = prover.makeProofGraph(inferenceExample, aprOptions, featureTable, masterProgram, masterPlugins);
-        groundedExample = groundExample(prover.copy());
+        try {
+            groundedExample = groundExample(prover.copy());
+        } finally {
+            proofGraph.close();
+        }
+        if (proofGraph.isBudgetExhausted()) { statistics.budgetExhausted(); }
+        if (proofGraph.isMemoryExhausted()) { statistics.memoryExhausted(); }
         InferenceExample ix = proofGraph.getExample();
         statistics.updateStatistics(ix, ix.getPosSet().length, ix.getNegSet().length, groundedExample.getPosList()
                 .size(), groundedExample
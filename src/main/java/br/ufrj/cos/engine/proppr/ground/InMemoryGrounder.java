@@ -87,6 +87,14 @@ public class InMemoryGrounder<P extends ProofGraph> extends Grounder<P> {
      * Covered status log message.
      */
     public static final String COVERED_STATUS = "totalPos: {} totalNeg: {} coveredPos: {} coveredNeg: {}";
+    /**
+     * Budget exhausted log message.
+     */
+    public static final String BUDGET_EXHAUSTED = "Approximated: {} with the proving budget exhausted";
+    /**
+     * Memory exhausted log message.
+     */
+    public static final String MEMORY_EXHAUSTED = "Approximated: {} with the proof graph memory cap reached";
     /**
      * Positive examples proveable log message.
      */
@@ -190,6 +198,8 @@ public class InMemoryGrounder<P extends ProofGraph> extends Grounder<P> {
                              .emptyGraph);
         logger.trace(COVERED_STATUS, statistics.totalPos, statistics
                 .totalNeg, statistics.coveredPos, statistics.coveredNeg);
+        if (statistics.budgetExhausted > 0) { logger.trace(BUDGET_EXHAUSTED, statistics.budgetExhausted); }
+        if (statistics.memoryExhausted > 0) { logger.trace(MEMORY_EXHAUSTED, statistics.memoryExhausted); }
         if (statistics.totalPos > 0) {
             logger.trace(POSITIVE_EXAMPLES_PROVEABLE, statistics.coveredPos, statistics.totalPos,
                          PERCENT_NORMALIZER * statistics.coveredPos / statistics
@@ -79,6 +79,7 @@ public class Answer<P extends ProofGraph> implements Callable<Answer<P>> {
     protected final StatusLogger status;
 
     protected Map<Query, Double> solutions;
+    protected boolean approximated;
 
     /**
      * Constructor with the needed parameters.
@@ -138,17 +139,23 @@ public class Answer<P extends ProofGraph> implements Callable<Answer<P>> {
         P pg = prover.makeProofGraph(new InferenceExample(query, null, null), aprOptions, featureTable,
                                      program, plugins);
         logger.trace(ANSWERING_QUERY.toString(), query);
-        Map<State, Double> dist = prove(prover, pg);
-        if (dist == null) { return null; }
-        solutions = new TreeMap<>();
-        for (Map.Entry<State, Double> s : dist.entrySet()) {
-            if (s.getKey().isCompleted()) {
-                Query x = pg.fill(s.getKey());
-                solutions.put(x, s.getValue());
-                logger.trace(ANSWER_RESULT_WITH_VALUE.toString(), x.toString(), s.getValue());
-            } else {
-                logger.trace(ANSWER_STATE_WITH_VALUE.toString(), s.toString(), s.getValue());
+        try {
+            Map<State, Double> dist = prove(prover, pg);
+            if (dist == null) { return null; }
+            approximated = pg.isBudgetExhausted() || pg.isMemoryExhausted();
+            if (approximated) { logger.trace(APPROXIMATED_ANSWER.toString(), query); }
+            solutions = new TreeMap<>();
+            for (Map.Entry<State, Double> s : dist.entrySet()) {
+                if (s.getKey().isCompleted()) {
+                    Query x = pg.fill(s.getKey());
+                    solutions.put(x, s.getValue());
+                    logger.trace(ANSWER_RESULT_WITH_VALUE.toString(), x.toString(), s.getValue());
+                } else {
+                    logger.trace(ANSWER_STATE_WITH_VALUE.toString(), s.toString(), s.getValue());
+                }
             }
+        } finally {
+            pg.close();
         }
         if (normalize) {
             solutions = Dictionary.normalize(solutions);
@@ -184,4 +191,14 @@ public class Answer<P extends ProofGraph> implements Callable<Answer<P>> {
         return solutions;
     }
 
+    /**
+     * Checks if the proving budget was exhausted, or the proof graph reached its memory cap, while answering the
+     * query, in which case the solutions are an approximation of the ones that would be found without the limits.
+     *
+     * @return {@code true} if the solutions are approximated, {@code false} otherwise
+     */
+    public boolean isApproximated() {
+        return approximated;
+    }
+
 }
@@ -42,8 +42,13 @@ import edu.cmu.ml.proppr.util.SymbolTable;
 import edu.cmu.ml.proppr.util.multithreading.Multithreading;
 import edu.cmu.ml.proppr.util.multithreading.Transformer;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.util.Map;
 
+import static br.ufrj.cos.util.log.InferenceLog.APPROXIMATED_ANSWERS;
+
 /**
  * An in memory version of the ProPPR's {@link QueryAnswerer}.
  * <p>
@@ -53,6 +58,11 @@ import java.util.Map;
  */
 public class InMemoryQueryAnswerer<P extends ProofGraph> extends QueryAnswerer<P> {
 
+    /**
+     * The logger
+     */
+    public static final Logger logger = LogManager.getLogger();
+
     /**
      * Constructor with the needed parameters for multi thread execution.
      *
@@ -90,7 +100,12 @@ public class InMemoryQueryAnswerer<P extends ProofGraph> extends QueryAnswerer<P
                 answerCleanup,
                 Multithreading.DEFAULT_THROTTLE);
 
-        return answerCleanup.getResultMap();
+        Map<Integer, Answer<P>> answers = answerCleanup.getResultMap();
+        if (apr.isBudgeted() && logger.isDebugEnabled()) {
+            long approximated = answers.values().stream().filter(Answer::isApproximated).count();
+            if (approximated > 0) { logger.debug(APPROXIMATED_ANSWERS.toString(), approximated, answers.size()); }
+        }
+        return answers;
     }
 
     /**
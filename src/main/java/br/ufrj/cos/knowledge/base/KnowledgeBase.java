@@ -106,13 +106,29 @@ public class KnowledgeBase extends Knowledge<Atom> {
      * @return the shortest path between the terms
      */
     public Collection<Term[]> shortestPath(Term source, Term destination, int maximumDistance) {
+        return shortestPath(source, destination, maximumDistance, -1);
+    }
+
+    /**
+     * Finds the shortest paths, of at most maximumDistance long, between two terms in the knowledge base, if such
+     * paths exist; keeping at most maximumNumberOfPaths of them. The kept paths do not depend on the order of the
+     * sets of the knowledge base, since the predecessors of each term are followed in the order of their names.
+     *
+     * @param source               the source term
+     * @param destination          the destination term
+     * @param maximumDistance      the maximum distance, set to negative for no maximum distance.
+     * @param maximumNumberOfPaths the maximum number of paths, set to negative for no maximum number of paths.
+     * @return the shortest paths between the terms
+     */
+    public Collection<Term[]> shortestPath(Term source, Term destination, int maximumDistance,
+                                           int maximumNumberOfPaths) {
         if (!getTerms().contains(source) || !getTerms().contains(destination)) { return null; }
 
         if (source.equals(destination) || termNeighbours.get(source).contains(destination)) {
             return Collections.singleton(new Term[]{source, destination});
         }
 
-        return findShortestPath(source, destination, maximumDistance);
+        return findShortestPath(source, destination, maximumDistance, maximumNumberOfPaths);
     }
 
     /**
@@ -210,11 +226,13 @@ public class KnowledgeBase extends Knowledge<Atom> {
      *
      * @param source          the source term
      * @param destination     the destination term
-     * @param maximumDistance the maximum distance, set to negative for no maximum distance.
+     * @param maximumDistance      the maximum distance, set to negative for no maximum distance.
+     * @param maximumNumberOfPaths the maximum number of paths, set to negative for no maximum number of paths.
      * @return the shortest path between the terms
      */
     @SuppressWarnings({"OverlyComplexMethod", "OverlyLongMethod"})
-    protected Collection<Term[]> findShortestPath(Term source, Term destination, int maximumDistance) {
+    protected Collection<Term[]> findShortestPath(Term source, Term destination, int maximumDistance,
+                                                  int maximumNumberOfPaths) {
         Map<Term, Integer> distanceForVertex = new HashMap<>();
         Map<Term, Set<Term>> predecessorForVertex = new HashMap<>();
 
@@ -252,21 +270,30 @@ public class KnowledgeBase extends Knowledge<Atom> {
         }
 
         if (!found) { return null; }
-        return buildPaths(source, destination, predecessorForVertex, distanceForVertex.get(destination));
+        return buildPaths(source, destination, predecessorForVertex, distanceForVertex,
+                          distanceForVertex.get(destination), maximumNumberOfPaths);
     }
 
     /**
      * Builds the paths based on the predecessors then filters it by the ones that starts on source and ends on
      * destination.
+     * <p>
+     * Only the predecessors on a shortest path, the ones whose distance to the source is one less than the distance
+     * of the term, are followed; so every partial path leads to at least one path, and the partial paths can be cut
+     * at the maximum number of paths, at each step. The predecessors are followed in the order of their names.
      *
      * @param source               the source of the path
      * @param destination          the destination of the path
      * @param predecessorForVertex the predecessors of the terms
+     * @param distanceForVertex    the distance of the terms to the source
      * @param pathLength           the length of the path
+     * @param maximumNumberOfPaths the maximum number of paths, set to negative for no maximum number of paths.
      * @return the paths that starts on source and ends on destination
      */
     protected static Collection<Term[]> buildPaths(Term source, Term destination,
-                                                   Map<Term, Set<Term>> predecessorForVertex, int pathLength) {
+                                                   Map<Term, Set<Term>> predecessorForVertex,
+                                                   Map<Term, Integer> distanceForVertex, int pathLength,
+                                                   int maximumNumberOfPaths) {
         Queue<Term[]> queue = new ArrayDeque<>();
         queue.add(new Term[]{destination});
         Term[] currentArray;
@@ -275,19 +302,26 @@ public class KnowledgeBase extends Knowledge<Atom> {
 
         for (int i = pathLength - 1; i > -1; i--) {
             size = queue.size();
+            int added = 0;
             for (int j = 0; j < size; j++) {
                 currentArray = queue.poll();
-                for (Term predecessor : predecessorForVertex.get(currentArray[0])) {
+                if (maximumNumberOfPaths > -1 && added >= maximumNumberOfPaths) { continue; }
+                List<Term> predecessors = new ArrayList<>(predecessorForVertex.get(currentArray[0]));
+                predecessors.sort(Comparator.comparing(Term::toString));
+                for (Term predecessor : predecessors) {
+                    if (!Objects.equals(distanceForVertex.get(predecessor), i)) { continue; }
+                    if (maximumNumberOfPaths > -1 && added >= maximumNumberOfPaths) { break; }
                     auxiliary = new Term[currentArray.length + 1];
                     System.arraycopy(currentArray, 0, auxiliary, 1, currentArray.length);
                     auxiliary[0] = predecessor;
                     queue.add(auxiliary);
+                    added++;
                 }
             }
         }
 
         return queue.stream().filter(a -> a[0].equals(source) && a[a.length - 1].equals(destination))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toList());
     }
 
     /**
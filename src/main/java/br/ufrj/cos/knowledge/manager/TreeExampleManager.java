@@ -51,6 +51,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static br.ufrj.cos.util.log.IncomingExampleLog.CALLING_REVISION_OF_LEAVES;
+import static br.ufrj.cos.util.log.IncomingExampleLog.CALLING_REVISION_OF_LEAVES_OF_PREDICATES;
 import static br.ufrj.cos.util.log.IncomingExampleLog.EXAMPLES_PLACED_AT_LEAVES;
 import static br.ufrj.cos.util.log.PreRevisionLog.ERROR_GETTING_REMAINING_EXAMPLES;
 import static br.ufrj.cos.util.log.PreRevisionLog.ERROR_INITIALIZING_REVISION_EXAMPLES;
@@ -69,7 +70,31 @@ public class TreeExampleManager extends IncomingExampleManager {
      */
     public static final Logger logger = LogManager.getLogger();
 
+    /**
+     * The default value of {@link #batchRouting}.
+     */
+    public static final boolean DEFAULT_BATCH_ROUTING = false;
+
     protected static final RelevantSampleSelector ALL_SAMPLE_SELECTOR = new AllSampleSelector();
+
+    /**
+     * If {@code true}, the incoming examples of each predicate are routed through the tree together, performing a
+     * single inference for all the examples that reach a node. Otherwise, each example is routed by its own, performing
+     * an inference per example per node.
+     */
+    @SuppressWarnings("CanBeFinal")
+    public boolean batchRouting = DEFAULT_BATCH_ROUTING;
+
+    /**
+     * If {@code true}, the modified leaves of all the predicates are passed to a single call of the revision, so the
+     * revision manager is able to revise leaves of different predicates in the same iteration. Otherwise, the
+     * revision is called once per predicate.
+     *
+     * @see br.ufrj.cos.knowledge.theory.manager.revision.ParallelLeafRevisionManager
+     */
+    @SuppressWarnings("CanBeFinal")
+    public boolean revisePredicatesTogether = false;
+
     protected TreeTheory treeTheory;
 
     /**
@@ -169,6 +194,7 @@ public class TreeExampleManager extends IncomingExampleManager {
      * @return the leaves which was modified due to the addition of examples
      */
     protected Map<String, Set<Node<HornClause>>> placeIncomingExamples(Iterable<? extends Example> examples) {
+        if (batchRouting) { return placeIncomingExamplesInBatch(examples); }
         Map<String, Set<Node<HornClause>>> modifiedLeavesMap = new HashMap<>();
         int count = 0;
         for (Example example : examples) {
@@ -179,6 +205,50 @@ public class TreeExampleManager extends IncomingExampleManager {
         return modifiedLeavesMap;
     }
 
+    /**
+     * Places the incoming examples into the correct leaves, routing the examples of each predicate through the tree
+     * together, and returns the set of the modified leaves.
+     *
+     * @param examples the examples
+     * @return the leaves which was modified due to the addition of examples
+     */
+    protected Map<String, Set<Node<HornClause>>> placeIncomingExamplesInBatch(Iterable<? extends Example> examples) {
+        Map<String, List<Example>> examplesByPredicate = new LinkedHashMap<>();
+        int count = 0;
+        for (Example example : examples) {
+            examplesByPredicate.computeIfAbsent(example.getGoalQuery().getPredicate().toString(),
+                                                e -> new ArrayList<>()).add(example);
+            count++;
+        }
+        Map<String, Set<Node<HornClause>>> modifiedLeavesMap = new HashMap<>();
+        for (Map.Entry<String, List<Example>> entry : examplesByPredicate.entrySet()) {
+            placeExamples(modifiedLeavesMap, entry.getKey(), entry.getValue());
+        }
+        logger.debug(EXAMPLES_PLACED_AT_LEAVES.toString(), count);
+        return modifiedLeavesMap;
+    }
+
+    /**
+     * Places the incoming examples of a predicate into the correct leaves and append the leaves in the set of the
+     * modified leaves.
+     *
+     * @param modifiedLeavesMap the map of modified leaves by predicate
+     * @param predicate         the predicate of the examples
+     * @param examples          the examples
+     */
+    protected void placeExamples(Map<String, Set<Node<HornClause>>> modifiedLeavesMap, String predicate,
+                                 List<? extends Example> examples) {
+        Set<Node<HornClause>> modifiedLeaves = modifiedLeavesMap.computeIfAbsent(predicate, e -> new HashSet<>());
+        Map<Node<HornClause>, RevisionExamples> leafExamples = treeTheory.getLeafExampleMapFromTree(predicate);
+        Node<HornClause> root = treeTheory.getTreeForExample(examples.get(0), predicate);
+        Set<Atom> coveredExamples = transverseTheoryTree(root, examples, modifiedLeaves, leafExamples);
+        for (Example example : examples) {
+            addExamplesToLeaf(root.getDefaultChild(),
+                              getNotCoveredExampleFromSplit(splitCoveredExamples(example, coveredExamples)),
+                              modifiedLeaves, leafExamples);
+        }
+    }
+
     /**
      * Places an incoming example into the correct leaves and append the leaves in the set of the modified leaves.
      *
@@ -226,6 +296,68 @@ public class TreeExampleManager extends IncomingExampleManager {
         return coveredExamples;
     }
 
+    /**
+     * Transverses the theory tree passing the covered examples to the respective sons and repeating the process for
+     * each son, evaluating all the examples by a single inference at each node. All the leaves modified by the
+     * process will be appended to the modifiedLeaves set.
+     *
+     * @param root           the root of the tree
+     * @param examples       the covered examples at the root level, already evaluated by the root node
+     * @param modifiedLeaves the set of modified leaves
+     * @param leafExamples   the map of examples of the leaves, given the predicate
+     * @return a set of covered atoms by the root
+     */
+    protected Set<Atom> transverseTheoryTree(Node<HornClause> root, Collection<? extends Example> examples,
+                                             Set<Node<HornClause>> modifiedLeaves,
+                                             Map<Node<HornClause>, RevisionExamples> leafExamples) {
+        List<AtomExample> groundedQueries = examples.stream().flatMap(e -> e.getGroundedQuery().stream())
+                .collect(Collectors.toList());
+        if (groundedQueries.isEmpty()) { return Collections.emptySet(); }
+        Map<Example, Map<Atom, Double>> inferred = learningSystem.inferExamples(root.getElement(), groundedQueries);
+        Set<Atom> coveredExamples = inferred.values().stream().
+                flatMap(e -> e.keySet().stream()).collect(Collectors.toSet());
+
+        List<ProPprExample> coveredExamplesFromSplit = new ArrayList<>(examples.size());
+        ProPprExample coveredExampleFromSplit;
+        for (Example example : examples) {
+            coveredExampleFromSplit = getCoveredExampleFromSplit(splitCoveredExamples(example, coveredExamples));
+            if (!coveredExampleFromSplit.getGroundedQuery().isEmpty()) {
+                coveredExamplesFromSplit.add(coveredExampleFromSplit);
+            }
+        }
+        if (root.getChildren().isEmpty()) {
+            for (ProPprExample example : coveredExamplesFromSplit) {
+                addExamplesToLeaf(root, example, modifiedLeaves, leafExamples);
+            }
+        } else if (!coveredExamplesFromSplit.isEmpty()) {
+            pushExamplesToChild(root, coveredExamplesFromSplit, modifiedLeaves, leafExamples);
+        }
+        return coveredExamples;
+    }
+
+    /**
+     * Pushes the examples to the node, if the node has more children, recursively pushes to its children as well.
+     * The examples are pushed together, so each node evaluates all of them by a single inference.
+     *
+     * @param node           the node
+     * @param examples       the examples
+     * @param modifiedLeaves the modifiedLeaves set to save the modified leaves
+     * @param leafExamples   the leaf examples map to save the examples of each leaf
+     */
+    protected void pushExamplesToChild(Node<HornClause> node, Collection<? extends Example> examples,
+                                       Set<Node<HornClause>> modifiedLeaves,
+                                       Map<Node<HornClause>, RevisionExamples> leafExamples) {
+        Set<Atom> allCoveredExamples = new HashSet<>();
+        for (Node<HornClause> child : node.getChildren()) {
+            allCoveredExamples.addAll(transverseTheoryTree(child, examples, modifiedLeaves, leafExamples));
+        }
+        for (Example example : examples) {
+            addExamplesToLeaf(node.getDefaultChild(),
+                              getNotCoveredExampleFromSplit(splitCoveredExamples(example, allCoveredExamples)),
+                              modifiedLeaves, leafExamples);
+        }
+    }
+
     /**
      * Pushes the examples to the node, if the node has more children, recursively pushes to its children as well.
      *
@@ -254,6 +386,10 @@ public class TreeExampleManager extends IncomingExampleManager {
      * @param modifiedLeaves the modified leaves
      */
     protected void callRevision(Map<String, Set<Node<HornClause>>> modifiedLeaves) {
+        if (revisePredicatesTogether) {
+            callRevisionOfAllPredicates(modifiedLeaves);
+            return;
+        }
         List<RevisionExamples> targets;
         for (Map.Entry<String, Set<Node<HornClause>>> entry : modifiedLeaves.entrySet()) {
             treeTheory.revisionLeaves = new ArrayList<>();
@@ -270,6 +406,28 @@ public class TreeExampleManager extends IncomingExampleManager {
         }
     }
 
+    /**
+     * Labels the modified leaves of all the predicates as the revision points and call the {@link LearningSystem}
+     * for a single revision. It is not guaranteed that the revision will occur.
+     *
+     * @param modifiedLeaves the modified leaves
+     */
+    protected void callRevisionOfAllPredicates(Map<String, Set<Node<HornClause>>> modifiedLeaves) {
+        List<RevisionExamples> targets = new ArrayList<>();
+        treeTheory.revisionLeaves = new ArrayList<>();
+        for (Map.Entry<String, Set<Node<HornClause>>> entry : modifiedLeaves.entrySet()) {
+            for (Node<HornClause> leaf : entry.getValue()) {
+                RevisionExamples target = treeTheory.getExampleFromLeaf(entry.getKey(), leaf);
+                if (target != null && !target.isEmpty()) {
+                    targets.add(target);
+                    treeTheory.revisionLeaves.add(leaf);
+                }
+            }
+        }
+        logger.debug(CALLING_REVISION_OF_LEAVES_OF_PREDICATES.toString(), targets.size(), modifiedLeaves.keySet());
+        learningSystem.reviseTheory(targets);
+    }
+
     /**
      * Gets the tree theory.
      *
@@ -33,6 +33,7 @@ import br.ufrj.cos.core.LearningSystem;
 import br.ufrj.cos.knowledge.example.Example;
 import br.ufrj.cos.knowledge.example.Examples;
 import br.ufrj.cos.knowledge.theory.Theory;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.PartialEvaluation;
 import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.logic.Atom;
 import br.ufrj.cos.logic.HornClause;
@@ -45,6 +46,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.*;
 
+import static br.ufrj.cos.util.log.PosRevisionLog.REVISED_THEORY_EVALUATION_STOPPED;
 import static br.ufrj.cos.util.log.RevisionLog.INITIALIZING_THEORY_EVALUATOR;
 
 /**
@@ -189,6 +191,56 @@ public class TheoryEvaluator implements Initializable {
         return metric.evaluate(evaluationResult, examples);
     }
 
+    /**
+     * Evaluates the {@link Theory} against the represented metric, stopping as soon as the evaluation can no longer
+     * improve over the current evaluation by the given threshold.
+     * <p>
+     * The examples are inferred in batches of the given size and, after each batch, the evaluation stops if even
+     * the best possible value of the metric, given the remaining examples, does not reach the threshold. In this
+     * case, the best possible value is returned, which is enough to reject the theory. If the batch size is not
+     * positive, or if the parameters must be retrained before the evaluation, the theory is evaluated on all
+     * examples at once.
+     * <p>
+     * The parameters and theory changes due the call of this method should not be stored.
+     *
+     * @param metric               the {@link TheoryMetric}
+     * @param theory               the {@link Theory}
+     * @param examples             the examples
+     * @param currentEvaluation    the current evaluation
+     * @param improvementThreshold the improvement threshold over the current evaluation
+     * @param batchSize            the number of examples inferred at once
+     * @return the evaluation value, or the best possible value, if the evaluation has stopped
+     */
+    public double evaluateTheory(TheoryMetric metric, Theory theory, Collection<? extends Example> examples,
+                                 double currentEvaluation, double improvementThreshold, int batchSize) {
+        if (batchSize < 1 || examples.size() <= batchSize || metric.parametersRetrainedBeforeEvaluate) {
+            return evaluateTheory(metric, theory, examples);
+        }
+        List<Example> exampleList = new ArrayList<>(examples);
+        PartialEvaluation evaluation = metric.createPartialEvaluation();
+        Map<Example, Map<Atom, Double>> evaluationResult;
+        List<Example> batch;
+        List<Example> remaining;
+        double bestPossible;
+        for (int i = 0; i < exampleList.size(); i += batchSize) {
+            batch = exampleList.subList(i, Math.min(i + batchSize, exampleList.size()));
+            evaluationResult = learningSystem.inferExamples(theory, batch);
+            for (Example example : batch) {
+                evaluation.add(example, evaluationResult.get(example));
+            }
+            remaining = exampleList.subList(i + batch.size(), exampleList.size());
+            if (remaining.isEmpty()) { break; }
+            bestPossible = evaluation.getBestPossibleValue(remaining);
+            if (metric.difference(bestPossible, currentEvaluation) < improvementThreshold) {
+                logger.debug(REVISED_THEORY_EVALUATION_STOPPED.toString(), i + batch.size(), exampleList.size(),
+                             bestPossible);
+                return bestPossible;
+            }
+        }
+
+        return evaluation.getValue();
+    }
+
     /**
      * Evaluates the {@link Theory} against the represented metric, appending new {@link HornClause}.
      * <p>
@@ -0,0 +1,98 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package br.ufrj.cos.knowledge.theory.evaluation.metric;
+
+import br.ufrj.cos.knowledge.example.Example;
+import br.ufrj.cos.logic.Atom;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Keeps the partial state of the evaluation of a {@link TheoryMetric}, in order to evaluate the examples
+ * incrementally, as they are inferred, without having to re-evaluate the already evaluated ones.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public abstract class PartialEvaluation {
+
+    protected final TheoryMetric metric;
+
+    /**
+     * Constructs the partial evaluation of the metric.
+     *
+     * @param metric the {@link TheoryMetric}
+     */
+    protected PartialEvaluation(TheoryMetric metric) {
+        this.metric = metric;
+    }
+
+    /**
+     * Adds the inferred result of the example to the evaluation.
+     *
+     * @param example        the example
+     * @param inferredResult the inferred result of the example, it might be {@code null}, if the example has no
+     *                       inferred result
+     */
+    public abstract void add(Example example, Map<Atom, Double> inferredResult);
+
+    /**
+     * Gets the value of the metric over the added examples.
+     *
+     * @return the value of the metric
+     */
+    public abstract double getValue();
+
+    /**
+     * Gets the best value the metric can reach, if the remaining examples were added to the evaluation. This value
+     * allows to stop the evaluation as soon as it is not able to reach a given value.
+     * <p>
+     * By default, it is the maximum value of the metric, which never stops the evaluation.
+     *
+     * @param remainingExamples the examples that have not been added yet
+     * @return the best possible value of the metric
+     */
+    public double getBestPossibleValue(Collection<? extends Example> remainingExamples) {
+        return metric.getMaximumValue();
+    }
+
+    /**
+     * Gets the metric.
+     *
+     * @return the metric
+     */
+    public TheoryMetric getMetric() {
+        return metric;
+    }
+
+}
@@ -37,9 +37,7 @@ import br.ufrj.cos.knowledge.theory.Theory;
 import br.ufrj.cos.logic.Atom;
 import br.ufrj.cos.util.Initializable;
 
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Responsible for evaluating the {@link Theory} against some metric.
@@ -80,6 +78,18 @@ public abstract class TheoryMetric implements Comparator<Double>, Initializable
     public abstract double evaluate(Map<Example, Map<Atom, Double>> inferredResult,
                                     Collection<? extends Example> examples);
 
+    /**
+     * Creates an empty partial evaluation of the metric, in order to evaluate the examples incrementally.
+     * <p>
+     * By default, the partial evaluation keeps the inferred results of the added examples and evaluates all of them
+     * at once. Override this method whenever the metric can be evaluated from a smaller partial state.
+     *
+     * @return the empty partial evaluation
+     */
+    public PartialEvaluation createPartialEvaluation() {
+        return new InferredResultEvaluation(this);
+    }
+
     /**
      * Gets the default value of a metric, this value must by the worst possible value of the metric. This value
      * should be used when one fails to evaluateTheory the {@link Theory} with this metric (e.g. evaluation takes longer
@@ -176,4 +186,34 @@ public abstract class TheoryMetric implements Comparator<Double>, Initializable
     @Override
     public abstract String toString();
 
+    /**
+     * Partial evaluation that keeps the inferred results of the added examples and evaluates all of them at once.
+     */
+    protected static class InferredResultEvaluation extends PartialEvaluation {
+
+        protected final Map<Example, Map<Atom, Double>> inferredResult = new HashMap<>();
+        protected final List<Example> examples = new ArrayList<>();
+
+        /**
+         * Constructs the partial evaluation of the metric.
+         *
+         * @param metric the {@link TheoryMetric}
+         */
+        protected InferredResultEvaluation(TheoryMetric metric) {
+            super(metric);
+        }
+
+        @Override
+        public void add(Example example, Map<Atom, Double> inferredResult) {
+            examples.add(example);
+            if (inferredResult != null) { this.inferredResult.put(example, inferredResult); }
+        }
+
+        @Override
+        public double getValue() {
+            return metric.evaluate(inferredResult, examples);
+        }
+
+    }
+
 }
@@ -33,6 +33,7 @@ import br.ufrj.cos.engine.EngineSystemTranslator;
 import br.ufrj.cos.knowledge.example.AtomExample;
 import br.ufrj.cos.knowledge.example.Example;
 import br.ufrj.cos.knowledge.example.Examples;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.PartialEvaluation;
 import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.logic.Atom;
 
@@ -60,6 +61,11 @@ public abstract class ConfusionMatrixBasedMetric extends TheoryMetric {
         return calculateConfusionMatrixMetric();
     }
 
+    @Override
+    public PartialEvaluation createPartialEvaluation() {
+        return new ConfusionMatrixEvaluation(this);
+    }
+
     /**
      * Initializes the confusion matrix with all the cells as zero.
      */
@@ -92,7 +98,21 @@ public abstract class ConfusionMatrixBasedMetric extends TheoryMetric {
      *
      * @return the metric
      */
-    protected abstract double calculateConfusionMatrixMetric();
+    protected double calculateConfusionMatrixMetric() {
+        return calculateConfusionMatrixMetric(truePositive, trueNegative, falsePositive, falseNegative);
+    }
+
+    /**
+     * Calculates a metric based on the cells of a confusion matrix.
+     *
+     * @param truePositive  the number of true positive examples
+     * @param trueNegative  the number of true negative examples
+     * @param falsePositive the number of false positive examples
+     * @param falseNegative the number of false negative examples
+     * @return the metric
+     */
+    protected abstract double calculateConfusionMatrixMetric(int truePositive, int trueNegative, int falsePositive,
+                                                             int falseNegative);
 
     /**
      * Increments the correspondent matrix cell based on the proved example.
@@ -118,4 +138,73 @@ public abstract class ConfusionMatrixBasedMetric extends TheoryMetric {
         }
     }
 
+    /**
+     * Partial evaluation that keeps the cells of the confusion matrix of the added examples.
+     * <p>
+     * The best possible value assumes that all the remaining examples will be correctly classified.
+     */
+    protected static class ConfusionMatrixEvaluation extends PartialEvaluation {
+
+        protected final ConfusionMatrixBasedMetric confusionMatrixMetric;
+
+        protected int truePositive;
+        protected int trueNegative;
+        protected int falsePositive;
+        protected int falseNegative;
+
+        /**
+         * Constructs the partial evaluation of the metric.
+         *
+         * @param metric the {@link ConfusionMatrixBasedMetric}
+         */
+        protected ConfusionMatrixEvaluation(ConfusionMatrixBasedMetric metric) {
+            super(metric);
+            this.confusionMatrixMetric = metric;
+        }
+
+        @Override
+        public void add(Example example, Map<Atom, Double> inferredResult) {
+            for (AtomExample atomExample : example.getGroundedQuery()) {
+                if (inferredResult != null && inferredResult.containsKey(atomExample.getAtom())) {
+                    if (atomExample.isPositive()) {
+                        truePositive++;
+                    } else {
+                        falsePositive++;
+                    }
+                } else {
+                    if (atomExample.isPositive()) {
+                        falseNegative++;
+                    } else {
+                        trueNegative++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public double getValue() {
+            return confusionMatrixMetric.calculateConfusionMatrixMetric(truePositive, trueNegative, falsePositive,
+                                                                        falseNegative);
+        }
+
+        @Override
+        public double getBestPossibleValue(Collection<? extends Example> remainingExamples) {
+            int positives = 0;
+            int negatives = 0;
+            for (Example example : remainingExamples) {
+                for (AtomExample atomExample : example.getGroundedQuery()) {
+                    if (atomExample.isPositive()) {
+                        positives++;
+                    } else {
+                        negatives++;
+                    }
+                }
+            }
+            return confusionMatrixMetric.calculateConfusionMatrixMetric(truePositive + positives,
+                                                                        trueNegative + negatives,
+                                                                        falsePositive, falseNegative);
+        }
+
+    }
+
 }
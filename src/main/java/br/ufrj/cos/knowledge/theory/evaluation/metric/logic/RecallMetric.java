@@ -42,7 +42,8 @@ package br.ufrj.cos.knowledge.theory.evaluation.metric.logic;
 public class RecallMetric extends ConfusionMatrixBasedMetric {
 
     @Override
-    protected double calculateConfusionMatrixMetric() {
+    protected double calculateConfusionMatrixMetric(int truePositive, int trueNegative, int falsePositive,
+                                                    int falseNegative) {
         if (truePositive == 0) { return 0.0; }
         return (double) (truePositive) / (truePositive + falseNegative);
     }
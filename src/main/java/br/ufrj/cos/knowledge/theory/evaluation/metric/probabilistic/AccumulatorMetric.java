@@ -31,6 +31,7 @@ package br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic;
 
 import br.ufrj.cos.knowledge.example.AtomExample;
 import br.ufrj.cos.knowledge.example.Example;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.PartialEvaluation;
 import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.logic.Atom;
 
@@ -62,6 +63,11 @@ public abstract class AccumulatorMetric<J, K> extends TheoryMetric {
         return evaluation != null ? calculateResult(evaluation) : getDefaultValue();
     }
 
+    @Override
+    public PartialEvaluation createPartialEvaluation() {
+        return new AccumulatedEvaluation<>(this);
+    }
+
     /**
      * Calculates the internal evaluation of the inferred results over the examples.
      *
@@ -91,6 +97,21 @@ public abstract class AccumulatorMetric<J, K> extends TheoryMetric {
      */
     protected abstract double calculateResult(J result);
 
+    /**
+     * Gets the best value the metric can reach from the accumulated value, if the remaining examples were
+     * accumulated to it.
+     * <p>
+     * By default, it is the maximum value of the metric. Override this method whenever the accumulated value
+     * bounds the final value of the metric.
+     *
+     * @param result            the accumulated value
+     * @param remainingExamples the examples that have not been accumulated yet
+     * @return the best possible value of the metric
+     */
+    protected double calculateBestPossibleResult(J result, Collection<? extends Example> remainingExamples) {
+        return getMaximumValue();
+    }
+
     /**
      * Initial value for the accumulator. This value must be the neutral element of the
      * {@link #accumulate(Object, Object)} function.
@@ -143,4 +164,51 @@ public abstract class AccumulatorMetric<J, K> extends TheoryMetric {
      */
     protected abstract K calculateAppend(AtomExample atomExample, double value);
 
+    /**
+     * Partial evaluation that keeps the accumulated value of the added examples.
+     *
+     * @param <J> the type of the accumulated object
+     */
+    protected static class AccumulatedEvaluation<J> extends PartialEvaluation {
+
+        protected final AccumulatorMetric<J, ?> accumulatorMetric;
+        protected J result;
+        protected boolean inferred;
+
+        /**
+         * Constructs the partial evaluation of the metric.
+         *
+         * @param metric the {@link AccumulatorMetric}
+         */
+        protected AccumulatedEvaluation(AccumulatorMetric<J, ?> metric) {
+            super(metric);
+            this.accumulatorMetric = metric;
+            this.result = metric.initialAccumulatorValue();
+        }
+
+        @Override
+        public void add(Example example, Map<Atom, Double> inferredResult) {
+            Map<Atom, Double> atomValues = inferredResult;
+            if (atomValues != null) {
+                inferred = true;
+            } else {
+                atomValues = Collections.emptyMap();
+            }
+            result = accumulatorMetric.accumulate(result,
+                                                  accumulatorMetric.evaluateExamples(example.getGroundedQuery(),
+                                                                                     atomValues));
+        }
+
+        @Override
+        public double getValue() {
+            return inferred ? accumulatorMetric.calculateResult(result) : accumulatorMetric.getDefaultValue();
+        }
+
+        @Override
+        public double getBestPossibleValue(Collection<? extends Example> remainingExamples) {
+            return accumulatorMetric.calculateBestPossibleResult(result, remainingExamples);
+        }
+
+    }
+
 }
@@ -30,6 +30,9 @@
 package br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic;
 
 import br.ufrj.cos.knowledge.example.AtomExample;
+import br.ufrj.cos.knowledge.example.Example;
+
+import java.util.Collection;
 
 /**
  * Calculates the likelihood of a theory, given the examples.
@@ -54,6 +57,17 @@ public class LikelihoodMetric extends AccumulatorMetric<Double, Double> {
         return result;
     }
 
+    /**
+     * Since each example contributes with a value of, at most, the neutral element of the accumulation, the
+     * accumulated value is the best value the metric can reach.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected double calculateBestPossibleResult(Double result, Collection<? extends Example> remainingExamples) {
+        return calculateResult(result);
+    }
+
     @Override
     protected Double initialAccumulatorValue() {
         return 1.0;
@@ -128,6 +128,10 @@ public class HoeffdingBoundTheoryManager extends TheoryRevisionManager {
     public boolean applyRevision(RevisionOperatorSelector operatorSelector,
                                  RevisionExamples examples) throws TheoryRevisionException {
         double epsilon = calculateHoeffdingBound(theoryMetric.getRange(), examples.getRelevantSampleSize());
+        if (!isBoundReachable(epsilon)) {
+            logger.trace(SKIPPING_REVISION_ON_EXAMPLES);
+            return false;
+        }
         theoryEvaluation = evaluateCurrentTheory(examples);
         double bestPossibleImprovement = theoryMetric.bestPossibleImprovement(theoryEvaluation);
         // tests if the best possible improvement is enough to pass the Hoeffding's threshold
@@ -148,6 +152,46 @@ public class HoeffdingBoundTheoryManager extends TheoryRevisionManager {
         return false;
     }
 
+    @Override
+    public RevisionOperatorEvaluator proposeRevision(RevisionOperatorSelector operatorSelector,
+                                                     RevisionExamples examples) throws TheoryRevisionException {
+        double epsilon = calculateHoeffdingBound(theoryMetric.getRange(), examples.getRelevantSampleSize());
+        if (!isBoundReachable(epsilon)) {
+            logger.trace(SKIPPING_REVISION_ON_EXAMPLES);
+            return null;
+        }
+        double currentEvaluation = evaluateCurrentTheory(examples);
+        // tests if the best possible improvement is enough to pass the Hoeffding's threshold
+        if (theoryMetric.bestPossibleImprovement(currentEvaluation) >= epsilon) {
+            return proposeRevision(operatorSelector, examples, currentEvaluation, epsilon);
+        }
+        logger.trace(SKIPPING_REVISION_ON_EXAMPLES);
+        return null;
+    }
+
+    @Override
+    public boolean applyJointRevision(Theory revisedTheory, Collection<? extends RevisionExamples> revisionPoints) {
+        final boolean revised = super.applyJointRevision(revisedTheory, revisionPoints);
+        if (revised) { updateDelta(); }
+        return revised;
+    }
+
+    @Override
+    protected double getJointImprovementThreshold(int sampleSize) {
+        return calculateHoeffdingBound(theoryMetric.getRange(), sampleSize);
+    }
+
+    /**
+     * Checks if the Hoeffding's bound might be reached by any improvement. Since no improvement is bigger than the
+     * range of the metric, there is no need to evaluate the current theory when epsilon is bigger than it.
+     *
+     * @param epsilon the Hoeffding's bound value of epsilon
+     * @return {@code true} if the bound might be reached, {@code false} otherwise
+     */
+    protected boolean isBoundReachable(double epsilon) {
+        return epsilon <= theoryMetric.getRange();
+    }
+
     /**
      * Calculates the Hoeffding's bound value of epsilon. The value is given by the formula:
      * <p>
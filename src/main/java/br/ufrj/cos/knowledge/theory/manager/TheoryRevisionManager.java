@@ -32,6 +32,7 @@ package br.ufrj.cos.knowledge.theory.manager;
 import br.ufrj.cos.core.LearningSystem;
 import br.ufrj.cos.knowledge.example.Example;
 import br.ufrj.cos.knowledge.theory.Theory;
+import br.ufrj.cos.knowledge.theory.evaluation.TheoryEvaluator;
 import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic.RocCurveMetric;
 import br.ufrj.cos.knowledge.theory.manager.revision.RevisionManager;
@@ -49,6 +50,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static br.ufrj.cos.util.log.PosRevisionLog.*;
@@ -78,12 +80,24 @@ public class TheoryRevisionManager implements Initializable {
      * The default theory metric.
      */
     public static final TheoryMetric DEFAULT_THEORY_METRIC = new RocCurveMetric();
+    /**
+     * Represents no batch on the evaluation of the revised theory, i.e. the revised theory is evaluated on all the
+     * examples at once.
+     */
+    public static final int NO_EVALUATION_BATCH_SIZE = -1;
     /**
      * To train using all the examples. if setted to {@code false}, it trains using only the examples considered
      * independents.
      */
     @SuppressWarnings("CanBeFinal")
     public boolean trainUsingAllExamples = true;
+    /**
+     * The number of examples inferred at once on the evaluation of the revised theory. After each batch, the
+     * evaluation stops if the revised theory can no longer improve over the current theory by the threshold. If it
+     * is not positive, the revised theory is evaluated on all the examples at once.
+     */
+    @SuppressWarnings("CanBeFinal")
+    public int evaluationBatchSize = NO_EVALUATION_BATCH_SIZE;
     protected long theoryLastChange = TimeUtils.getNanoTime();
     protected double theoryEvaluation;
 
@@ -162,14 +176,111 @@ public class TheoryRevisionManager implements Initializable {
     }
 
     /**
-     * Evaluates the current theory, if necessary.
+     * Proposes a revision on the examples, without applying it. The proposal is evaluated against the current
+     * theory, and it is only returned if it outperforms the current theory by a given threshold.
+     * <p>
+     * This method does not change the state of the manager, so it can be called concurrently for examples of
+     * different revision points, as long as the operator selectors are not shared.
+     *
+     * @param operatorSelector the operator selector
+     * @param examples         the examples for the revision
+     * @return the evaluator of the proposed revision, whose revised theory can be retrieved by
+     * {@link RevisionOperatorEvaluator#getRevisedTheory(Collection)}; or {@code null}, if there is no proposal
+     * @throws TheoryRevisionException in case an error occurs on the revision
+     */
+    public RevisionOperatorEvaluator proposeRevision(RevisionOperatorSelector operatorSelector,
+                                                     RevisionExamples examples) throws TheoryRevisionException {
+        return proposeRevision(operatorSelector, examples, evaluateCurrentTheory(examples),
+                               NO_IMPROVEMENT_THRESHOLD);
+    }
+
+    /**
+     * Proposes a revision on the examples, without applying it, if the revision outperforms the current theory by
+     * a given threshold.
+     *
+     * @param operatorSelector     the operator selector
+     * @param examples             the examples for the revision
+     * @param currentEvaluation    the current evaluation value of the theory
+     * @param improvementThreshold the improvement threshold
+     * @return the evaluator of the proposed revision, or {@code null}, if there is no proposal
+     * @throws TheoryRevisionException in case an error occurs on the revision
+     */
+    protected RevisionOperatorEvaluator proposeRevision(RevisionOperatorSelector operatorSelector,
+                                                        RevisionExamples examples, double currentEvaluation,
+                                                        double improvementThreshold) throws TheoryRevisionException {
+        logger.debug(CALLING_REVISION_ON_EXAMPLES.toString(),
+                     examples.getTrainingExamples(trainUsingAllExamples).size());
+        RevisionOperatorEvaluator operatorEvaluator;
+        operatorEvaluator = operatorSelector.selectOperator(examples.getTrainingExamples(trainUsingAllExamples),
+                                                            theoryMetric);
+        logger.debug(SELECTED_OPERATOR.toString(), operatorEvaluator);
+        if (operatorEvaluator == null) { return null; }
+        double revised = operatorEvaluator.evaluateOperator(examples.getRelevantSample(), theoryMetric,
+                                                            currentEvaluation, improvementThreshold,
+                                                            evaluationBatchSize);
+        logger.debug(REVISED_THEORY_EVALUATION.toString(), revised);
+        double improve = theoryMetric.difference(revised, currentEvaluation);
+        if (improve >= improvementThreshold) { return operatorEvaluator; }
+        logger.debug(THEORY_MODIFICATION_SKIPPED.toString(), improve, currentEvaluation, improvementThreshold);
+        operatorEvaluator.clearCachedTheory();
+        return null;
+    }
+
+    /**
+     * Applies a revision that joins the proposals of several revision points, if the revised theory outperforms
+     * the current theory on the examples of all the revision points.
+     *
+     * @param revisedTheory  the revised theory, with the proposals of all the revision points
+     * @param revisionPoints the revision points
+     * @return {@code true} if the revision was applied, {@code false} otherwise
+     */
+    public boolean applyJointRevision(Theory revisedTheory, Collection<? extends RevisionExamples> revisionPoints) {
+        List<Example> relevantSample = new ArrayList<>();
+        List<Example> trainingExamples = new ArrayList<>();
+        for (RevisionExamples examples : revisionPoints) {
+            relevantSample.addAll(examples.getRelevantSample());
+            trainingExamples.addAll(examples.getTrainingExamples(trainUsingAllExamples));
+        }
+        TheoryEvaluator theoryEvaluator = learningSystem.getTheoryEvaluator();
+        theoryEvaluation = theoryEvaluator.evaluateTheory(theoryMetric, learningSystem.getTheory(), relevantSample);
+        double revised = theoryEvaluator.evaluateTheory(theoryMetric, revisedTheory, relevantSample);
+        logger.debug(REVISED_THEORY_EVALUATION.toString(), revised);
+        double improve = theoryMetric.difference(revised, theoryEvaluation);
+        double improvementThreshold = getJointImprovementThreshold(relevantSample.size());
+        PosRevisionLog logMessage = THEORY_MODIFICATION_SKIPPED;
+        boolean theoryChanged = false;
+        if (improve >= improvementThreshold) {
+            learningSystem.setTheory(revisedTheory);
+            learningSystem.trainParameters(trainingExamples);
+            learningSystem.saveTrainedParameters();
+            logMessage = THEORY_MODIFICATION_ACCEPTED;
+            theoryLastChange = TimeUtils.getNanoTime();
+            theoryChanged = true;
+        }
+        logger.debug(logMessage.toString(), improve, theoryEvaluation, improvementThreshold);
+        logger.debug(THEORY_CONTENT.toString(), learningSystem.getTheory().toString());
+        return theoryChanged;
+    }
+
+    /**
+     * Gets the improvement threshold for the joint revision of several revision points.
+     *
+     * @param sampleSize the size of the relevant sample of all the revision points
+     * @return the improvement threshold
+     */
+    protected double getJointImprovementThreshold(int sampleSize) {
+        return NO_IMPROVEMENT_THRESHOLD;
+    }
+
+    /**
+     * Evaluates the current theory, if necessary. Only the examples that were not evaluated since the last change on
+     * the theory are inferred, and their evaluation is merged to the previous one.
      *
      * @param examples the examples to be evaluated
      * @return the theory evaluation
      */
     protected double evaluateCurrentTheory(RevisionExamples examples) {
-        return this.theoryMetric.evaluate(examples.getInferredExamples(theoryLastChange),
-                                          examples.getRelevantSample());
+        return examples.evaluate(theoryMetric, theoryLastChange);
     }
 
     /**
@@ -186,7 +297,9 @@ public class TheoryRevisionManager implements Initializable {
     protected boolean applyRevision(RevisionOperatorEvaluator operatorEvaluator, RevisionExamples examples,
                                     double currentEvaluation,
                                     double improvementThreshold) throws TheoryRevisionException {
-        double revised = operatorEvaluator.evaluateOperator(examples.getRelevantSample(), theoryMetric);
+        double revised = operatorEvaluator.evaluateOperator(examples.getRelevantSample(), theoryMetric,
+                                                            currentEvaluation, improvementThreshold,
+                                                            evaluationBatchSize);
         logger.debug(REVISED_THEORY_EVALUATION.toString(), revised);
         double improve = theoryMetric.difference(revised, currentEvaluation);
         PosRevisionLog logMessage = THEORY_MODIFICATION_SKIPPED;
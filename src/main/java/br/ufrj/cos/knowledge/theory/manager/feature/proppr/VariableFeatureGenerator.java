@@ -30,6 +30,7 @@
 package br.ufrj.cos.knowledge.theory.manager.feature.proppr;
 
 import br.ufrj.cos.knowledge.example.Example;
+import br.ufrj.cos.knowledge.theory.Theory;
 import br.ufrj.cos.knowledge.theory.manager.feature.FeatureGenerator;
 import br.ufrj.cos.knowledge.theory.manager.feature.proppr.heuristic.SubstitutionHeuristic;
 import br.ufrj.cos.knowledge.theory.manager.feature.proppr.heuristic.ZeroHeuristic;
@@ -38,6 +39,7 @@ import br.ufrj.cos.util.HornClauseUtils;
 import br.ufrj.cos.util.InitializationException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static br.ufrj.cos.util.HornClauseUtils.buildQueriesFromExamples;
@@ -65,6 +67,14 @@ public class VariableFeatureGenerator extends FeatureGenerator {
      * The default value of the flag to delete target constant.
      */
     public static final boolean DEFAULT_DELETE_TARGET_CONSTANT = false;
+    /**
+     * The default maximum number of rules whose groundings are kept.
+     */
+    public static final int DEFAULT_MAXIMUM_CACHED_RULES = 64;
+    /**
+     * Represents a query that has no substitution, in the kept groundings.
+     */
+    protected static final Map<Atom, Double> NO_SUBSTITUTIONS = Collections.unmodifiableMap(new HashMap<>());
     /**
      * The heuristic to be applied to the substitution of the variables in order to decide which variables are the
      * best ones.
@@ -82,6 +92,18 @@ public class VariableFeatureGenerator extends FeatureGenerator {
      * The target constants are the ones that are instantiated in an example in ProPPR's format.
      */
     public boolean deleteTargetConstant = DEFAULT_DELETE_TARGET_CONSTANT;
+    /**
+     * The maximum number of rules whose substitution groundings, for each example, are kept. This is only a cache of
+     * the substitution query, used to choose the feature variables: when the same rule asks for features again, the
+     * substitution clause of its body is grounded only for the examples that were not grounded before, as long as
+     * the knowledge of the {@link br.ufrj.cos.engine.EngineSystemTranslator} does not change. The groundings are not
+     * shared with the feature variant of the rule, which is still grounded in full, when it is evaluated. If it is not
+     * positive, the groundings are not kept.
+     */
+    public int maximumCachedRules = DEFAULT_MAXIMUM_CACHED_RULES;
+    protected Map<HornClause, Map<Example, Map<Atom, Double>>> cachedGroundings;
+    protected Theory groundedTheory;
+    protected long groundedVersion;
     protected UniqueRuleFeatureGenerator uniqueRuleFeatureGenerator = new UniqueRuleFeatureGenerator();
 
     @Override
@@ -90,6 +112,14 @@ public class VariableFeatureGenerator extends FeatureGenerator {
         uniqueRuleFeatureGenerator.setLearningSystem(learningSystem);
         uniqueRuleFeatureGenerator.initialize();
         substitutionHeuristic.initialize();
+        if (maximumCachedRules > 0) {
+            cachedGroundings = new LinkedHashMap<HornClause, Map<Example, Map<Atom, Double>>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<HornClause, Map<Example, Map<Atom, Double>>> eldest) {
+                    return size() > maximumCachedRules;
+                }
+            };
+        }
     }
 
     @Override
@@ -100,8 +130,7 @@ public class VariableFeatureGenerator extends FeatureGenerator {
         Set<Example> querySet = buildQueriesFromExamples(examples, rule.getHead(), head,
                                                          false);
         if (querySet.isEmpty()) { return rule; }
-        Map<Example, Map<Atom, Double>> substitutions =
-                learningSystem.inferExamples(Collections.singleton(substitutionClause), querySet);
+        Map<Example, Map<Atom, Double>> substitutions = groundSubstitutionClause(substitutionClause, querySet);
 
         List<Term> featureVariables = getFeatureVariables(head, substitutions);
         if (addTargetVariables) { appendTargetVariables(head, examples, featureVariables); }
@@ -112,6 +141,72 @@ public class VariableFeatureGenerator extends FeatureGenerator {
         return new FeaturedClause(rule.getHead(), rule.getBody(), features);
     }
 
+    /**
+     * Grounds the substitution clause for the queries. The groundings of the queries that were already grounded for
+     * the same clause, under the current knowledge, are reused; and only the remaining queries are inferred.
+     *
+     * @param substitutionClause the substitution clause
+     * @param querySet           the queries
+     * @return the substitutions of the variables for each query that has any
+     */
+    protected Map<Example, Map<Atom, Double>> groundSubstitutionClause(HornClause substitutionClause,
+                                                                      Set<Example> querySet) {
+        Map<Example, Map<Atom, Double>> groundings = getCachedGroundings(substitutionClause);
+        if (groundings == null) {
+            return learningSystem.inferExamples(Collections.singleton(substitutionClause), querySet);
+        }
+        Map<Example, Map<Atom, Double>> substitutions = new HashMap<>();
+        Set<Example> notGrounded = new HashSet<>();
+        Map<Atom, Double> grounding;
+        for (Example query : querySet) {
+            grounding = groundings.get(query);
+            if (grounding == null) {
+                notGrounded.add(query);
+            } else if (grounding != NO_SUBSTITUTIONS) {
+                substitutions.put(query, grounding);
+            }
+        }
+        if (!notGrounded.isEmpty()) {
+            Map<Example, Map<Atom, Double>> inferred =
+                    learningSystem.inferExamples(Collections.singleton(substitutionClause), notGrounded);
+            for (Example query : notGrounded) {
+                grounding = inferred.get(query);
+                if (grounding == null) {
+                    groundings.put(query, NO_SUBSTITUTIONS);
+                } else {
+                    groundings.put(query, grounding);
+                    substitutions.put(query, grounding);
+                }
+            }
+        }
+        return substitutions;
+    }
+
+    /**
+     * Gets the kept groundings of the clause. The kept groundings are discarded whenever the theory is replaced or
+     * the version of the knowledge of the {@link br.ufrj.cos.engine.EngineSystemTranslator} changes, i.e. whenever
+     * atoms are added to the knowledge base, the theory is set or the parameters are trained, even when the
+     * parameters are trained directly on the translator, or on one of its thread local copies.
+     *
+     * @param substitutionClause the substitution clause
+     * @return the kept groundings of the clause, or {@code null}, if the groundings are not kept
+     */
+    protected Map<Example, Map<Atom, Double>> getCachedGroundings(HornClause substitutionClause) {
+        if (cachedGroundings == null) { return null; }
+        synchronized (cachedGroundings) {
+            final long version = learningSystem.getKnowledgeVersion();
+            if (groundedTheory != learningSystem.getTheory() || groundedVersion != version) {
+                cachedGroundings.clear();
+                groundedTheory = learningSystem.getTheory();
+                groundedVersion = version;
+            }
+            // copies the body, so the key is not affected by changes on the body of the rule
+            return cachedGroundings.computeIfAbsent(
+                    new HornClause(substitutionClause.getHead(), new Conjunction(substitutionClause.getBody())),
+                    clause -> new ConcurrentHashMap<>());
+        }
+    }
+
     /**
      * Gets the feature variables.
      *
@@ -30,15 +30,22 @@
 package br.ufrj.cos.knowledge.theory.manager.revision;
 
 import br.ufrj.cos.knowledge.example.Example;
+import br.ufrj.cos.knowledge.theory.Theory;
 import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.util.InitializationException;
+import br.ufrj.cos.util.multithreading.MultithreadingEvaluation;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static br.ufrj.cos.util.log.InferenceLog.ERROR_EVALUATING_REVISION_OPERATOR;
+import static br.ufrj.cos.util.log.InferenceLog.REVISION_OPERATOR_EVALUATION_TIMEOUT;
 
 /**
  * Class that selects the best possible revision operator.
@@ -54,6 +61,21 @@ public class BestRevisionOperatorSelector extends RevisionOperatorSelector {
      */
     public static final Logger logger = LogManager.getLogger();
 
+    /**
+     * The maximum number of threads used to evaluate the operators concurrently. If it is 1, the operators are
+     * evaluated one after another.
+     * <p>
+     * Each operator runs its revision and evaluation on its own thread; with a concurrent
+     * {@link br.ufrj.cos.core.LearningSystem}, each thread has its own view of the engine system.
+     */
+    public int numberOfThreads = 1;
+
+    /**
+     * The maximum amount of time, in seconds, allowed to the evaluation of each operator, when the operators are
+     * evaluated concurrently. An operator that does not finish within the time is not selected.
+     */
+    public int evaluationTimeout = MultithreadingEvaluation.DEFAULT_EVALUATION_TIMEOUT;
+
     RevisionOperatorEvaluatorSelector selector;
 
     @Override
@@ -61,6 +83,8 @@ public class BestRevisionOperatorSelector extends RevisionOperatorSelector {
         super.initialize();
         if (operatorEvaluators.size() < 2) {
             selector = new SingleRevisionOperatorEvaluator(operatorEvaluators);
+        } else if (numberOfThreads > 1) {
+            selector = new ConcurrentBestSelector(operatorEvaluators, numberOfThreads, evaluationTimeout);
         } else {
             selector = new BestSelector(operatorEvaluators);
         }
@@ -141,4 +165,105 @@ public class BestRevisionOperatorSelector extends RevisionOperatorSelector {
 
     }
 
+    private static class ConcurrentBestSelector extends BestSelector {
+
+        protected final int numberOfThreads;
+        protected final int evaluationTimeout;
+        /**
+         * The pool of the last selection, while its cancelled evaluations are still running.
+         */
+        protected ExecutorService cancelledPool;
+
+        public ConcurrentBestSelector(Collection<RevisionOperatorEvaluator> operatorEvaluators, int numberOfThreads,
+                                      int evaluationTimeout) {
+            super(operatorEvaluators);
+            this.numberOfThreads = Math.min(numberOfThreads, operatorEvaluators.size());
+            this.evaluationTimeout = evaluationTimeout;
+        }
+
+        /**
+         * Evaluates the operators concurrently, and selects the best one. The ties are broken in the order of the
+         * operators, as in the sequential evaluation.
+         * <p>
+         * The tasks do not change the operators: each one returns its revised theory along with its evaluation, and
+         * only the revised theory of the selected operator is cached in it, on this thread. So a task that is still
+         * running after the timeout can not leave a stale revised theory in an operator.
+         * <p>
+         * The evaluations do not respond to interruptions, so a cancelled evaluation keeps running on the operator
+         * after the timeout. Since the operators are stateful, the selection waits for the cancelled evaluations of
+         * the previous selection to end before evaluating the operators again, and for the ones of this selection
+         * to end before returning, if no evaluation has completed.
+         *
+         * @param targets the target examples
+         * @param metric  the metric
+         * @return the operator
+         */
+        @Override
+        public RevisionOperatorEvaluator selectOperator(Collection<? extends Example> targets, TheoryMetric metric) {
+            awaitCancelledEvaluations();
+            if (cancelledPool != null) { return preferred; }
+            List<Callable<Pair<Theory, Double>>> evaluations = new ArrayList<>(operatorEvaluators.size());
+            for (RevisionOperatorEvaluator evaluator : operatorEvaluators) {
+                evaluator.clearCachedTheory();
+                evaluations.add(() -> evaluator.reviseAndEvaluate(targets, metric));
+            }
+            List<Future<Pair<Theory, Double>>> futures;
+            ExecutorService evaluationPool = Executors.newFixedThreadPool(numberOfThreads);
+            try {
+                // when there are more operators than threads, the operators are evaluated in rounds
+                int rounds = (evaluations.size() + numberOfThreads - 1) / numberOfThreads;
+                futures = evaluationPool.invokeAll(evaluations, (long) evaluationTimeout * rounds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                logger.warn(ERROR_EVALUATING_REVISION_OPERATOR.toString(), e);
+                Thread.currentThread().interrupt();
+                return preferred;
+            } finally {
+                evaluationPool.shutdownNow();
+                if (!evaluationPool.isTerminated()) { cancelledPool = evaluationPool; }
+            }
+
+            RevisionOperatorEvaluator bestEvaluated = preferred;
+            Theory bestRevised = null;
+            double bestEvaluation = metric.getDefaultValue();
+            Pair<Theory, Double> current;
+            Iterator<Future<Pair<Theory, Double>>> iterator = futures.iterator();
+            for (RevisionOperatorEvaluator evaluator : operatorEvaluators) {
+                try {
+                    current = iterator.next().get();
+                    if (metric.compare(current.getRight(), bestEvaluation) > 0) {
+                        bestEvaluation = current.getRight();
+                        bestEvaluated = evaluator;
+                        bestRevised = current.getLeft();
+                    }
+                } catch (CancellationException e) {
+                    logger.warn(REVISION_OPERATOR_EVALUATION_TIMEOUT.toString(), evaluator, evaluationTimeout);
+                } catch (ExecutionException | InterruptedException e) {
+                    logger.warn(ERROR_EVALUATING_REVISION_OPERATOR.toString(), e);
+                }
+            }
+            if (bestRevised != null) {
+                bestEvaluated.setRevisedTheory(bestRevised);
+            } else {
+                // the preferred operator will be used, and its evaluation may still be running
+                awaitCancelledEvaluations();
+            }
+
+            return bestEvaluated;
+        }
+
+        /**
+         * Waits for the cancelled evaluations of the last selection to end, so their operators can be used again.
+         */
+        protected void awaitCancelledEvaluations() {
+            if (cancelledPool == null) { return; }
+            try {
+                if (cancelledPool.awaitTermination(7, TimeUnit.DAYS)) { cancelledPool = null; }
+            } catch (InterruptedException e) {
+                logger.warn(ERROR_EVALUATING_REVISION_OPERATOR.toString(), e);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
 }
\ No newline at end of file
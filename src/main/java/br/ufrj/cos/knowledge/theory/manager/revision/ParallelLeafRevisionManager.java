@@ -0,0 +1,333 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package br.ufrj.cos.knowledge.theory.manager.revision;
+
+import br.ufrj.cos.knowledge.manager.Node;
+import br.ufrj.cos.knowledge.theory.Theory;
+import br.ufrj.cos.knowledge.theory.manager.revision.operator.tree.TreeRevisionOperator;
+import br.ufrj.cos.knowledge.theory.manager.revision.point.RevisionExamples;
+import br.ufrj.cos.logic.HornClause;
+import br.ufrj.cos.logic.Predicate;
+import br.ufrj.cos.util.ExceptionMessages;
+import br.ufrj.cos.util.FileIOUtils;
+import br.ufrj.cos.util.InitializationException;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static br.ufrj.cos.util.log.RevisionLog.*;
+
+/**
+ * Class to revise, at each iteration, leaves of different predicates concurrently, based on some heuristic.
+ * <p>
+ * Since the trees of different predicates have disjoint sets of clauses, the best leaf of each predicate is revised
+ * concurrently, against the same theory. The proposed clauses of each predicate are joined into a single theory,
+ * which is accepted, or not, by a single evaluation on the examples of all the revised leaves.
+ * <p>
+ * The revision operators keep state between the proposal and the acceptance of a revision, so each concurrent leaf
+ * is revised by its own {@link RevisionOperatorSelector}: the first by the operator selector of the manager and the
+ * others by the {@link #concurrentOperatorSelectors}, whose {@link RevisionOperatorEvaluator}s must not be shared.
+ * The number of leaves revised at the same time is, at most, the number of operator selectors. The inference of the
+ * {@link br.ufrj.cos.core.LearningSystem} must be safe to be called concurrently.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class ParallelLeafRevisionManager extends BestLeafRevisionManager {
+
+    /**
+     * The logger
+     */
+    public static final Logger logger = LogManager.getLogger();
+
+    protected List<RevisionOperatorSelector> concurrentOperatorSelectors = Collections.emptyList();
+
+    @Override
+    public void reviseTheory(List<? extends RevisionExamples> revisionPoints,
+                             final boolean trainUsingAllExamples) {
+        int totalRevision = getMaximumRevisionPoints(revisionPoints);
+        List<Pair<Integer, ? extends RevisionExamples>> revisions = new LinkedList<>(
+                sortKeepingIndexes(revisionPoints, trainUsingAllExamples).subList(0, totalRevision));
+        while (!revisions.isEmpty()) {
+            List<Pair<Integer, ? extends RevisionExamples>> round = nextRound(revisions);
+            if (round.size() == 1) {
+                treeTheory.revisionLeafIndex = round.get(0).getKey();
+                callRevision(round.get(0).getValue());
+            } else {
+                reviseConcurrently(round, trainUsingAllExamples);
+            }
+        }
+    }
+
+    /**
+     * Removes, from the sorted revisions, the best leaf of each predicate, up to the number of operator selectors.
+     *
+     * @param revisions the sorted revisions
+     * @return the revisions to be performed concurrently, in the sorted order
+     */
+    protected List<Pair<Integer, ? extends RevisionExamples>> nextRound(
+            Collection<Pair<Integer, ? extends RevisionExamples>> revisions) {
+        int maximumSize = concurrentOperatorSelectors.size() + 1;
+        List<Pair<Integer, ? extends RevisionExamples>> round = new ArrayList<>(maximumSize);
+        Set<Predicate> predicates = new HashSet<>();
+        Iterator<Pair<Integer, ? extends RevisionExamples>> iterator = revisions.iterator();
+        while (iterator.hasNext() && round.size() < maximumSize) {
+            Pair<Integer, ? extends RevisionExamples> revision = iterator.next();
+            if (predicates.add(getPredicate(treeTheory.getRevisionLeaf(revision.getKey())))) {
+                round.add(revision);
+                iterator.remove();
+            }
+        }
+        return round;
+    }
+
+    /**
+     * Revises the leaves concurrently, each one by its own operator selector, and applies the joint revision.
+     *
+     * @param round                 the revisions, at most one per predicate
+     * @param trainUsingAllExamples if is to train using all examples or just the relevant sample
+     */
+    protected void reviseConcurrently(List<Pair<Integer, ? extends RevisionExamples>> round,
+                                      final boolean trainUsingAllExamples) {
+        if (logger.isDebugEnabled()) {
+            List<Node<HornClause>> leaves = new ArrayList<>(round.size());
+            round.forEach(revision -> leaves.add(treeTheory.getRevisionLeaf(revision.getKey())));
+            logger.debug(REVISING_LEAVES_CONCURRENTLY.toString(), round.size(), leaves);
+        }
+        for (int i = 0; i < round.size(); i++) {
+            setRevisionLeaf(getOperatorSelector(i), treeTheory.getRevisionLeaf(round.get(i).getKey()));
+        }
+        try {
+            reviseConcurrently(round, proposeRevisions(round), trainUsingAllExamples);
+        } finally {
+            for (int i = 0; i < round.size(); i++) { setRevisionLeaf(getOperatorSelector(i), null); }
+        }
+    }
+
+    /**
+     * Gets the revised theories of the proposals, and applies the joint revision.
+     *
+     * @param round                 the revisions, at most one per predicate
+     * @param proposals             the evaluators of the proposed revisions, in the order of the revisions
+     * @param trainUsingAllExamples if is to train using all examples or just the relevant sample
+     */
+    protected void reviseConcurrently(List<Pair<Integer, ? extends RevisionExamples>> round,
+                                      List<RevisionOperatorEvaluator> proposals,
+                                      final boolean trainUsingAllExamples) {
+        List<Integer> accepted = new ArrayList<>(round.size());
+        List<Theory> revisedTheories = new ArrayList<>(round.size());
+        List<RevisionExamples> revisionPoints = new ArrayList<>(round.size());
+        for (int i = 0; i < round.size(); i++) {
+            if (proposals.get(i) == null) { continue; }
+            try {
+                Theory revised = proposals.get(i).getRevisedTheory(
+                        round.get(i).getValue().getTrainingExamples(trainUsingAllExamples));
+                if (revised == null) { continue; }
+                accepted.add(i);
+                revisedTheories.add(revised);
+                revisionPoints.add(round.get(i).getValue());
+            } catch (TheoryRevisionException e) {
+                logger.error(ERROR_REVISING_THEORY, e);
+            }
+        }
+        logger.debug(JOINING_REVISION_PROPOSALS.toString(), accepted.size(), round.size());
+        if (accepted.isEmpty()) { return; }
+        List<Predicate> predicates = new ArrayList<>(accepted.size());
+        accepted.forEach(i -> predicates.add(getPredicate(treeTheory.getRevisionLeaf(round.get(i).getKey()))));
+        Theory revisedTheory = joinRevisions(revisedTheories, predicates);
+        if (theoryRevisionManager.applyJointRevision(revisedTheory, revisionPoints)) {
+            for (Integer i : accepted) {
+                treeTheory.revisionLeafIndex = round.get(i).getKey();
+                proposals.get(i).theoryRevisionAccepted(revisedTheory);
+            }
+        }
+    }
+
+    /**
+     * Proposes the revisions of the leaves concurrently.
+     *
+     * @param round the revisions
+     * @return the evaluators of the proposed revisions, in the order of the revisions, {@code null} for the leaves
+     * without proposal
+     */
+    protected List<RevisionOperatorEvaluator> proposeRevisions(List<Pair<Integer, ? extends RevisionExamples>> round) {
+        List<RevisionOperatorEvaluator> proposals = new ArrayList<>(round.size());
+        ExecutorService pool = Executors.newFixedThreadPool(round.size());
+        try {
+            List<Future<RevisionOperatorEvaluator>> futures = new ArrayList<>(round.size());
+            for (int i = 0; i < round.size(); i++) {
+                final RevisionExamples examples = round.get(i).getValue();
+                final RevisionOperatorSelector selector = getOperatorSelector(i);
+                futures.add(pool.submit(() -> theoryRevisionManager.proposeRevision(selector, examples)));
+            }
+            pool.shutdown();
+            for (Future<RevisionOperatorEvaluator> future : futures) {
+                try {
+                    proposals.add(future.get());
+                } catch (ExecutionException e) {
+                    logger.error(ERROR_REVISING_THEORY, e);
+                    proposals.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.error(ERROR_REVISING_THEORY, e);
+            Thread.currentThread().interrupt();
+            while (proposals.size() < round.size()) { proposals.add(null); }
+        } finally {
+            pool.shutdownNow();
+        }
+        return proposals;
+    }
+
+    /**
+     * Gets the operator selector of the i-th leaf of a round: the operator selector of the manager, for the first
+     * one, and the {@link #concurrentOperatorSelectors} for the others.
+     *
+     * @param index the index of the leaf in the round
+     * @return the operator selector
+     */
+    protected RevisionOperatorSelector getOperatorSelector(int index) {
+        return index == 0 ? operatorSelector : concurrentOperatorSelectors.get(index - 1);
+    }
+
+    /**
+     * Sets the leaf revised by the tree operators of the selector. The leaf is held by the operators, instead of by
+     * the {@link br.ufrj.cos.knowledge.manager.TreeTheory}, so it is seen by all the threads the operators run on.
+     *
+     * @param selector the operator selector
+     * @param leaf     the leaf, or {@code null} to go back to the revision leaf of the tree theory
+     */
+    protected static void setRevisionLeaf(RevisionOperatorSelector selector, Node<HornClause> leaf) {
+        for (RevisionOperatorEvaluator evaluator : selector.getOperatorEvaluators()) {
+            if (evaluator.getRevisionOperator() instanceof TreeRevisionOperator) {
+                ((TreeRevisionOperator) evaluator.getRevisionOperator()).setRevisionLeaf(leaf);
+            }
+        }
+    }
+
+    /**
+     * Joins the revised theories, each one revised on the clauses of its predicate, into a single theory.
+     * <p>
+     * The joined theory keeps the order of the first revised theory, replacing the clauses of each other revised
+     * predicate, at the place of its first clause, by the clauses of its revised theory; the clauses of a predicate
+     * that was not in the first theory are appended at the end.
+     *
+     * @param revisedTheories the revised theories
+     * @param predicates      the revised predicate of each theory
+     * @return the joined theory
+     */
+    protected static Theory joinRevisions(List<Theory> revisedTheories, List<Predicate> predicates) {
+        Map<Predicate, Theory> otherRevisions = new HashMap<>();
+        for (int i = 1; i < revisedTheories.size(); i++) {
+            otherRevisions.put(predicates.get(i), revisedTheories.get(i));
+        }
+        List<HornClause> clauses = new ArrayList<>();
+        Set<Predicate> joined = new HashSet<>();
+        for (HornClause clause : revisedTheories.get(0)) {
+            Predicate predicate = clause.getHead().getPredicate();
+            if (!otherRevisions.containsKey(predicate)) {
+                clauses.add(clause);
+            } else if (joined.add(predicate)) {
+                addClausesOfPredicate(otherRevisions.get(predicate), predicate, clauses);
+            }
+        }
+        for (int i = 1; i < revisedTheories.size(); i++) {
+            if (joined.add(predicates.get(i))) {
+                addClausesOfPredicate(revisedTheories.get(i), predicates.get(i), clauses);
+            }
+        }
+        return new Theory(clauses, revisedTheories.get(0).getAcceptPredicate());
+    }
+
+    /**
+     * Adds the clauses of the predicate in the theory to the list, in the order of the theory.
+     *
+     * @param theory    the theory
+     * @param predicate the predicate
+     * @param clauses   the list
+     */
+    protected static void addClausesOfPredicate(Theory theory, Predicate predicate, List<HornClause> clauses) {
+        for (HornClause clause : theory) {
+            if (clause.getHead().getPredicate().equals(predicate)) { clauses.add(clause); }
+        }
+    }
+
+    /**
+     * Gets the predicate of the leaf.
+     *
+     * @param leaf the leaf
+     * @return the predicate
+     */
+    protected static Predicate getPredicate(Node<HornClause> leaf) {
+        return leaf.getElement().getHead().getPredicate();
+    }
+
+    @Override
+    public void initialize() throws InitializationException {
+        super.initialize();
+        for (RevisionOperatorSelector selector : concurrentOperatorSelectors) {
+            selector.initialize();
+        }
+    }
+
+    /**
+     * Gets the operator selectors of the leaves revised concurrently, other than the first one.
+     *
+     * @return the concurrent operator selectors
+     */
+    public List<RevisionOperatorSelector> getConcurrentOperatorSelectors() {
+        return concurrentOperatorSelectors;
+    }
+
+    /**
+     * Sets the operator selectors of the leaves revised concurrently, other than the first one.
+     *
+     * @param concurrentOperatorSelectors the concurrent operator selectors
+     * @throws InitializationException if the concurrent operator selectors are already set
+     */
+    public void setConcurrentOperatorSelectors(
+            List<RevisionOperatorSelector> concurrentOperatorSelectors) throws InitializationException {
+        if (!this.concurrentOperatorSelectors.isEmpty()) {
+            throw new InitializationException(
+                    FileIOUtils.formatLogMessage(ExceptionMessages.ERROR_RESET_FIELD_NOT_ALLOWED.toString(),
+                                                 RevisionOperatorSelector.class.getSimpleName()));
+        }
+        this.concurrentOperatorSelectors = concurrentOperatorSelectors;
+    }
+
+}
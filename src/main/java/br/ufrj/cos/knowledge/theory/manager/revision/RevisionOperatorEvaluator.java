@@ -32,6 +32,7 @@ package br.ufrj.cos.knowledge.theory.manager.revision;
 import br.ufrj.cos.core.LearningSystem;
 import br.ufrj.cos.knowledge.example.Example;
 import br.ufrj.cos.knowledge.theory.Theory;
+import br.ufrj.cos.knowledge.theory.evaluation.TheoryEvaluator;
 import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.knowledge.theory.manager.feature.FeatureGenerator;
 import br.ufrj.cos.knowledge.theory.manager.revision.operator.RevisionOperator;
@@ -39,6 +40,8 @@ import br.ufrj.cos.util.ExceptionMessages;
 import br.ufrj.cos.util.FileIOUtils;
 import br.ufrj.cos.util.Initializable;
 import br.ufrj.cos.util.InitializationException;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -110,6 +113,61 @@ public class RevisionOperatorEvaluator implements Initializable {
         return revisionOperator.getTheoryEvaluator().evaluateTheory(metric, updatedTheory, targets);
     }
 
+    /**
+     * Evaluates a {@link Theory} as {@link RevisionOperator} was applied, based on the metric. The evaluation stops
+     * as soon as the revised theory can no longer improve over the current evaluation by the given threshold.
+     *
+     * @param targets              the target {@link Example}s
+     * @param metric               the metric
+     * @param currentEvaluation    the current evaluation
+     * @param improvementThreshold the improvement threshold over the current evaluation
+     * @param batchSize            the number of examples inferred at once
+     * @return the evaluated value, or the best possible value, if the evaluation has stopped
+     * @throws TheoryRevisionException in case an error occurs on the revision
+     * @see TheoryEvaluator#evaluateTheory(TheoryMetric, Theory, Collection, double, double, int)
+     */
+    public double evaluateOperator(Collection<? extends Example> targets, TheoryMetric metric,
+                                   double currentEvaluation, double improvementThreshold,
+                                   int batchSize) throws TheoryRevisionException {
+        if (!isRevised) {
+            updatedTheory = revisionOperator.performOperation(targets);
+            isRevised = true;
+        }
+        if (updatedTheory == null) { return metric.getDefaultValue(); }
+        return revisionOperator.getTheoryEvaluator().evaluateTheory(metric, updatedTheory, targets,
+                                                                    currentEvaluation, improvementThreshold,
+                                                                    batchSize);
+    }
+
+    /**
+     * Revises the {@link Theory} and evaluates it, based on the metric, without caching the revised {@link Theory}.
+     * Since it does not change the state of this class, it can run on a thread whose result may be discarded; the
+     * revised {@link Theory} of the result can then be cached by {@link #setRevisedTheory(Theory)}.
+     *
+     * @param targets the target {@link Example}s
+     * @param metric  the metric
+     * @return the revised {@link Theory}, possibly {@code null}, and its evaluation
+     * @throws TheoryRevisionException in case an error occurs on the revision
+     */
+    public Pair<Theory, Double> reviseAndEvaluate(Collection<? extends Example> targets,
+                                                  TheoryMetric metric) throws TheoryRevisionException {
+        Theory revised = revisionOperator.performOperation(targets);
+        if (revised == null) { return new ImmutablePair<>(null, metric.getDefaultValue()); }
+        return new ImmutablePair<>(revised,
+                                   revisionOperator.getTheoryEvaluator().evaluateTheory(metric, revised, targets));
+    }
+
+    /**
+     * Caches the revised {@link Theory}, as if it was revised by this class, so the next evaluation and
+     * {@link #getRevisedTheory(Collection)} use it.
+     *
+     * @param revised the revised {@link Theory}
+     */
+    public void setRevisedTheory(Theory revised) {
+        updatedTheory = revised;
+        isRevised = true;
+    }
+
     /**
      * Gets the revised theory. This method is useful because most of the {@link RevisionOperatorEvaluator} needs to
      * previously apply the change before evaluateTheory it. This methods allows it to store the revised
@@ -98,6 +98,15 @@ public abstract class RevisionOperatorSelector implements Initializable {
         this.operatorEvaluators = operatorEvaluators;
     }
 
+    /**
+     * Gets the {@link RevisionOperatorEvaluator}s.
+     *
+     * @return the {@link RevisionOperatorEvaluator}s
+     */
+    public Collection<RevisionOperatorEvaluator> getOperatorEvaluators() {
+        return operatorEvaluators;
+    }
+
     /**
      * Checks if the {@link #operatorEvaluators} is setted.
      *
@@ -37,10 +37,13 @@ import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.knowledge.theory.manager.revision.TheoryRevisionException;
 import br.ufrj.cos.logic.*;
 import br.ufrj.cos.util.*;
+import br.ufrj.cos.util.multithreading.CandidateStream;
 import br.ufrj.cos.util.multithreading.MultithreadingEvaluation;
 
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static br.ufrj.cos.util.log.RevisionLog.ERROR_REVISING_THEORY;
@@ -63,6 +66,10 @@ public abstract class LiteralAppendOperator<V> extends RevisionOperator {
      * The default maximum based examples to use in the revision.
      */
     public static final int DEFAULT_MAXIMUM_BASED_EXAMPLES = -1;
+    /**
+     * The default minimum number of examples that must support a candidate literal.
+     */
+    public static final int DEFAULT_MINIMUM_CANDIDATE_SUPPORT = 1;
     /**
      * If {@code true}, generates the feature before evaluating the rule to decide which one is the best.
      */
@@ -102,6 +109,13 @@ public abstract class LiteralAppendOperator<V> extends RevisionOperator {
      */
     @SuppressWarnings("CanBeFinal")
     public int relevantsDepth = 0;
+    /**
+     * The minimum number of examples that must support a candidate literal, i.e. the number of examples from whose
+     * relevant atoms the literal can be built. The literals supported by fewer examples are not evaluated. If it is
+     * not greater than 1, all the candidates are evaluated.
+     */
+    @SuppressWarnings("CanBeFinal")
+    public int minimumCandidateSupport = DEFAULT_MINIMUM_CANDIDATE_SUPPORT;
     /**
      * The maximum based examples to use in the revision.
      */
@@ -209,6 +223,8 @@ public abstract class LiteralAppendOperator<V> extends RevisionOperator {
     /**
      * Gets the literal candidates from the examples. The literals that are candidates to be appended to the initial
      * clause in order to get it better.
+     * <p>
+     * The literals supported by fewer than {@link #minimumCandidateSupport} examples are discarded.
      *
      * @param initialClause    the initial clause
      * @param substitutionGoal the substitution query
@@ -222,30 +238,203 @@ public abstract class LiteralAppendOperator<V> extends RevisionOperator {
                                                             Map<Example, Map<Atom, Double>> inferredExamples,
                                                             Set<EquivalentAtom> skipCandidates, boolean connected) {
         Example example;
-        Set<Term> constants;
-        Set<Atom> relevants;
         Set<Literal> variableRelevants;
         VariableGenerator variableGenerator = new VariableGenerator(substitutionGoal);
         Map<Term, Term> substitutionMap;
         Set<Literal> candidateLiterals = new HashSet<>();
+        Map<Example, Set<Atom>> relevantsByExample = getRelevantsFromExamples(inferredExamples.keySet());
+        final Set<Term> fixedTerms = getFixedTerms(initialClause);
+        final Map<EquivalentAtom, Integer> support = new HashMap<>();
+        final int clampedSupport = Math.max(minimumCandidateSupport, 1);
         for (Map.Entry<Example, Map<Atom, Double>> inferredExample : inferredExamples.entrySet()) {
             example = inferredExample.getKey();
-            constants = example.getGoalQuery().getTerms().stream().filter(Term::isConstant).collect(Collectors.toSet());
-            relevants = learningSystem.relevantsBreadthFirstSearch(constants, relevantsDepth);
             variableRelevants = new HashSet<>();
             for (Atom answer : inferredExample.getValue().keySet()) {
                 try {
                     substitutionMap = RelevantLiteralAppendOperator.createSubstitutionMap(substitutionGoal, example,
                                                                                           answer);
-                    RelevantLiteralAppendOperator.appendVariableAtomToSet(relevants, variableRelevants,
-                                                                          substitutionMap, variableGenerator);
+                    RelevantLiteralAppendOperator.appendVariableAtomToSet(relevantsByExample.get(example),
+                                                                          variableRelevants, substitutionMap,
+                                                                          variableGenerator);
                     HornClauseUtils.buildAllLiteralFromClause(initialClause, variableRelevants, candidateLiterals,
                                                               skipCandidates, connected);
                 } catch (InstantiationException | IllegalAccessException e) {
                     RelevantLiteralAppendOperator.logger.debug(ERROR_REVISING_THEORY.toString(), e);
                 }
             }
+            if (clampedSupport > 1) {
+                variableRelevants.stream().map(literal -> new EquivalentAtom(literal, fixedTerms)).distinct()
+                        .forEach(atom -> support.merge(atom, 1, Integer::sum));
+            }
+        }
+        if (clampedSupport > 1) {
+            candidateLiterals.removeIf(literal -> support.getOrDefault(new EquivalentAtom(literal, fixedTerms), 0) <
+                    clampedSupport);
         }
         return candidateLiterals;
     }
+
+    /**
+     * Finds the relevant atoms of each example.
+     *
+     * @param examples the examples
+     * @return the relevant atoms of each example
+     */
+    protected Map<Example, Set<Atom>> getRelevantsFromExamples(Collection<? extends Example> examples) {
+        Map<Example, Set<Atom>> relevantsByExample = new HashMap<>();
+        for (Example example : examples) {
+            relevantsByExample.put(example, getRelevantsFromExample(example));
+        }
+        return relevantsByExample;
+    }
+
+    /**
+     * Finds the relevant atoms of the example, i.e. the atoms that are relevant to the constants of its goal query.
+     *
+     * @param example the example
+     * @return the relevant atoms
+     */
+    protected Set<Atom> getRelevantsFromExample(Example example) {
+        Set<Term> constants = example.getGoalQuery().getTerms().stream().filter(Term::isConstant)
+                .collect(Collectors.toSet());
+        return learningSystem.relevantsBreadthFirstSearch(constants, relevantsDepth);
+    }
+
+    /**
+     * Streams the literal candidates from the examples, which are connected to the initial clause. The candidates
+     * are collected in parallel, one example at a time by each of the {@link #numberOfThreads} threads, and each
+     * candidate is streamed as soon as it is supported by {@link #minimumCandidateSupport} examples; so the
+     * candidates can be evaluated while the remaining examples are still being processed.
+     * <p>
+     * The candidates are compared as {@link EquivalentAtom}s, so equivalent candidates from different examples,
+     * which differ only on the variables that do not appear in the initial clause, are counted together and streamed
+     * only once.
+     * <p>
+     * The consumer must cancel the stream if it stops before the end of the stream, so the threads are stopped.
+     *
+     * @param initialClause    the initial clause
+     * @param substitutionGoal the substitution query
+     * @param inferredExamples the inferred examples by the substitution query
+     * @param skipCandidates   the skip candidates, which must not be changed while the candidates are streamed
+     * @return the stream of candidate literals
+     */
+    protected CandidateStream<Literal> streamLiteralCandidatesFromExamples(HornClause initialClause,
+                                                                           Atom substitutionGoal,
+                                                                           Map<Example, Map<Atom, Double>>
+                                                                                   inferredExamples,
+                                                                           Set<EquivalentAtom> skipCandidates) {
+        final CandidateStream<Literal> stream = new CandidateStream<>();
+        if (inferredExamples.isEmpty()) {
+            stream.close();
+            return stream;
+        }
+        final Set<Term> fixedTerms = getFixedTerms(initialClause);
+        final Map<EquivalentAtom, Integer> support = new ConcurrentHashMap<>();
+        final AtomicInteger remainingExamples = new AtomicInteger(inferredExamples.size());
+        // the candidate is streamed only once, when its support reaches the minimum, which is at least one example
+        final int clampedSupport = Math.max(minimumCandidateSupport, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(Math.min(numberOfThreads,
+                                                                              inferredExamples.size()), 1));
+        stream.onCancel(pool::shutdownNow);
+        for (Map.Entry<Example, Map<Atom, Double>> inferredExample : inferredExamples.entrySet()) {
+            pool.submit(() -> {
+                try {
+                    if (stream.isCancelled()) { return; }
+                    Set<Literal> literals = getLiteralCandidatesFromExample(inferredExample.getKey(),
+                                                                            inferredExample.getValue().keySet(),
+                                                                            substitutionGoal, fixedTerms,
+                                                                            skipCandidates);
+                    for (Literal literal : literals) {
+                        if (support.merge(new EquivalentAtom(literal, fixedTerms), 1, Integer::sum) ==
+                                clampedSupport) {
+                            stream.add(literal);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    logger.debug(ERROR_REVISING_THEORY.toString(), e);
+                } finally {
+                    if (remainingExamples.decrementAndGet() == 0) { stream.close(); }
+                }
+            });
+        }
+        pool.shutdown();
+        return stream;
+    }
+
+    /**
+     * Gets the literal candidates, connected to the initial clause, from a single example. Only one literal of each
+     * set of equivalent literals is returned, and its variables that do not appear in the initial clause are
+     * canonically renamed.
+     *
+     * @param example          the example
+     * @param answers          the answers of the substitution query for the example
+     * @param substitutionGoal the substitution query
+     * @param fixedTerms       the terms of the initial clause
+     * @param skipCandidates   the skip candidates
+     * @return the candidate literals
+     */
+    protected Set<Literal> getLiteralCandidatesFromExample(Example example, Collection<? extends Atom> answers,
+                                                           Atom substitutionGoal, Set<Term> fixedTerms,
+                                                           Set<EquivalentAtom> skipCandidates) {
+        Set<Atom> relevants = getRelevantsFromExample(example);
+        VariableGenerator variableGenerator = new VariableGenerator(substitutionGoal);
+        Set<Literal> variableRelevants = new HashSet<>();
+        Map<EquivalentAtom, Literal> candidateLiterals = new HashMap<>();
+        for (Atom answer : answers) {
+            try {
+                RelevantLiteralAppendOperator.appendVariableAtomToSet(
+                        relevants, variableRelevants,
+                        RelevantLiteralAppendOperator.createSubstitutionMap(substitutionGoal, example, answer),
+                        variableGenerator);
+            } catch (InstantiationException | IllegalAccessException e) {
+                logger.debug(ERROR_REVISING_THEORY.toString(), e);
+            }
+        }
+        EquivalentAtom equivalentAtom;
+        for (Literal literal : variableRelevants) {
+            if (Collections.disjoint(fixedTerms, literal.getTerms())) { continue; }
+            equivalentAtom = new EquivalentAtom(literal, fixedTerms);
+            if (skipCandidates.contains(equivalentAtom) || candidateLiterals.containsKey(equivalentAtom)) { continue; }
+            candidateLiterals.put(equivalentAtom, renameFreeVariables(literal, fixedTerms, substitutionGoal));
+        }
+        return new HashSet<>(candidateLiterals.values());
+    }
+
+    /**
+     * Renames the variables of the literal that are not fixed, in the order they appear, so equivalent literals
+     * are written the same way. The new variables are distinct objects, so equivalent literals must still be
+     * compared as {@link EquivalentAtom}s.
+     *
+     * @param literal          the literal
+     * @param fixedTerms       the fixed terms
+     * @param substitutionGoal the substitution query, whose variables must not be used as new names
+     * @return the renamed literal
+     */
+    protected static Literal renameFreeVariables(Literal literal, Set<Term> fixedTerms, Atom substitutionGoal) {
+        VariableGenerator variableGenerator = new VariableGenerator(substitutionGoal);
+        Map<Term, Term> renaming = new HashMap<>();
+        List<Term> terms = new ArrayList<>(literal.getArity());
+        for (Term term : literal.getTerms()) {
+            if (term.isConstant() || fixedTerms.contains(term)) {
+                terms.add(term);
+            } else {
+                terms.add(renaming.computeIfAbsent(term, t -> variableGenerator.next()));
+            }
+        }
+        return new Literal(literal.getPredicate(), terms, literal.isNegated());
+    }
+
+    /**
+     * Gets the terms of the initial clause, which are fixed when comparing equivalent literals.
+     *
+     * @param initialClause the initial clause
+     * @return the terms of the initial clause
+     */
+    protected static Set<Term> getFixedTerms(HornClause initialClause) {
+        Set<Term> fixedTerms = initialClause.getBody().stream().flatMap(l -> l.getTerms().stream())
+                .collect(Collectors.toSet());
+        fixedTerms.addAll(initialClause.getHead().getTerms());
+        return fixedTerms;
+    }
+
 }
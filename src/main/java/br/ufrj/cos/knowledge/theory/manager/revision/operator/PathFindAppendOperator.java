@@ -38,12 +38,19 @@ import br.ufrj.cos.logic.*;
 import br.ufrj.cos.util.ExceptionMessages;
 import br.ufrj.cos.util.HornClauseUtils;
 import br.ufrj.cos.util.InitializationException;
+import br.ufrj.cos.util.LanguageUtils;
 import br.ufrj.cos.util.multithreading.ConjunctionAppendAsyncTransformer;
 import br.ufrj.cos.util.multithreading.MultithreadingEvaluation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static br.ufrj.cos.util.log.RevisionLog.PATHS_TO_RULES;
 
 /**
  * A literal append operator that search for the literal based on the relevant terms from the examples.
@@ -67,6 +74,14 @@ public class PathFindAppendOperator extends LiteralAppendOperator<Set<? extends
      * The maximum length of the path, i.e. no maximum length.
      */
     public static final int DEFAULT_MAXIMUM_PATH_LENGTH = -1;
+    /**
+     * The maximum number of paths, i.e. no maximum number.
+     */
+    public static final int NO_MAXIMUM_NUMBER_OF_PATHS = -1;
+    /**
+     * The prefix of the canonical name of the variables in the signature of the candidates.
+     */
+    protected static final String CANONICAL_VARIABLE_PREFIX = "#";
 
     /**
      * The index of the term to be the destination of the path.
@@ -76,6 +91,12 @@ public class PathFindAppendOperator extends LiteralAppendOperator<Set<? extends
      * The maximum length of the path.
      */
     public int maximumPathLength = DEFAULT_MAXIMUM_PATH_LENGTH;
+    /**
+     * The maximum number of paths, found between the terms, to be turned into candidate rules in a revision. The
+     * candidates of the paths are built concurrently, by {@link #numberOfThreads} threads, and the candidates that
+     * are equivalent up to the renaming of the new variables are evaluated only once.
+     */
+    public int maximumNumberOfPaths = NO_MAXIMUM_NUMBER_OF_PATHS;
 
     protected ConjunctionAppendAsyncTransformer<Object> conjunctionTransformer;
 
@@ -113,10 +134,9 @@ public class PathFindAppendOperator extends LiteralAppendOperator<Set<? extends
             KnowledgeBase knowledgeBase = new KnowledgeBase(new HashSet<>(literals));
             Collection<Term[]> paths = knowledgeBase.shortestPath(head.getTerms().get(0),
                                                                   head.getTerms().get(destinationIndex),
-                                                                  maximumPathLength);
+                                                                  maximumPathLength, maximumNumberOfPaths);
             if (paths == null || paths.isEmpty()) { return null; }
-            Collection<Conjunction> conjunctions = new HashSet<>();
-            paths.forEach(path -> pathToRules(path, knowledgeBase, conjunctions));
+            Collection<Conjunction> conjunctions = pathsToRules(paths, knowledgeBase, initialClause);
             conjunctionTransformer.setInitialClause(initialClause);
             return multithreading.getBestClausesFromCandidates(conjunctions, examples);
         } catch (RuntimeException e) {
@@ -125,6 +145,117 @@ public class PathFindAppendOperator extends LiteralAppendOperator<Set<? extends
         return null;
     }
 
+    /**
+     * Creates the candidate rules from the paths, removing the candidates that are equivalent up to the renaming of
+     * the variables that do not appear in the initial clause. The paths are sorted by length, and then by their
+     * terms, before keeping the {@link #maximumNumberOfPaths} first ones, so the kept paths do not depend on the
+     * order of the collection.
+     *
+     * @param paths         the paths
+     * @param knowledgeBase the knowledge base
+     * @param initialClause the initial clause
+     * @return the candidate rules
+     */
+    protected Collection<Conjunction> pathsToRules(Collection<Term[]> paths, KnowledgeBase knowledgeBase,
+                                                   HornClause initialClause) {
+        List<Term[]> explored = new ArrayList<>(paths);
+        explored.sort(Comparator.<Term[]>comparingInt(path -> path.length).thenComparing(Arrays::toString));
+        if (maximumNumberOfPaths > NO_MAXIMUM_NUMBER_OF_PATHS && explored.size() > maximumNumberOfPaths) {
+            explored = explored.subList(0, maximumNumberOfPaths);
+        }
+        Set<Term> fixedTerms = new HashSet<>(initialClause.getHead().getTerms());
+        if (initialClause.getBody() != null) {
+            initialClause.getBody().forEach(literal -> fixedTerms.addAll(literal.getTerms()));
+        }
+        Map<String, Conjunction> candidates = new LinkedHashMap<>();
+        int numberOfRules = 0;
+        for (List<Conjunction> rules : buildRulesFromPaths(explored, knowledgeBase)) {
+            for (Conjunction rule : rules) {
+                candidates.putIfAbsent(buildSignature(rule, fixedTerms), rule);
+                numberOfRules++;
+            }
+        }
+        logger.debug(PATHS_TO_RULES.toString(), paths.size(), explored.size(), candidates.size(),
+                     numberOfRules - candidates.size());
+        return candidates.values();
+    }
+
+    /**
+     * Builds the rules of each path, concurrently if allowed to.
+     *
+     * @param paths         the paths
+     * @param knowledgeBase the knowledge base
+     * @return the rules of each path, in the order of the paths
+     */
+    protected List<List<Conjunction>> buildRulesFromPaths(List<Term[]> paths, KnowledgeBase knowledgeBase) {
+        List<List<Conjunction>> rules = new ArrayList<>(paths.size());
+        if (numberOfThreads < 2 || paths.size() < 2) {
+            for (Term[] path : paths) {
+                rules.add(pathToRules(path, knowledgeBase));
+            }
+            return rules;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(numberOfThreads, paths.size()));
+        try {
+            List<Future<List<Conjunction>>> futures = new ArrayList<>(paths.size());
+            for (Term[] path : paths) {
+                futures.add(pool.submit(() -> pathToRules(path, knowledgeBase)));
+            }
+            pool.shutdown();
+            for (Future<List<Conjunction>> future : futures) {
+                rules.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return rules;
+    }
+
+    /**
+     * Builds the signature of the rule, in which the variables that are not fixed are named by the order of their
+     * first appearance. Two rules with the same signature are equivalent.
+     *
+     * @param rule       the rule
+     * @param fixedTerms the terms whose names must be kept
+     * @return the signature
+     */
+    protected static String buildSignature(Conjunction rule, Set<Term> fixedTerms) {
+        Map<Term, String> names = new HashMap<>();
+        StringBuilder signature = new StringBuilder();
+        for (Literal literal : rule) {
+            if (literal.isNegated()) { signature.append(LanguageUtils.NEGATION_PREFIX).append(" "); }
+            signature.append(literal.getPredicate()).append(LanguageUtils.PREDICATE_OPEN_ARGUMENT_CHARACTER);
+            for (Term term : literal.getTerms()) {
+                if (term.isConstant() || fixedTerms.contains(term)) {
+                    signature.append(term.getName());
+                } else {
+                    signature.append(names.computeIfAbsent(term, t -> CANONICAL_VARIABLE_PREFIX + names.size()));
+                }
+                signature.append(LanguageUtils.LIST_ARGUMENTS_SEPARATOR);
+            }
+            signature.append(LanguageUtils.PREDICATE_CLOSE_ARGUMENT_CHARACTER);
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Creates rules with the body being the path between two terms in a knowledge base.
+     *
+     * @param path          the path
+     * @param knowledgeBase the knowledge base
+     * @return the list of rules
+     */
+    public static List<Conjunction> pathToRules(Term[] path, KnowledgeBase knowledgeBase) {
+        List<Conjunction> rules = new ArrayList<>();
+        pathToRules(path, knowledgeBase, rules);
+        return rules;
+    }
+
     /**
      * Creates rules with the body being the path between two terms in a knowledge base.
      *
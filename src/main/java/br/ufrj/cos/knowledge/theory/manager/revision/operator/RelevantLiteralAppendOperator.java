@@ -35,13 +35,13 @@ import br.ufrj.cos.knowledge.theory.evaluation.AsyncTheoryEvaluator;
 import br.ufrj.cos.knowledge.theory.manager.revision.TheoryRevisionException;
 import br.ufrj.cos.logic.*;
 import br.ufrj.cos.util.*;
+import br.ufrj.cos.util.multithreading.CandidateStream;
 import br.ufrj.cos.util.multithreading.LiteralAppendAsyncTransformer;
 import br.ufrj.cos.util.multithreading.MultithreadingEvaluation;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * A literal append operator that search for the literal based on the relevant terms from the examples.
@@ -127,11 +127,19 @@ public class RelevantLiteralAppendOperator extends LiteralAppendOperator<Literal
             Map<Example, Map<Atom, Double>> inferredExamples =
                     learningSystem.inferExamples(Collections.singleton(substitutionClause), querySet);
             Set<EquivalentAtom> skipCandidates = buildSkipCandidates(initialClause, equivalentLiterals);
-            Set<Literal> literals = getLiteralCandidatesFromExamples(initialClause, substitutionClause.getHead(),
-                                                                     inferredExamples, skipCandidates, true);
-            if (literals.isEmpty()) { return null; }
             literalTransformer.setInitialClause(initialClause);
-            return multithreading.getBestClausesFromCandidates(literals, examples);
+            CandidateStream<Literal> literals = streamLiteralCandidatesFromExamples(initialClause,
+                                                                                    substitutionClause.getHead(),
+                                                                                    inferredExamples,
+                                                                                    skipCandidates);
+            try {
+                return multithreading.getBestClausesFromStreamedCandidates(literals,
+                                                                           Comparator.comparing(Literal::toString),
+                                                                           examples);
+            } finally {
+                // stops the threads that collect the candidates, if the evaluation stopped before the stream ended
+                literals.cancel();
+            }
         } catch (RuntimeException e) {
             logger.trace(ExceptionMessages.ERROR_APPENDING_LITERAL.toString(), e);
         }
@@ -149,9 +157,7 @@ public class RelevantLiteralAppendOperator extends LiteralAppendOperator<Literal
      */
     protected static Set<EquivalentAtom> buildSkipCandidates(HornClause initialClause,
                                                              Collection<? extends Literal> equivalentLiterals) {
-        Set<Term> fixedTerms = initialClause.getBody().stream().flatMap(l -> l.getTerms().stream())
-                .collect(Collectors.toSet());
-        fixedTerms.addAll(initialClause.getHead().getTerms());
+        Set<Term> fixedTerms = getFixedTerms(initialClause);
         Set<EquivalentAtom> skipCandidate = new HashSet<>();
         for (Literal literal : initialClause.getBody()) {
             skipCandidate.add(new EquivalentAtom(literal, fixedTerms));
@@ -29,6 +29,7 @@
 
 package br.ufrj.cos.knowledge.theory.manager.revision.operator.generalization;
 
+import br.ufrj.cos.core.LearningSystem;
 import br.ufrj.cos.knowledge.KnowledgeException;
 import br.ufrj.cos.knowledge.example.AtomExample;
 import br.ufrj.cos.knowledge.example.Example;
@@ -40,13 +41,15 @@ import br.ufrj.cos.logic.*;
 import br.ufrj.cos.util.*;
 import br.ufrj.cos.util.multithreading.EquivalentHornClauseAsyncTransformer;
 import br.ufrj.cos.util.multithreading.MultithreadingEvaluation;
+import br.ufrj.cos.util.time.TimeUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static br.ufrj.cos.util.log.InferenceLog.EVALUATION_INITIAL_THEORIES;
@@ -84,6 +87,16 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
      */
     public static final double DEFAULT_IMPROVEMENT_THRESHOLD = 0.0;
 
+    /**
+     * The default value for {@link #beamWidth}.
+     */
+    public static final int DEFAULT_BEAM_WIDTH = 1;
+
+    /**
+     * Represents a constant for no maximum size of the bottom clause.
+     */
+    public static final int NO_MAXIMUM_BOTTOM_CLAUSE_SIZE = -1;
+
     /**
      * The class name of the variable generator.
      */
@@ -112,6 +125,34 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
      */
     public int relevantsDepth = 0;
 
+    /**
+     * The maximum number of {@link Literal}s in the body of the bottom clause. If there are more relevant
+     * {@link Atom}s, they are sampled evenly among their predicates, using the {@link #samplingSeed}.
+     * <p>
+     * If it is {@link #NO_MAXIMUM_BOTTOM_CLAUSE_SIZE}, all the relevant {@link Atom}s are used.
+     */
+    public int maximumBottomClauseSize = NO_MAXIMUM_BOTTOM_CLAUSE_SIZE;
+
+    /**
+     * The maximum number of {@link Atom}s of each predicate followed from each {@link Term} during the search for
+     * the relevant {@link Atom}s, sampled using the {@link #samplingSeed}. It bounds the search around high-degree
+     * {@link Term}s.
+     * <p>
+     * If it is {@link LearningSystem#NO_MAXIMUM_ATOMS_PER_PREDICATE}, all the {@link Atom}s are followed.
+     */
+    public int maximumAtomsPerPredicate = LearningSystem.NO_MAXIMUM_ATOMS_PER_PREDICATE;
+
+    /**
+     * Flag to specify if, when the bottom clause exceeds the {@link #maximumBottomClauseSize}, the {@link Atom}s
+     * sharing more {@link Term}s with the head are preferred.
+     */
+    public boolean rankByHeadTerms = false;
+
+    /**
+     * The seed of the sampling of the relevant {@link Atom}s. The sampling is deterministic for a given seed.
+     */
+    public long samplingSeed = 0;
+
     /**
      * Flag to specify if the rule must be refined or not.
      */
@@ -150,6 +191,14 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
      */
     public boolean generic = true;
 
+    /**
+     * The number of {@link HornClause}s kept at each level of the refinement. All of them are specified at once,
+     * and their candidates are evaluated together; the best {@link #beamWidth} candidates form the next level.
+     * <p>
+     * If it is 1, the refinement is a hill climb, following only the best candidate of each level.
+     */
+    public int beamWidth = DEFAULT_BEAM_WIDTH;
+
     /**
      * The maximum amount of time, in seconds, allowed to the evaluation of the {@link Theory}.
      * <p>
@@ -162,6 +211,14 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
      */
     public int numberOfThreads = MultithreadingEvaluation.DEFAULT_NUMBER_OF_THREADS;
 
+    /**
+     * Flag to specify if the examples must be processed in a pipeline: the coverage of all the examples is checked
+     * by a single inference, and the bottom clauses of the uncovered ones are built concurrently, using
+     * {@link #numberOfThreads} threads. The rules are still built and added to the theory one example at a time,
+     * checking the coverage again if the theory has changed.
+     */
+    public boolean pipelineExamples = false;
+
     protected MultithreadingEvaluation<EquivalentHornClause, EquivalentHornClause> multithreading;
 
     @SuppressWarnings("unchecked")
@@ -189,8 +246,12 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
         try {
             logger.info(PERFORMING_OPERATION_ON_EXAMPLES.toString(), targets.size());
             Theory theory = learningSystem.getTheory().copy();
-            for (Example example : targets) {
-                performOperationForExample(example, theory, targets);
+            if (pipelineExamples && targets.size() > 1) {
+                performPipelinedOperation(targets, theory);
+            } else {
+                for (Example example : targets) {
+                    performOperationForExample(example, theory, targets);
+                }
             }
             return theory;
         } catch (KnowledgeException e) {
@@ -212,7 +273,6 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
      */
     protected void performOperationForExample(Example example, Theory theory,
                                               Collection<? extends Example> evaluationExamples) {
-        HornClause newRule;
         try {
             if (!example.isPositive() || isCovered(example, theory)) {
                 if (example.isPositive()) {
@@ -221,18 +281,98 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
                 return;
             }
             logger.debug(BUILDING_CLAUSE_FROM_EXAMPLE.toString(), example);
-            final HornClause bottomClause = buildBottomClause(example);
-            logger.info(BOTTOM_CLAUSE_SIZE.toString(), bottomClause.getBody().size());
-            newRule = buildRuleFromBottomClause(evaluationExamples, bottomClause);
-            newRule = featureGenerator.createFeatureForRule(newRule, evaluationExamples);
-            if (theory.add(newRule)) {
-                logger.info(RULE_APPENDED_TO_THEORY.toString(), newRule);
-            }
+            addRuleFromBottomClause(buildBottomClause(example), theory, evaluationExamples);
         } catch (TheoryRevisionException | IllegalAccessException | InstantiationException e) {
             logger.trace(ERROR_REVISING_EXAMPLE, e);
         }
     }
 
+    /**
+     * Performs the operation for the examples in a pipeline. The coverage of the examples is checked at once, and
+     * the bottom clauses of the uncovered examples are built concurrently. The rules are built from the bottom
+     * clauses, in the order of the examples, as they become available; skipping the examples covered by the rules
+     * already added to the theory.
+     *
+     * @param targets the examples
+     * @param theory  the theory
+     */
+    protected void performPipelinedOperation(Collection<? extends Example> targets, Theory theory) {
+        List<Example> uncovered = getUncoveredExamples(targets, theory);
+        if (uncovered.isEmpty()) { return; }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(Math.min(numberOfThreads, uncovered.size()), 1));
+        try {
+            List<Future<HornClause>> bottomClauses = new ArrayList<>(uncovered.size());
+            for (Example example : uncovered) {
+                bottomClauses.add(pool.submit(() -> buildBottomClause(example)));
+            }
+            pool.shutdown();
+            int theorySize = theory.size();
+            for (int i = 0; i < uncovered.size(); i++) {
+                Example example = uncovered.get(i);
+                if (theory.size() != theorySize && isCovered(example, theory)) {
+                    logger.trace(SKIPPING_COVERED_EXAMPLE.toString(), example);
+                    bottomClauses.get(i).cancel(true);
+                    continue;
+                }
+                logger.debug(BUILDING_CLAUSE_FROM_EXAMPLE.toString(), example);
+                try {
+                    addRuleFromBottomClause(bottomClauses.get(i).get(), theory, targets);
+                } catch (TheoryRevisionException | ExecutionException e) {
+                    logger.trace(ERROR_REVISING_EXAMPLE, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.error(ERROR_REVISING_EXAMPLE, e);
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the positive examples not covered by the theory, checking all of them by a single inference.
+     *
+     * @param examples the examples
+     * @param theory   the theory
+     * @return the positive examples not covered by the theory, in the order of the examples
+     */
+    protected List<Example> getUncoveredExamples(Collection<? extends Example> examples, Theory theory) {
+        List<AtomExample> groundedQueries = new ArrayList<>();
+        for (Example example : examples) {
+            if (example.isPositive()) { groundedQueries.addAll(example.getGroundedQuery()); }
+        }
+        Map<Example, Map<Atom, Double>> inferred = learningSystem.inferExamples(theory, groundedQueries);
+        Set<Atom> grounds = inferred.values().stream().flatMap(e -> e.keySet().stream()).collect(Collectors.toSet());
+        List<Example> uncovered = new ArrayList<>();
+        for (Example example : examples) {
+            if (!example.isPositive()) { continue; }
+            if (isCovered(example, grounds)) {
+                logger.trace(SKIPPING_COVERED_EXAMPLE.toString(), example);
+            } else {
+                uncovered.add(example);
+            }
+        }
+        return uncovered;
+    }
+
+    /**
+     * Builds the rule from the bottom clause and adds it to the theory.
+     *
+     * @param bottomClause       the bottom clause
+     * @param theory             the theory
+     * @param evaluationExamples the evaluation examples
+     * @throws TheoryRevisionException in an error occurs during the revision
+     */
+    protected void addRuleFromBottomClause(HornClause bottomClause, Theory theory,
+                                           Collection<? extends Example> evaluationExamples)
+            throws TheoryRevisionException {
+        HornClause newRule = buildRuleFromBottomClause(evaluationExamples, bottomClause);
+        newRule = featureGenerator.createFeatureForRule(newRule, evaluationExamples);
+        if (theory.add(newRule)) {
+            logger.info(RULE_APPENDED_TO_THEORY.toString(), newRule);
+        }
+    }
+
     /**
      * Checks if the {@link Example} has been already covered by given theory.
      *
@@ -243,6 +383,18 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
     protected boolean isCovered(Example example, Theory theory) {
         Map<Example, Map<Atom, Double>> inferred = learningSystem.inferExamples(theory, example.getGroundedQuery());
         Set<Atom> grounds = inferred.values().stream().flatMap(e -> e.keySet().stream()).collect(Collectors.toSet());
+        return isCovered(example, grounds);
+    }
+
+    /**
+     * Checks if the {@link Example} is covered by the inferred grounds.
+     *
+     * @param example the {@link Example}
+     * @param grounds the inferred grounds
+     * @return {@code true} if all the positive grounds of the example are in the inferred grounds, {@code false}
+     * otherwise
+     */
+    protected static boolean isCovered(Example example, Set<Atom> grounds) {
         for (AtomExample ground : example.getGroundedQuery()) {
             if (ground.isPositive() && !grounds.contains(ground.getAtom())) {
                 return false;
@@ -286,13 +438,74 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
      * @throws InstantiationException if an error occurs when instantiating a new object by reflection
      */
     protected HornClause buildBottomClause(Example target) throws InstantiationException, IllegalAccessException {
-        Set<Atom> relevants = learningSystem.relevantsBreadthFirstSearch(target.getPositiveTerms(), relevantsDepth,
-                                                                         !refine);
+        Set<Atom> relevants = findBottomClauseBody(target.getPositiveTerms());
         Map<Term, Term> variableMap = target.getVariableMap();
 
         return toVariableHornClauseForm(target, relevants, variableMap);
     }
 
+    /**
+     * Finds the relevant {@link Atom}s to the {@link Term}s of the head, to be the body of the bottom clause,
+     * bounded by the {@link #maximumAtomsPerPredicate} and the {@link #maximumBottomClauseSize}.
+     *
+     * @param headTerms the {@link Term}s of the head
+     * @return the relevant {@link Atom}s
+     */
+    protected Set<Atom> findBottomClauseBody(Collection<? extends Term> headTerms) {
+        long begin = TimeUtils.getNanoTime();
+        Set<Atom> relevants = learningSystem.relevantsBreadthFirstSearch(headTerms, relevantsDepth, !refine,
+                                                                         maximumAtomsPerPredicate, samplingSeed);
+        int numberOfRelevants = relevants.size();
+        if (maximumBottomClauseSize > NO_MAXIMUM_BOTTOM_CLAUSE_SIZE && numberOfRelevants > maximumBottomClauseSize) {
+            relevants = sampleBottomClauseBody(relevants, headTerms);
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info(BOTTOM_CLAUSE_SIZE.toString(), relevants.size(), numberOfRelevants,
+                        TimeUtils.elapsedTimeInSeconds(begin, TimeUtils.getNanoTime()),
+                        relevants.stream().collect(Collectors.groupingBy(
+                                a -> a.getPredicate().toString(), TreeMap::new, Collectors.counting())));
+        }
+        return relevants;
+    }
+
+    /**
+     * Samples {@link #maximumBottomClauseSize} {@link Atom}s from the relevant ones. The {@link Atom}s are taken
+     * from each predicate in turn, in the order given by {@link LanguageUtils#shuffleByPredicate(Collection, long)};
+     * so a predicate with many {@link Atom}s does not crowd out the others. If {@link #rankByHeadTerms}, the
+     * {@link Atom}s sharing more {@link Term}s with the head are taken first.
+     *
+     * @param relevants the relevant {@link Atom}s
+     * @param headTerms the {@link Term}s of the head
+     * @return the sampled {@link Atom}s
+     */
+    protected Set<Atom> sampleBottomClauseBody(Set<Atom> relevants, Collection<? extends Term> headTerms) {
+        Set<Term> head = new HashSet<>(headTerms);
+        Map<Atom, int[]> orders = new HashMap<>();
+        int predicateOrder = 0;
+        for (List<Atom> atoms : LanguageUtils.shuffleByPredicate(relevants, samplingSeed).values()) {
+            Map<Atom, Integer> ranks = new HashMap<>();
+            for (Atom atom : atoms) {
+                ranks.put(atom, rankByHeadTerms ? (int) atom.getTerms().stream().filter(head::contains).count() : 0);
+            }
+            atoms.sort(Comparator.comparing(ranks::get, Comparator.reverseOrder()));
+            int index = 0;
+            int previousRank = -1;
+            for (Atom atom : atoms) {
+                int rank = ranks.get(atom);
+                if (rank != previousRank) {
+                    index = 0;
+                    previousRank = rank;
+                }
+                orders.put(atom, new int[]{-rank, index++, predicateOrder});
+            }
+            predicateOrder++;
+        }
+        return orders.entrySet().stream().sorted(Map.Entry.comparingByValue(
+                Comparator.<int[]>comparingInt(o -> o[0]).thenComparingInt(o -> o[1]).thenComparingInt(o -> o[2])))
+                .limit(maximumBottomClauseSize).map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     /**
      * Refines the rule. It starts from the best minimal candidate and adds a {@link Literal} at time into its body. At
      * each time, getting the best possible {@link HornClause}. It finishes when one of the following criteria is met:
@@ -313,6 +526,7 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
                                                                             initialClause,
                                                                     Set<Literal> candidateLiterals,
                                                                     Collection<? extends Example> evaluationExamples) {
+        if (beamWidth > 1) { return refineRuleWithBeam(initialClause, candidateLiterals, evaluationExamples); }
         Set<Literal> candidates = new LinkedHashSet<>(candidateLiterals);
         AsyncTheoryEvaluator<EquivalentHornClause> bestClause = initialClause;
         AsyncTheoryEvaluator<EquivalentHornClause> currentClause = initialClause;
@@ -340,6 +554,75 @@ public class BottomClauseBoundedRule extends GeneralizationRevisionOperator {
         return bestClause;
     }
 
+    /**
+     * Refines the rule as {@link #refineRule(AsyncTheoryEvaluator, Set, Collection)}, but keeping the
+     * {@link #beamWidth} best {@link HornClause}s of each level, instead of only the best one.
+     * <p>
+     * The candidates of all the {@link HornClause}s of the level are evaluated at once, so the evaluation threads
+     * are kept busy across them. Candidates with the same body, built from different {@link HornClause}s of the
+     * level, are evaluated only once.
+     *
+     * @param initialClause      the initial minimal candidate clause
+     * @param candidateLiterals  the candidate literals
+     * @param evaluationExamples the evaluation examples
+     * @return a {@link AsyncTheoryEvaluator} containing the best {@link HornClause} found
+     */
+    protected AsyncTheoryEvaluator<EquivalentHornClause> refineRuleWithBeam(
+            AsyncTheoryEvaluator<EquivalentHornClause> initialClause, Set<Literal> candidateLiterals,
+            Collection<? extends Example> evaluationExamples) {
+        AsyncTheoryEvaluator<EquivalentHornClause> bestClause = initialClause;
+        List<AsyncTheoryEvaluator<EquivalentHornClause>> beam = Collections.singletonList(initialClause);
+        int sideWayMovements = 0;
+        logger.debug(REFINING_RULE_WITH_BEAM.toString(), beamWidth, initialClause);
+        while (!isToStopBySideWayMovements(sideWayMovements)) {
+            Collection<EquivalentHornClause> children = specifyBeam(beam, candidateLiterals);
+            if (children.isEmpty()) { break; }
+            // keeps the evaluations in the order the children were submitted, so the sort below breaks ties by it
+            Map<AsyncTheoryEvaluator<EquivalentHornClause>, Double> evaluations = new LinkedHashMap<>();
+            AsyncTheoryEvaluator<EquivalentHornClause> currentClause =
+                    multithreading.getBestClausesFromCandidates(children, evaluationExamples, evaluations);
+            if (currentClause == null) { break; }
+            beam = evaluations.keySet().stream()
+                    .sorted((o1, o2) -> theoryMetric.compare(o2.getEvaluation(), o1.getEvaluation()))
+                    .limit(beamWidth).collect(Collectors.toList());
+            if (theoryMetric.difference(currentClause.getEvaluation(), bestClause.getEvaluation()) >
+                    improvementThreshold) {
+                logger.debug(ACCEPTING_NEW_BEST_REFINED_CANDIDATE.toString(), currentClause);
+                bestClause = currentClause;
+                sideWayMovements = 0;
+            } else {
+                logger.debug(MAKING_SIDE_MOVEMENT_FOR_CANDIDATE.toString(), currentClause);
+                sideWayMovements++;
+                if (theoryMetric.difference(currentClause.getEvaluation(), bestClause.getEvaluation()) >= 0.0 &&
+                        !generic) {
+                    bestClause = currentClause;
+                }
+            }
+        }
+        return bestClause;
+    }
+
+    /**
+     * Builds the candidates of all the {@link HornClause}s of the beam, by adding a {@link Literal} from the
+     * candidates into their bodies. Candidates with the same body are kept only once.
+     *
+     * @param beam              the {@link HornClause}s of the beam
+     * @param candidateLiterals the candidate literals
+     * @return the candidates
+     */
+    protected static Collection<EquivalentHornClause> specifyBeam(
+            Collection<AsyncTheoryEvaluator<EquivalentHornClause>> beam, Set<Literal> candidateLiterals) {
+        Map<Set<Literal>, EquivalentHornClause> children = new LinkedHashMap<>();
+        for (AsyncTheoryEvaluator<EquivalentHornClause> evaluator : beam) {
+            Set<Literal> candidates = new LinkedHashSet<>(candidateLiterals);
+            removeEquivalentCandidates(candidates, evaluator.getElement());
+            for (EquivalentHornClause child : evaluator.getElement().buildAppendCandidatesFromClause(candidates)) {
+                children.putIfAbsent(child.getClauseBody(), child);
+            }
+        }
+        return children.values();
+    }
+
     /**
      * Removes all the equivalent candidates of the body of the clause from the candidate set.
      *
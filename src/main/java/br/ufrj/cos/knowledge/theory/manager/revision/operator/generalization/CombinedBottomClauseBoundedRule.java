@@ -93,7 +93,6 @@ public class CombinedBottomClauseBoundedRule extends BottomClauseBoundedRule {
                 examples = entry.getValue();
                 logger.info(BUILDING_CLAUSE_FROM_PREDICATE_EXAMPLES.toString(), predicate, examples.size());
                 HornClause bottomClause = buildCombinedBottomClause(predicate, examples);
-                logger.info(BOTTOM_CLAUSE_SIZE.toString(), bottomClause.getBody().size());
                 newRule = buildRuleFromBottomClause(targets, bottomClause);
                 newRule = featureGenerator.createFeatureForRule(newRule, targets);
                 if (theory.add(newRule)) {
@@ -118,7 +117,7 @@ public class CombinedBottomClauseBoundedRule extends BottomClauseBoundedRule {
             IllegalAccessException, InstantiationException {
         Set<Term> positiveTerms = examples.stream()
                 .flatMap(e -> e.getPositiveTerms().stream()).collect(Collectors.toSet());
-        Set<Atom> relevants = learningSystem.relevantsBreadthFirstSearch(positiveTerms, relevantsDepth, !refine);
+        Set<Atom> relevants = findBottomClauseBody(positiveTerms);
         Set<Atom> groundedAtoms = examples.stream().flatMap(e -> e.getGroundedQuery().stream())
                 .filter(AtomExample::isPositive).map(AtomExample::getAtom).collect(Collectors.toSet());
 
@@ -116,7 +116,6 @@ public class CombinedBottomClauseBreadthSearch extends CombinedBottomClauseBound
                 examples = entry.getValue();
                 logger.info(BUILDING_CLAUSE_FROM_PREDICATE_EXAMPLES.toString(), predicate, examples.size());
                 HornClause bottomClause = buildCombinedBottomClause(predicate, examples);
-                logger.info(BOTTOM_CLAUSE_SIZE.toString(), bottomClause.getBody().size());
                 buildRuleFromBottomClause(targets, bottomClause, theory);
             } catch (IllegalAccessException | InstantiationException e) {
                 logger.trace(ERROR_REVISING_EXAMPLE, e);
@@ -164,7 +164,7 @@ public class AddNodeTreeRevisionOperator extends TreeRevisionOperator {
     @Override
     public Theory performOperation(Collection<? extends Example> targets) throws TheoryRevisionException {
         try {
-            Node<HornClause> revisionLeaf = treeTheory.getRevisionLeaf();
+            Node<HornClause> revisionLeaf = getRevisionLeaf();
             logger.trace(TRY_REFINE_RULE.toString(), revisionLeaf);
             if (revisionLeaf.isRoot()) {
                 // this is the root node
@@ -183,7 +183,7 @@ public class AddNodeTreeRevisionOperator extends TreeRevisionOperator {
 
     @Override
     public void theoryRevisionAccepted(Theory revised) {
-        Node<HornClause> revisionLeaf = treeTheory.getRevisionLeaf();
+        Node<HornClause> revisionLeaf = getRevisionLeaf();
         treeTheory.removeExampleFromLeaf(revisionLeaf.getElement().getHead().getPredicate().toString(), revisionLeaf);
         if (revisionLeaf.isDefaultChild()) { revisionLeaf = revisionLeaf.getParent(); }
         Conjunction initialBody;
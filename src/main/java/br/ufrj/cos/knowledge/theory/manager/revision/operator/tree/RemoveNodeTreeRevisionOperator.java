@@ -64,7 +64,7 @@ public class RemoveNodeTreeRevisionOperator extends TreeRevisionOperator {
     @Override
     public Theory performOperation(Collection<? extends Example> targets) throws TheoryRevisionException {
         try {
-            Node<HornClause> revisionLeaf = treeTheory.getRevisionLeaf();
+            Node<HornClause> revisionLeaf = getRevisionLeaf();
             logger.trace(TRY_REFINE_RULE.toString(), revisionLeaf);
             if (revisionLeaf.isDefaultChild()) { return null; }
             if (revisionLeaf.isRoot()) {
@@ -144,7 +144,7 @@ public class RemoveNodeTreeRevisionOperator extends TreeRevisionOperator {
 
     @Override
     public void theoryRevisionAccepted(Theory revised) {
-        Node<HornClause> revisionLeaf = treeTheory.getRevisionLeaf();
+        Node<HornClause> revisionLeaf = getRevisionLeaf();
         treeTheory.removeExampleFromLeaf(revisionLeaf.getElement().getHead().getPredicate().toString(), revisionLeaf);
         if (revisionLeaf.isRoot()) {
             revisionLeaf.getElement().getBody().clear();
@@ -68,7 +68,7 @@ public class RemoveNodeTreeRevisionOperator3 extends RemoveNodeTreeRevisionOpera
     @Override
     public Theory performOperation(Collection<? extends Example> targets) throws TheoryRevisionException {
         try {
-            Node<HornClause> revisionLeaf = treeTheory.getRevisionLeaf();
+            Node<HornClause> revisionLeaf = getRevisionLeaf();
             logger.trace(TRY_REFINE_RULE.toString(), revisionLeaf);
             if (revisionLeaf.isRoot()) {
                 // Root Case
@@ -102,7 +102,7 @@ public class RemoveNodeTreeRevisionOperator3 extends RemoveNodeTreeRevisionOpera
 
     @Override
     public void theoryRevisionAccepted(Theory revised) {
-        Node<HornClause> revisionLeaf = treeTheory.getRevisionLeaf();
+        Node<HornClause> revisionLeaf = getRevisionLeaf();
         final String predicate = revisionLeaf.getElement().getHead().getPredicate().toString();
         treeTheory.removeExampleFromLeaf(predicate, revisionLeaf);
         if (revisionLeaf.isRoot()) {
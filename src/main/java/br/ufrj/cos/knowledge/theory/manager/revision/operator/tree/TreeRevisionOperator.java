@@ -29,8 +29,10 @@
 
 package br.ufrj.cos.knowledge.theory.manager.revision.operator.tree;
 
+import br.ufrj.cos.knowledge.manager.Node;
 import br.ufrj.cos.knowledge.manager.TreeTheory;
 import br.ufrj.cos.knowledge.theory.manager.revision.operator.RevisionOperator;
+import br.ufrj.cos.logic.HornClause;
 import br.ufrj.cos.util.ExceptionMessages;
 import br.ufrj.cos.util.FileIOUtils;
 import br.ufrj.cos.util.InitializationException;
@@ -46,6 +48,12 @@ public abstract class TreeRevisionOperator extends RevisionOperator {
 
     protected TreeTheory treeTheory;
 
+    /**
+     * The leaf revised by this operator, when the leaves are revised concurrently; otherwise, the revision leaf of
+     * the {@link TreeTheory} is revised.
+     */
+    protected volatile Node<HornClause> revisionLeaf;
+
     @Override
     public void initialize() throws InitializationException {
         super.initialize();
@@ -80,4 +88,25 @@ public abstract class TreeRevisionOperator extends RevisionOperator {
         this.treeTheory = treeTheory;
     }
 
+    /**
+     * Gets the leaf to be revised: the {@link #revisionLeaf}, if set; otherwise, the revision leaf of the
+     * {@link TreeTheory}.
+     *
+     * @return the leaf to be revised
+     */
+    public Node<HornClause> getRevisionLeaf() {
+        return revisionLeaf != null ? revisionLeaf : treeTheory.getRevisionLeaf();
+    }
+
+    /**
+     * Sets the leaf revised by this operator, in order to revise leaves concurrently, each one by its own operators.
+     * Since the leaf is held by the operator, it is seen by any thread the operator runs on. Set it to {@code null}
+     * to go back to the revision leaf of the {@link TreeTheory}.
+     *
+     * @param revisionLeaf the leaf revised by this operator
+     */
+    public void setRevisionLeaf(Node<HornClause> revisionLeaf) {
+        this.revisionLeaf = revisionLeaf;
+    }
+
 }
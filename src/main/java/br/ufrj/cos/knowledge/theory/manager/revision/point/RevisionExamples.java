@@ -31,6 +31,8 @@ package br.ufrj.cos.knowledge.theory.manager.revision.point;
 
 import br.ufrj.cos.core.LearningSystem;
 import br.ufrj.cos.knowledge.example.Example;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.PartialEvaluation;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.TheoryMetric;
 import br.ufrj.cos.logic.Atom;
 import br.ufrj.cos.util.ExceptionMessages;
 import br.ufrj.cos.util.FileIOUtils;
@@ -52,6 +54,8 @@ public class RevisionExamples {
     protected final Collection<Example> relevantSample;
     protected final Map<Example, Map<Atom, Double>> inferredExamples;
     protected final Set<Example> notEvaluatedExamples;
+    protected final Map<TheoryMetric, PartialEvaluation> partialEvaluations;
+    protected final Set<Example> partiallyEvaluatedExamples;
     protected long lastInference;
     protected LearningSystem learningSystem;
     protected RelevantSampleSelector sampleSelector;
@@ -70,6 +74,8 @@ public class RevisionExamples {
         this.relevantSample = new HashSet<>();
         this.inferredExamples = new HashMap<>();
         this.notEvaluatedExamples = new HashSet<>();
+        this.partialEvaluations = new HashMap<>();
+        this.partiallyEvaluatedExamples = new HashSet<>();
     }
 
     /**
@@ -165,6 +171,7 @@ public class RevisionExamples {
         if (sampleSelector.isRelevant(example)) {
             relevantSample.add(example);
             inferredExamples.put(example, inferred);
+            updatePartialEvaluations(Collections.singleton(example));
         }
     }
 
@@ -206,18 +213,74 @@ public class RevisionExamples {
         }
         if (!notEvaluatedExamples.isEmpty()) {
             inferredExamples.putAll(learningSystem.inferExamples(notEvaluatedExamples));
+            updatePartialEvaluations(notEvaluatedExamples);
             notEvaluatedExamples.clear();
             lastInference = TimeUtils.getNanoTime();
         }
         return inferredExamples;
     }
 
+    /**
+     * Evaluates the relevant sample with the metric. The evaluation is kept as a partial state of the metric, so only
+     * the examples that were not evaluated yet are inferred and added to it. If the inferred examples were based on
+     * an older version of the theory, the evaluation starts over.
+     *
+     * @param metric           the metric
+     * @param theoryLastChange the time of the last change on the theory
+     * @return the evaluation of the relevant sample
+     * @see TimeUtils
+     */
+    public double evaluate(TheoryMetric metric, long theoryLastChange) {
+        getInferredExamples(theoryLastChange);
+        PartialEvaluation evaluation = partialEvaluations.get(metric);
+        if (evaluation == null) {
+            evaluation = metric.createPartialEvaluation();
+            for (Example example : relevantSample) {
+                evaluation.add(example, inferredExamples.get(example));
+            }
+            partialEvaluations.put(metric, evaluation);
+            partiallyEvaluatedExamples.addAll(relevantSample);
+        }
+        return evaluation.getValue();
+    }
+
+    /**
+     * Adds the newly inferred examples to the partial evaluations. If any of the examples were already added to the
+     * partial evaluations, they can not be updated incrementally, so they are discarded to be computed again.
+     *
+     * @param examples the newly inferred examples
+     */
+    protected void updatePartialEvaluations(Collection<? extends Example> examples) {
+        if (partialEvaluations.isEmpty()) { return; }
+        for (Example example : examples) {
+            if (partiallyEvaluatedExamples.contains(example)) {
+                clearPartialEvaluations();
+                return;
+            }
+        }
+        for (PartialEvaluation evaluation : partialEvaluations.values()) {
+            for (Example example : examples) {
+                evaluation.add(example, inferredExamples.get(example));
+            }
+        }
+        partiallyEvaluatedExamples.addAll(examples);
+    }
+
     /**
      * Clears the cached inference values.
      */
     public void clearInferredExamples() {
         inferredExamples.clear();
         notEvaluatedExamples.addAll(relevantSample);
+        clearPartialEvaluations();
+    }
+
+    /**
+     * Clears the partial evaluations of the metrics.
+     */
+    protected void clearPartialEvaluations() {
+        partialEvaluations.clear();
+        partiallyEvaluatedExamples.clear();
     }
 
     /**
@@ -383,6 +383,27 @@ public final class LanguageUtils {
         return new Literal(atom.getPredicate(), terms);
     }
 
+    /**
+     * Groups the {@link Atom}s by their {@link Predicate}s, shuffling the {@link Atom}s of each {@link Predicate}
+     * with a random generator seeded by the seed and the {@link Predicate}. The result does not depend on the
+     * iteration order of the {@link Atom}s.
+     *
+     * @param atoms the {@link Atom}s
+     * @param seed  the seed
+     * @return the shuffled {@link Atom}s of each {@link Predicate}, sorted by the {@link Predicate}s
+     */
+    public static Map<Predicate, List<Atom>> shuffleByPredicate(Collection<? extends Atom> atoms, long seed) {
+        Map<Predicate, List<Atom>> atomsByPredicate = new TreeMap<>(Comparator.comparing(Predicate::toString));
+        for (Atom atom : atoms) {
+            atomsByPredicate.computeIfAbsent(atom.getPredicate(), p -> new ArrayList<>()).add(atom);
+        }
+        for (Map.Entry<Predicate, List<Atom>> entry : atomsByPredicate.entrySet()) {
+            entry.getValue().sort(Comparator.comparing(Atom::toString));
+            Collections.shuffle(entry.getValue(), new Random(31 * seed + entry.getKey().hashCode()));
+        }
+        return atomsByPredicate;
+    }
+
     /**
      * Creates an {@link Atom} to be the root of a new tree.
      *
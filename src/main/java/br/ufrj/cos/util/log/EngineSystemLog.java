@@ -42,6 +42,8 @@ public enum EngineSystemLog {
     INITIALIZING_ENGINE_SYSTEM_TRANSLATOR("Initializing EngineSystemTranslator:\t{}"),
     TRAINING_PARAMETERS("Training the parameters of the engine system."),
     SAVING_TRAINED_PARAMETERS_AS_CURRENT("Saving the trained parameters as current."),
+    TRAINED_PARAMETERS_EPOCHS("Trained the parameters in {} out of {} epochs, in {} seconds, saving about {} seconds."),
+    RETRAINING_AFFECTED_EXAMPLES("Retraining only the new and affected examples:\t{} out of {}, changed predicates:\t{}"),
     SAVING_PARAMETERS_TO_FILE("Saving the trained parameters to file:\t{}"),
     LOADING_PARAMETERS_FROM_FILE("Loading the parameters from file:\t{}");
 
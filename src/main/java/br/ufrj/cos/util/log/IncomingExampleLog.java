@@ -44,7 +44,8 @@ public enum IncomingExampleLog {
     CALLING_REVISION_OF_EXAMPLE("Calling the revision for\t{} examples."),
 
     EXAMPLES_PLACED_AT_LEAVES("New examples placed at the leaves of the tree, total:\t{}"),
-    CALLING_REVISION_OF_LEAVES("Calling the revision for\t{} modified leaves of predicate:\t{}."),;
+    CALLING_REVISION_OF_LEAVES("Calling the revision for\t{} modified leaves of predicate:\t{}."),
+    CALLING_REVISION_OF_LEAVES_OF_PREDICATES("Calling the revision for\t{} modified leaves of predicates:\t{}."),;
 
     protected final String message;
 
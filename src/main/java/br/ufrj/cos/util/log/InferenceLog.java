@@ -43,6 +43,8 @@ public enum InferenceLog {
     NUMBER_OF_QUERY_ANSWERS("Number of answers:\t{}"),
     ANSWER_RESULT_WITH_VALUE("Result:\tP[{}]\t=\t{}\t[not normalized]"),
     ANSWER_STATE_WITH_VALUE("State:\t{},\t{}"),
+    APPROXIMATED_ANSWER("The proving budget was exhausted, approximated answer for query:\t{}"),
+    APPROXIMATED_ANSWERS("{} out of {} answers were approximated, due to the proving budget."),
 
     EVALUATED_TIMEOUT_PROPORTION("{}% out of {} rules has finished the evaluation within the timeout."),
     EVALUATION_UNDER_METRIC("Evaluation of the theory under the metric:\t{}\t=\t{}"),
@@ -66,6 +68,7 @@ public enum InferenceLog {
     ERROR_PROVING_GOAL("Could not prove the goal:\t{}"),
     ERROR_EVALUATING_CLAUSE("Error when evaluating the clause, reason:"),
     ERROR_EVALUATING_CANDIDATE_THEORY("Error when evaluating a candidate theory, reason:"),
+    REVISION_OPERATOR_EVALUATION_TIMEOUT("Evaluation of the revision operator {} timed out after {} seconds."),
     ERROR_EVALUATING_REVISION_OPERATOR("Error when evaluating the revision operator, reason:");
 
     protected final String message;
@@ -40,6 +40,8 @@ package br.ufrj.cos.util.log;
 public enum PosRevisionLog {
 
     REVISED_THEORY_EVALUATION("Revised theory evaluation:\t{}"),
+    REVISED_THEORY_EVALUATION_STOPPED("Evaluation of the revised theory stopped after\t{} out of\t{} examples, " +
+                                              "its best possible evaluation of\t{} can not reach the threshold."),
     THEORY_MODIFICATION_ACCEPTED("Theory modification accepted. Improvement of {}, over {}, threshold of {}."),
     THEORY_MODIFICATION_SKIPPED("Theory modification skipped due no significant improvement. Improvement of {}, " +
                                         "over {}, threshold of {}."),
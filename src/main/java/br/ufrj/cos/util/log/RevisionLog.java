@@ -56,8 +56,10 @@ public enum RevisionLog {
     FOUND_PREDICATES("Number of predicates found among the examples:\t{}"),
     BUILDING_CLAUSE_FROM_PREDICATE_EXAMPLES("Building rule for predicate\t{} and\t{} examples."),
     BUILDING_CLAUSE_FROM_EXAMPLE("Building clause from the example:\t{}"),
-    BOTTOM_CLAUSE_SIZE("Bottom clause body size:\t{}"),
+    BOTTOM_CLAUSE_SIZE("Bottom clause body size:\t{}, out of\t{} relevant atoms, found in\t{} seconds, atoms by " +
+                               "predicate:\t{}"),
     REFINING_RULE("Refining rule:\t{}"),
+    REFINING_RULE_WITH_BEAM("Refining rule with beam width\t{}:\t{}"),
 
     PROPOSED_REFINED_RULE("Proposed refined rule:\t{}"),
     ACCEPTING_NEW_BEST_REFINED_CANDIDATE("Accepting new best refined candidate:\t{}"),
@@ -67,10 +69,15 @@ public enum RevisionLog {
 
     PROPOSED_ADD_RULE("Propose to add the rule:\t{}"),
     PROPOSED_ADD_LITERAL("Propose to add the literal(s):\t{}"),
+    PATHS_TO_RULES("Found\t{} path(s), explored\t{}, resulting in\t{} candidate rule(s) and\t{} duplicate(s) " +
+                           "removed."),
 
     PROPOSED_REMOVE_RULE("Propose to remove the rule:\t{}"),
     PROPOSED_REMOVE_LITERAL("Propose to remove the literal:\t{}"),
 
+    REVISING_LEAVES_CONCURRENTLY("Revising\t{} leaves of different predicates concurrently:\t{}"),
+    JOINING_REVISION_PROPOSALS("Joining the revisions proposed for\t{} out of\t{} leaves."),
+
     ERROR_REVISING_EXAMPLE("Error when revising the example, reason:\t{}"),
     ERROR_EVALUATING_MINIMAL_CLAUSES("No minimal safe clause could be evaluated. There are two possible reasons: " +
                                              "the timeout is too low; or the metric returns the default value for " +
@@ -0,0 +1,139 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package br.ufrj.cos.util.multithreading;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A stream of candidates, produced by several threads and consumed by a single one. The candidates are consumed, in
+ * the order they are produced, as soon as they are available; and the iteration blocks until a new candidate is
+ * produced or the stream is closed.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class CandidateStream<V> implements Iterable<V> {
+
+    /**
+     * Marks the end of the stream.
+     */
+    protected static final Object END_OF_STREAM = new Object();
+
+    protected final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    protected volatile boolean cancelled;
+    protected Runnable cancellation;
+
+    /**
+     * Adds the candidate to the stream. This method can be called by several threads. The candidate is discarded if
+     * the stream was cancelled.
+     *
+     * @param candidate the candidate
+     */
+    public void add(V candidate) {
+        if (!cancelled) { queue.add(candidate); }
+    }
+
+    /**
+     * Closes the stream, after the last candidate was added.
+     */
+    public void close() {
+        queue.add(END_OF_STREAM);
+    }
+
+    /**
+     * Sets the action to stop the producers of the stream, when it is cancelled.
+     *
+     * @param cancellation the action to stop the producers
+     */
+    public void onCancel(Runnable cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Cancels the stream, when the consumer stops before its end. The pending candidates are discarded, as are the
+     * ones added after it; and the producers are stopped. Cancelling a stream that was fully consumed has no effect.
+     */
+    public void cancel() {
+        cancelled = true;
+        queue.clear();
+        queue.add(END_OF_STREAM);
+        if (cancellation != null) { cancellation.run(); }
+    }
+
+    /**
+     * Checks if the stream was cancelled, so the producers may stop before producing all the candidates.
+     *
+     * @return {@code true} if the stream was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Gets the iterator of the candidates. The stream can only be iterated once, by a single thread.
+     *
+     * @return the iterator of the candidates
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+
+            protected Object next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        next = END_OF_STREAM;
+                    }
+                }
+                return next != END_OF_STREAM;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                @SuppressWarnings("unchecked") V candidate = (V) next;
+                next = null;
+                return candidate;
+            }
+
+        };
+    }
+
+}
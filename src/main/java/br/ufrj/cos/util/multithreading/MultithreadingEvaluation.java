@@ -172,6 +172,60 @@ public class MultithreadingEvaluation<V, E> {
         return bestClause;
     }
 
+    /**
+     * Evaluates the streamed candidates against the metric, and returns the best evaluated {@link HornClause}.
+     * <p>
+     * Each candidate is submitted to the evaluation as soon as it is streamed, so the evaluation starts while the
+     * candidates are still being produced. Performs the evaluation in parallel, using {@link #numberOfThreads}
+     * threads. Since the order of the streamed candidates may vary, the evaluations are retrieved in the given
+     * order of the candidates, in order to break ties deterministically.
+     *
+     * @param candidates     the stream of candidates
+     * @param candidateOrder the order of the candidates
+     * @param examples       the examples
+     * @return the best evaluated {@link HornClause}
+     */
+    public AsyncTheoryEvaluator<E> getBestClausesFromStreamedCandidates(Iterable<? extends V> candidates,
+                                                                        Comparator<? super V> candidateOrder,
+                                                                        Collection<? extends Example> examples) {
+        AsyncTheoryEvaluator<E> bestClause = null;
+        int numberOfThreads = Math.max(this.numberOfThreads, 1);
+        final Map<AsyncTheoryEvaluator<E>, Double> localMap = new HashMap<>();
+        try {
+            ExecutorService evaluationPool = Executors.newFixedThreadPool(numberOfThreads);
+            Map<V, Future<AsyncTheoryEvaluator<E>>> futureMap = new TreeMap<>(candidateOrder);
+            AsyncTheoryEvaluator<E> evaluator;
+            Future<AsyncTheoryEvaluator<E>> future;
+            for (V candidate : candidates) {
+                logger.trace(SUBMITTING_CANDIDATE.toString(), candidate);
+                evaluator = new AsyncTheoryEvaluator<>(examples, learningSystem.getTheoryEvaluator(), theoryMetric,
+                                                       evaluationTimeout);
+                evaluator = transformer.transform(evaluator, candidate, examples);
+                future = MultithreadingEvaluation.submitCandidate(evaluator, evaluationPool);
+                if (future != null) { futureMap.put(candidate, future); }
+            }
+            logger.info(BEGIN_ASYNC_EVALUATION.toString(), futureMap.size());
+            evaluationPool.shutdown();
+            if (futureMap.isEmpty()) { return null; }
+            Set<Future<AsyncTheoryEvaluator<E>>> futures = new LinkedHashSet<>(futureMap.values());
+            evaluationPool.awaitTermination((int) (evaluationTimeout * (futures.size() + 1.0) / numberOfThreads),
+                                            TimeUnit.SECONDS);
+            evaluationPool.shutdownNow();
+            logger.info(END_ASYNC_EVALUATION);
+            bestClause = retrieveEvaluatedMetrics(futures, localMap);
+            if (logger.isDebugEnabled()) {
+                localMap.entrySet().stream().sorted(Comparator.comparing(e -> -e.getValue(), theoryMetric))
+                        .forEach(e -> logger.debug(EVALUATION_FOR_RULE.toString(),
+                                                   e.getValue(),
+                                                   NUMBER_FORMAT.format(e.getKey().getEvaluationTime()),
+                                                   e.getKey().getHornClause()));
+            }
+        } catch (InterruptedException e) {
+            logger.error(ERROR_EVALUATING_CLAUSE.toString(), e);
+        }
+        return bestClause;
+    }
+
     /**
      * Submits the candidate {@link HornClause}s to the evaluation pool.
      *
@@ -47,6 +47,7 @@ import edu.cmu.ml.proppr.examples.PosNegRWExample;
 import edu.cmu.ml.proppr.graph.GraphFormatException;
 import edu.cmu.ml.proppr.graph.LearningGraphBuilder;
 import edu.cmu.ml.proppr.learn.SRW;
+import edu.cmu.ml.proppr.learn.tools.RWExampleCache;
 import edu.cmu.ml.proppr.learn.tools.RWExampleParser;
 import edu.cmu.ml.proppr.learn.tools.StoppingCriterion;
 import edu.cmu.ml.proppr.util.StatusLogger;
@@ -57,6 +58,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
@@ -66,29 +68,63 @@ public class CachingTrainer extends Trainer {
     public static final boolean DEFAULT_SHUFFLE = true;
     private static final Logger log = LogManager.getLogger(CachingTrainer.class);
     private final boolean shuffle;
+    /**
+     * Keeps the parsed examples across calls to train, if not null
+     */
+    protected RWExampleCache exampleCache;
 
     public CachingTrainer(SRW learner, int nthreads, int throttle, boolean shuffle) {
         super(learner, nthreads, throttle);
         this.shuffle = shuffle;
     }
 
+    public RWExampleCache getExampleCache() {
+        return exampleCache;
+    }
+
+    public void setExampleCache(RWExampleCache exampleCache) {
+        this.exampleCache = exampleCache;
+    }
+
+    /**
+     * Trains on the text examples, keeping the parsed examples in the {@link #exampleCache}, if set. Only the text
+     * examples are cached, since the binary ones are cheap to read again.
+     */
     @Override
     public ParamVector<String, ?> train(SymbolTable<String> masterFeatures, Iterable<String> exampleFile,
                                         LearningGraphBuilder builder, ParamVector<String, ?> initialParamVec,
                                         int numEpochs) {
+        RWExampleParser.Format<String> format = RWExampleParser.TEXT;
+        if (exampleCache != null) {
+            final RWExampleCache cache = exampleCache;
+            format = (s, b, learner) -> {
+                PosNegRWExample ex = cache.get(s, masterFeatures);
+                if (ex == null) {
+                    ex = RWExampleParser.TEXT.parse(s, b, learner);
+                    cache.put(s, ex);
+                }
+                return ex;
+            };
+        }
+        return train(masterFeatures, exampleFile, format, builder, initialParamVec, numEpochs);
+    }
+
+    @Override
+    public <T> ParamVector<String, ?> train(SymbolTable<String> masterFeatures, Iterable<T> exampleFile,
+                                            RWExampleParser.Format<T> format, LearningGraphBuilder builder,
+                                            ParamVector<String, ?> initialParamVec, int numEpochs) {
         ArrayList<PosNegRWExample> examples = new ArrayList<PosNegRWExample>();
-        RWExampleParser parser = new RWExampleParser();
         if (masterFeatures.size() > 0) { LearningGraphBuilder.setFeatures(masterFeatures); }
         int id = 0;
         StatusLogger stattime = new StatusLogger();
         TrainingStatistics total = new TrainingStatistics();
         boolean logged = false;
-        for (String s : exampleFile) {
+        for (T s : exampleFile) {
             total.updateReadingStatistics(stattime.sinceLast());
             id++;
             try {
                 stattime.tick();
-                PosNegRWExample ex = parser.parse(s, builder, masterLearner);
+                PosNegRWExample ex = format.parse(s, builder, masterLearner);
                 total.updateParsingStatistics(stattime.sinceLast());
                 examples.add(ex);
                 if (status.due()) {
@@ -101,7 +137,14 @@ public class CachingTrainer extends Trainer {
             stattime.tick();
         }
         if (logged) { log.info("Total parsed: " + id); }
-        return trainCached(examples, builder, initialParamVec, numEpochs, total);
+        ParamVector<String, ?> paramVec = trainCached(examples, builder, initialParamVec, numEpochs, total);
+        if (exampleCache != null) {
+            // releases the gradients of the last epoch, which the cached examples would otherwise hold on to
+            for (PosNegRWExample ex : examples) {
+                if (ex.dp != null) { Arrays.fill(ex.dp, null); }
+            }
+        }
+        return paramVec;
     }
 
     public ParamVector<String, ?> trainCached(List<PosNegRWExample> examples, LearningGraphBuilder builder,
@@ -121,6 +164,8 @@ public class CachingTrainer extends Trainer {
                 learner.setEpoch(epoch);
                 learner.clearLoss();
             }
+            // batch updates, and the regularization at the end of the epoch, are applied by the master learner
+            this.masterLearner.setEpoch(epoch);
             log.info("epoch " + epoch + " ...");
             status.tick();
 
@@ -134,12 +179,20 @@ public class CachingTrainer extends Trainer {
             // run examples
             int id = 1;
             if (this.shuffle) { Collections.shuffle(examples); }
-            for (PosNegRWExample s : examples) {
-                Future<ExampleStats> trained = trainPool.submit(new Train(new PretendParse(s), paramVec, id, null));
-                cleanPool.submit(new TraceLosses(trained, id));
-                id++;
-                if (log.isInfoEnabled() && status.due(1)) {
-                    log.info("queued: " + id + " trained: " + statistics.exampleSetSize);
+            if (batchSize > 1) {
+                for (int i = 0; i < examples.size(); i += batchSize) {
+                    List<PosNegRWExample> batch = examples.subList(i, Math.min(i + batchSize, examples.size()));
+                    trainExampleBatch(batch, paramVec, trainPool);
+                    id += batch.size();
+                }
+            } else {
+                for (PosNegRWExample s : examples) {
+                    Future<ExampleStats> trained = trainPool.submit(new Train(new PretendParse(s), paramVec, id, null));
+                    cleanPool.submit(new TraceLosses(trained, id));
+                    id++;
+                    if (log.isInfoEnabled() && status.due(1)) {
+                        log.info("queued: " + id + " trained: " + statistics.exampleSetSize);
+                    }
                 }
             }
 
@@ -46,6 +46,8 @@ package edu.cmu.ml.proppr;
 import edu.cmu.ml.proppr.examples.GroundedExample;
 import edu.cmu.ml.proppr.examples.InferenceExample;
 import edu.cmu.ml.proppr.examples.InferenceExampleStreamer;
+import edu.cmu.ml.proppr.graph.GraphFormatException;
+import edu.cmu.ml.proppr.learn.tools.BinaryRWExampleFile;
 import edu.cmu.ml.proppr.learn.tools.SquashingFunction;
 import edu.cmu.ml.proppr.prove.InnerProductWeighter;
 import edu.cmu.ml.proppr.prove.Prover;
@@ -87,6 +89,7 @@ public class Grounder<P extends ProofGraph> {
     protected int nthreads = 1;
     protected int throttle = Multithreading.DEFAULT_THROTTLE;
     protected boolean includeUnlabeledGraphs = false;
+    protected boolean binaryFormat = false;
     protected SymbolTable<Feature> featureTable = new ConcurrentSymbolTable<Feature>(ConcurrentSymbolTable
                                                                                              .HASHING_STRATEGIES
                                                                                              .identity);
@@ -123,6 +126,7 @@ public class Grounder<P extends ProofGraph> {
             if (c.getCustomSetting("graphKey") != null) {
                 c.grounder.useGraphKeyFile((File) c.getCustomSetting("graphKey"));
             }
+            c.grounder.useBinaryFormat(Boolean.TRUE.equals(c.getCustomSetting("binary")));
             if (c.paramsFile != null) {
                 ParamsFile file = new ParamsFile(c.paramsFile);
                 c.grounder.addParams(new SimpleParamVector<String>(Dictionary.load(file)), c.squashingFunction);
@@ -176,6 +180,7 @@ public class Grounder<P extends ProofGraph> {
 
             File indexFile = new File(groundedFile.getParent(), groundedFile.getName() + FEATURE_INDEX_EXTENSION);
             serializeFeatures(indexFile, featureTable);
+            if (binaryFormat) { writeBinary(groundedFile); }
 
             if (this.graphKeyFile != null) { this.graphKeyWriter.close(); }
         } catch (IOException e) {
@@ -222,6 +227,34 @@ public class Grounder<P extends ProofGraph> {
         this.includeUnlabeledGraphs = includeThem;
     }
 
+    /**
+     * Sets if the grounded file is written in the binary format of {@link BinaryRWExampleFile}, instead of text.
+     *
+     * @param binaryFormat if the grounded file is written in the binary format
+     */
+    public void useBinaryFormat(boolean binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
+
+    /**
+     * Rewrites the grounded file in the binary format. The examples are grounded to text first, since the graphs are
+     * serialized by the proof graphs, and the binary records refer to the master feature index, which is only complete
+     * after all the examples are grounded.
+     *
+     * @param groundedFile the grounded file
+     * @throws IOException if an error occurs when rewriting the file
+     */
+    protected void writeBinary(File groundedFile) throws IOException {
+        long start = System.currentTimeMillis();
+        try {
+            int count = BinaryRWExampleFile.convert(groundedFile, groundedFile);
+            log.info("Wrote " + count + " grounded examples in binary format in " +
+                             (System.currentTimeMillis() - start) + " ms");
+        } catch (GraphFormatException e) {
+            throw new IOException(e);
+        }
+    }
+
     /**
      * Requires non-empty graph; non-empty example
      */
@@ -280,8 +313,12 @@ public class Grounder<P extends ProofGraph> {
     public GroundedExample groundExample(Prover<P> p,
                                          InferenceExample inferenceExample) throws LogicProgramException {
         validateExample(inferenceExample);
-        return this.groundExample(p, p.makeProofGraph(inferenceExample, apr, featureTable, masterProgram,
-                                                      masterPlugins));
+        P pg = p.makeProofGraph(inferenceExample, apr, featureTable, masterProgram, masterPlugins);
+        try {
+            return this.groundExample(p, pg);
+        } finally {
+            pg.close();
+        }
     }
 
     public void validateExample(InferenceExample in) {
@@ -302,6 +339,7 @@ public class Grounder<P extends ProofGraph> {
     public static class ExampleGrounderConfiguration extends CustomConfiguration {
 
         private File keyFile;
+        private boolean binary;
 
         public ExampleGrounderConfiguration(String[] args, int inputFiles, int outputFiles, int constants,
                                             int modules) {
@@ -317,6 +355,10 @@ public class Grounder<P extends ProofGraph> {
                                       .withDescription("Save a key to the grounded graphs providing the " +
                                                                "LogicProgramState definitions of the numbered nodes")
                                       .create());
+            options.addOption(OptionBuilder
+                                      .withLongOpt("binary")
+                                      .withDescription("Write the grounded examples in binary format")
+                                      .create());
             options.getOption(Configuration.PARAMS_FILE_OPTION).setRequired(false);
         }
 
@@ -324,10 +366,12 @@ public class Grounder<P extends ProofGraph> {
         protected void retrieveCustomSettings(CommandLine line, int[] flags,
                                               Options options) {
             if (line.hasOption("graphKey")) { this.keyFile = new File(line.getOptionValue("graphKey")); }
+            this.binary = line.hasOption("binary");
         }
 
         @Override
         public Object getCustomSetting(String name) {
+            if ("binary".equals(name)) { return binary; }
             return keyFile;
         }
     }
@@ -346,6 +390,8 @@ public class Grounder<P extends ProofGraph> {
         public Integer count = 0;
         public Integer noPosNeg = 0;
         public Integer emptyGraph = 0;
+        public int budgetExhausted = 0;
+        public int memoryExhausted = 0;
 
         public GroundingStatistics() {
             log.debug("Resetting grounding statistics...");
@@ -359,6 +405,14 @@ public class Grounder<P extends ProofGraph> {
             synchronized (emptyGraph) { emptyGraph++; }
         }
 
+        public synchronized void budgetExhausted() {
+            budgetExhausted++;
+        }
+
+        public synchronized void memoryExhausted() {
+            memoryExhausted++;
+        }
+
         public void updateStatistics(InferenceExample ex, int npos, int nneg, int covpos, int covneg) {
             // keep track of some statistics - synchronized for multithreading
             synchronized (count) {
@@ -403,7 +457,12 @@ public class Grounder<P extends ProofGraph> {
         @Override
         public String call() throws Exception {
             P pg = prover.makeProofGraph(inf, apr, featureTable, masterProgram, masterPlugins);
-            GroundedExample gx = groundExample(getProver().copy(), pg);
+            GroundedExample gx;
+            try {
+                gx = groundExample(getProver().copy(), pg);
+            } finally {
+                pg.close();
+            }
             InferenceExample ix = pg.getExample();
             statistics.updateStatistics(ix,
                                         ix.getPosSet().length, ix.getNegSet().length,
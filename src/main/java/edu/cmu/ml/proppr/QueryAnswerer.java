@@ -194,19 +194,24 @@ public class QueryAnswerer<P extends ProofGraph> {
         P pg = prover.makeProofGraph(new InferenceExample(query, null, null), apr, featureTable, program, plugins);
         if (log.isDebugEnabled()) { log.debug("Querying: " + query); }
         long start = System.currentTimeMillis();
-        Map<State, Double> dist = getSolutions(prover, pg);
-        long end = System.currentTimeMillis();
+        long end;
         Map<Query, Double> solutions = new TreeMap<Query, Double>();
-        for (Map.Entry<State, Double> s : dist.entrySet()) {
-            if (s.getKey().isCompleted()) {
-                Query x = pg.fill(s.getKey());
-                solutions.put(x, s.getValue());
-                if (log.isDebugEnabled()) {
-                    log.debug(x + "\t" + s.getValue());
+        try {
+            Map<State, Double> dist = getSolutions(prover, pg);
+            end = System.currentTimeMillis();
+            for (Map.Entry<State, Double> s : dist.entrySet()) {
+                if (s.getKey().isCompleted()) {
+                    Query x = pg.fill(s.getKey());
+                    solutions.put(x, s.getValue());
+                    if (log.isDebugEnabled()) {
+                        log.debug(x + "\t" + s.getValue());
+                    }
+                } else if (log.isDebugEnabled()) {
+                    log.debug(s + "\t" + s.getValue());
                 }
-            } else if (log.isDebugEnabled()) {
-                log.debug(s + "\t" + s.getValue());
             }
+        } finally {
+            pg.close();
         }
         if (normalize) {
             log.debug("normalizing");
@@ -51,9 +51,11 @@ import edu.cmu.ml.proppr.learn.SRW.ZeroGradientData;
 import edu.cmu.ml.proppr.learn.tools.FixedWeightRules;
 import edu.cmu.ml.proppr.learn.tools.LossData;
 import edu.cmu.ml.proppr.learn.tools.LossData.LOSS;
+import edu.cmu.ml.proppr.learn.tools.BinaryRWExampleFile;
 import edu.cmu.ml.proppr.learn.tools.RWExampleParser;
 import edu.cmu.ml.proppr.learn.tools.StoppingCriterion;
 import edu.cmu.ml.proppr.util.*;
+import edu.cmu.ml.proppr.util.math.DenseParamVector;
 import edu.cmu.ml.proppr.util.math.ParamVector;
 import edu.cmu.ml.proppr.util.math.SimpleParamVector;
 import edu.cmu.ml.proppr.util.multithreading.Multithreading;
@@ -65,6 +67,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 
@@ -85,6 +88,14 @@ public class Trainer {
     protected StatusLogger status = new StatusLogger();
     protected int stoppingEpoch = 3;
     protected double stoppingPercent = 1.0;
+    /**
+     * Number of epochs run by the last training, which is less than the maximum if the loss converged before.
+     */
+    protected int trainedEpochs;
+    /**
+     * Number of examples per mini-batch; 1 trains on each example as soon as it is parsed, asynchronously.
+     */
+    protected int batchSize = 1;
 
     public Trainer(SRW srw) {
         this(srw, 1, Multithreading.DEFAULT_THROTTLE);
@@ -130,12 +141,23 @@ public class Trainer {
             }
             logger.info("Training model parameters on " + groundedFile + "...");
             long start = System.currentTimeMillis();
-            ParamVector<String, ?> params = c.trainer.train(
-                    masterFeatures,
-                    new ParsedFile(groundedFile),
-                    new ArrayLearningGraphBuilder(),
-                    c.initParamsFile,
-                    c.epochs);
+            File grounded = new File(groundedFile);
+            ParamVector<String, ?> params;
+            if (BinaryRWExampleFile.isBinary(grounded)) {
+                params = c.trainer.train(
+                        masterFeatures,
+                        new BinaryRWExampleFile(grounded),
+                        new ArrayLearningGraphBuilder(),
+                        c.initParamsFile,
+                        c.epochs);
+            } else {
+                params = c.trainer.train(
+                        masterFeatures,
+                        new ParsedFile(grounded),
+                        new ArrayLearningGraphBuilder(),
+                        c.initParamsFile,
+                        c.epochs);
+            }
             logger.info("Training time: " + (System.currentTimeMillis() - start));
 
             if (c.paramsFile != null) {
@@ -150,26 +172,43 @@ public class Trainer {
 
     public ParamVector<String, ?> train(SymbolTable<String> masterFeatures, Iterable<String> examples,
                                         LearningGraphBuilder builder, File initialParamVecFile, int numEpochs) {
-        ParamVector<String, ?> initParams = null;
+        return train(masterFeatures, examples, builder, loadInitialParams(initialParamVecFile), numEpochs);
+    }
+
+    public ParamVector<String, ?> train(SymbolTable<String> masterFeatures, BinaryRWExampleFile examples,
+                                        LearningGraphBuilder builder, File initialParamVecFile, int numEpochs) {
+        return train(masterFeatures, examples, builder, loadInitialParams(initialParamVecFile), numEpochs);
+    }
+
+    protected ParamVector<String, ?> loadInitialParams(File initialParamVecFile) {
         if (initialParamVecFile != null) {
             logger.info("loading initial params from " + initialParamVecFile);
-            initParams = new SimpleParamVector<String>(Dictionary.load(new ParsedFile(initialParamVecFile), new
-                    ConcurrentHashMap<String, Double>()));
-        } else {
-            initParams = createParamVector();
-        }
-        return train(
-                masterFeatures,
-                examples,
-                builder,
-                initParams,
-                numEpochs
-                    );
+            return new DenseParamVector(Dictionary.load(new ParsedFile(initialParamVecFile)));
+        }
+        return createParamVector();
     }
 
     public ParamVector<String, ?> train(SymbolTable<String> masterFeatures, Iterable<String> examples,
                                         LearningGraphBuilder builder, ParamVector<String, ?> initialParamVec,
                                         int numEpochs) {
+        return train(masterFeatures, examples, RWExampleParser.TEXT, builder, initialParamVec, numEpochs);
+    }
+
+    /**
+     * Trains the parameters on the grounded examples of a {@link BinaryRWExampleFile}.
+     */
+    public ParamVector<String, ?> train(SymbolTable<String> masterFeatures, BinaryRWExampleFile examples,
+                                        LearningGraphBuilder builder, ParamVector<String, ?> initialParamVec,
+                                        int numEpochs) {
+        return train(masterFeatures, examples, RWExampleParser.BINARY, builder, initialParamVec, numEpochs);
+    }
+
+    /**
+     * Trains the parameters on the grounded examples, which are parsed by their format.
+     */
+    public <T> ParamVector<String, ?> train(SymbolTable<String> masterFeatures, Iterable<T> examples,
+                                            RWExampleParser.Format<T> format, LearningGraphBuilder builder,
+                                            ParamVector<String, ?> initialParamVec, int numEpochs) {
         ParamVector<String, ?> paramVec = this.masterLearner.setupParams(initialParamVec);
         if (masterFeatures.size() > 0) { LearningGraphBuilder.setFeatures(masterFeatures); }
         NamedThreadFactory workingThreads = new NamedThreadFactory("work-");
@@ -188,6 +227,8 @@ public class Trainer {
                 learner.setEpoch(epoch);
                 learner.clearLoss();
             }
+            // batch updates, and the regularization at the end of the epoch, are applied by the master learner
+            this.masterLearner.setEpoch(epoch);
             logger.info("epoch " + epoch + " ...");
             status.tick();
 
@@ -205,11 +246,21 @@ public class Trainer {
             stattime.start();
             int countdown = -1;
             Trainer notify = null;
-            for (String s : examples) {
+            List<T> batch = new ArrayList<T>(Math.max(batchSize, 1));
+            for (T s : examples) {
                 if (logger.isDebugEnabled()) {
                     logger.debug("Queue size " + (workingPool.getTaskCount() - workingPool.getCompletedTaskCount()));
                 }
                 statistics.updateReadingStatistics(stattime.sinceLast());
+                if (batchSize > 1) {
+                    batch.add(s);
+                    if (batch.size() == batchSize) {
+                        id = trainBatch(batch, format, builder, paramVec, workingPool, id);
+                        batch.clear();
+                    }
+                    stattime.tick();
+                    continue;
+                }
                 /*
                  * Throttling behavior:
 				 * Once the number of unfinished tasks exceeds 1.5x the number of threads,
@@ -259,7 +310,7 @@ public class Trainer {
                     countdown = this.nthreads;
                     notify = this;
                 }
-                Future<PosNegRWExample> parsed = workingPool.submit(new Parse(s, builder, id));
+                Future<PosNegRWExample> parsed = workingPool.submit(new Parse<T>(s, format, builder, id));
                 Future<ExampleStats> trained = workingPool.submit(new Train(parsed, paramVec, id, notify));
                 cleanPool.submit(new TraceLosses(trained, id));
                 id++;
@@ -268,6 +319,7 @@ public class Trainer {
                     logger.info("parsed: " + id + " trained: " + statistics.exampleSetSize);
                 }
             }
+            if (!batch.isEmpty()) { id = trainBatch(batch, format, builder, paramVec, workingPool, id); }
 
             cleanEpoch(workingPool, cleanPool, paramVec, stopper, id, total);
             if (graphSizesStatusLog) {
@@ -285,6 +337,94 @@ public class Trainer {
         return paramVec;
     }
 
+    /**
+     * Trains on a mini-batch of examples. The examples are parsed and their gradients are computed in parallel,
+     * against the same parameters; then the gradients are summed by a tree reduction and applied as a single update.
+     * Since the shape of the reduction only depends on the size of the batch, and new features are initialized in
+     * the order of the examples, the result does not depend on the timing of the threads.
+     *
+     * @param batch       the examples
+     * @param format      the format of the examples
+     * @param builder     the graph builder
+     * @param paramVec    the parameters
+     * @param workingPool the working pool
+     * @param id          the id of the first example of the batch
+     * @return the id of the example after the batch
+     */
+    protected <T> int trainBatch(List<T> batch, RWExampleParser.Format<T> format, LearningGraphBuilder builder,
+                                 ParamVector<String, ?> paramVec, ExecutorService workingPool, int id) {
+        List<Future<PosNegRWExample>> parsed = new ArrayList<Future<PosNegRWExample>>(batch.size());
+        for (T s : batch) { parsed.add(workingPool.submit(new Parse<T>(s, format, builder, id++))); }
+        List<PosNegRWExample> examples = new ArrayList<PosNegRWExample>(batch.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            try {
+                examples.add(parsed.get(i).get());
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("Trouble with #" + (id - batch.size() + i), e);
+            }
+        }
+        trainExampleBatch(examples, paramVec, workingPool);
+        return id;
+    }
+
+    /**
+     * Trains on a mini-batch of parsed examples, as a single update.
+     *
+     * @param examples    the examples
+     * @param paramVec    the parameters
+     * @param workingPool the working pool
+     * @see #trainBatch(List, LearningGraphBuilder, ParamVector, ExecutorService, int)
+     */
+    protected void trainExampleBatch(List<PosNegRWExample> examples, ParamVector<String, ?> paramVec,
+                                     ExecutorService workingPool) {
+        try {
+            // sequentially, so that the random initial weights are reproducible
+            for (PosNegRWExample ex : examples) { this.masterLearner.initializeFeatures(paramVec, ex.getGraph()); }
+            List<Future<SimpleParamVector<String>>> computed = new ArrayList<Future<SimpleParamVector<String>>>
+                    (examples.size());
+            for (PosNegRWExample ex : examples) { computed.add(workingPool.submit(new BatchGrad(ex, paramVec))); }
+            List<SimpleParamVector<String>> gradients = new ArrayList<SimpleParamVector<String>>(examples.size());
+            for (Future<SimpleParamVector<String>> gradient : computed) {
+                try {
+                    gradients.add(gradient.get());
+                } catch (ExecutionException e) {
+                    logger.error("Trouble with a batch example", e);
+                }
+            }
+            if (gradients.isEmpty()) { return; }
+            this.masterLearner.applyGradient(paramVec, reduceGradients(gradients, workingPool));
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Interrupted?", e);
+        }
+    }
+
+    /**
+     * Sums the gradients pairwise, level by level, with the merges of each level running in parallel. The sum of
+     * each feature is always taken in the same order, so the result is reproducible.
+     *
+     * @param gradients   the gradients, which are consumed
+     * @param workingPool the working pool
+     * @return the sum of the gradients
+     * @throws InterruptedException if interrupted while waiting for a merge
+     * @throws ExecutionException   if a merge fails
+     */
+    protected SimpleParamVector<String> reduceGradients(List<SimpleParamVector<String>> gradients,
+                                                        ExecutorService workingPool)
+            throws InterruptedException, ExecutionException {
+        for (int step = 1; step < gradients.size(); step *= 2) {
+            List<Future<?>> merges = new ArrayList<Future<?>>();
+            for (int i = 0; i + step < gradients.size(); i += 2 * step) {
+                final SimpleParamVector<String> left = gradients.get(i);
+                final SimpleParamVector<String> right = gradients.get(i + step);
+                merges.add(workingPool.submit(() -> {
+                    for (Map.Entry<String, Double> e : right.entrySet()) { left.adjustValue(e.getKey(), e.getValue()); }
+                }));
+            }
+            for (Future<?> merge : merges) { merge.get(); }
+        }
+        return gradients.get(0);
+    }
+
     /**
      * End-of-epoch cleanup routine shared by Trainer, CachingTrainer.
      * Shuts down working thread, cleaning thread, regularizer, loss calculations, stopper calculations,
@@ -322,7 +462,8 @@ public class Trainer {
         }
         lossThisEpoch.convertCumulativesToAverage(statistics.numExamplesThisEpoch);
         printLossOutput(lossThisEpoch);
-        if (epoch > 1) {
+        // the epoch counter goes on across trainings, so only the losses of this training are compared
+        if (stopper.numEpochs > 0) {
             stopper.recordConsecutiveLosses(lossThisEpoch, lossLastEpoch);
         }
         lossLastEpoch = lossThisEpoch;
@@ -339,6 +480,7 @@ public class Trainer {
             }
         }
         stopper.recordEpoch();
+        trainedEpochs = stopper.numEpochs;
         statistics.checkStatistics();
         stats.updateReadingStatistics(statistics.readTime);
         stats.updateParsingStatistics(statistics.parseTime);
@@ -428,7 +570,7 @@ public class Trainer {
                 countdown = this.nthreads;
                 notify = this;
             }
-            Future<PosNegRWExample> parsed = workPool.submit(new Parse(s, builder, id));
+            Future<PosNegRWExample> parsed = workPool.submit(new Parse<String>(s, RWExampleParser.TEXT, builder, id));
             Future<ExampleStats> gradfound = workPool.submit(new Grad(parsed, paramVec, sumGradient, id, notify));
             cleanPool.submit(new TraceLosses(gradfound, id));
             id++;
@@ -457,8 +599,7 @@ public class Trainer {
     }
 
     protected ParamVector<String, ?> createParamVector() {
-        return new SimpleParamVector<String>(new ConcurrentHashMap<String, Double>(DEFAULT_CAPACITY, DEFAULT_LOAD,
-                                                                                   this.nthreads));
+        return new DenseParamVector();
     }
 
     public ParamVector<String, ?> findGradient(ArrayList<PosNegRWExample> examples,
@@ -469,12 +610,25 @@ public class Trainer {
 
     /////////////////////// Multithreading scaffold ///////////////////////
 
+    /**
+     * Sets the number of examples per mini-batch; 1 or less trains on each example asynchronously.
+     *
+     * @param batchSize the number of examples per mini-batch
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
     public void setStoppingCriteria(int stoppingEpochs, double percent) {
         this.stoppingEpoch = stoppingEpochs;
         this.stoppingPercent = percent;
 
     }
 
+    public int getTrainedEpochs() {
+        return trainedEpochs;
+    }
+
     public void setFixedWeightRules(FixedWeightRules f) {
         this.masterLearner.setFixedWeightRules(f);
         for (SRW el : this.learners.values()) { el.setFixedWeightRules(f); }
@@ -548,14 +702,16 @@ public class Trainer {
         }
     }
 
-    protected class Parse implements Callable<PosNegRWExample> {
+    protected class Parse<T> implements Callable<PosNegRWExample> {
 
-        String in;
+        T in;
+        RWExampleParser.Format<T> format;
         LearningGraphBuilder builder;
         int id;
 
-        public Parse(String in, LearningGraphBuilder builder, int id) {
+        public Parse(T in, RWExampleParser.Format<T> format, LearningGraphBuilder builder, int id) {
             this.in = in;
+            this.format = format;
             this.id = id;
             this.builder = builder;
         }
@@ -565,7 +721,7 @@ public class Trainer {
             SRW learner = learners.get(Thread.currentThread().getName());
             if (logger.isDebugEnabled()) { logger.debug("Parsing start " + this.id); }
             long start = System.currentTimeMillis();
-            PosNegRWExample ex = new RWExampleParser().parse(in, builder.copy(), learner);
+            PosNegRWExample ex = format.parse(in, builder.copy(), learner);
             statistics.updateParsingStatistics(System.currentTimeMillis() - start);
             if (logger.isDebugEnabled()) { logger.debug("Parsing done " + this.id); }
             return ex;
@@ -634,6 +790,32 @@ public class Trainer {
         }
     }
 
+    /**
+     * Computes the gradient of an example of a mini-batch, without changing the parameters
+     */
+    protected class BatchGrad implements Callable<SimpleParamVector<String>> {
+
+        PosNegRWExample ex;
+        ParamVector<String, ?> paramVec;
+
+        public BatchGrad(PosNegRWExample ex, ParamVector<String, ?> paramVec) {
+            this.ex = ex;
+            this.paramVec = paramVec;
+        }
+
+        @Override
+        public SimpleParamVector<String> call() throws Exception {
+            SRW learner = learners.get(Thread.currentThread().getName());
+            long start = System.currentTimeMillis();
+            SimpleParamVector<String> gradient = new SimpleParamVector<String>();
+            // the same gradient sgd would apply, which is already normalized by the length of the example
+            learner.accumulateGradient(paramVec, ex, gradient, status, 1.0);
+            statistics.updateTrainingStatistics(System.currentTimeMillis() - start);
+            statistics.updateExampleStats(new ExampleStats(ex.length(), ex.getGraph().nodeSize()));
+            return gradient;
+        }
+    }
+
     /**
      * Cleans up outputs from training (tracks some info for traceLosses)
      *
@@ -44,10 +44,14 @@
 package edu.cmu.ml.proppr.examples;
 
 import edu.cmu.ml.proppr.graph.LearningGraph;
+import edu.cmu.ml.proppr.graph.LearningGraphBuilder;
 import edu.cmu.ml.proppr.util.Dictionary;
 import gnu.trove.map.TIntDoubleMap;
 import gnu.trove.procedure.TIntProcedure;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * A supervised random walk example which specifies a list of positive examples and a list of negative examples.
  *
@@ -150,4 +154,17 @@ public class PosNegRWExample extends RWExample {
         this.graph.serialize(serialized);
         return serialized.toString();
     }
+
+    /**
+     * Writes the example in the binary format read by
+     * {@link edu.cmu.ml.proppr.learn.tools.RWExampleParser#parse(java.nio.ByteBuffer, LearningGraphBuilder,
+     * edu.cmu.ml.proppr.learn.SRW)}.
+     */
+    public void serialize(DataOutput out) throws IOException {
+        LearningGraphBuilder.writeString(out, this.name);
+        LearningGraphBuilder.writeInts(out, this.queryVec.keys());
+        LearningGraphBuilder.writeInts(out, this.posList);
+        LearningGraphBuilder.writeInts(out, this.negList);
+        this.graph.serialize(out);
+    }
 }
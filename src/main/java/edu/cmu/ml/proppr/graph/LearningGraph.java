@@ -44,9 +44,14 @@
 package edu.cmu.ml.proppr.graph;
 
 import edu.cmu.ml.proppr.util.SymbolTable;
+import edu.cmu.ml.proppr.util.math.DenseParamVector;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 
 public class LearningGraph {
 
@@ -69,11 +74,38 @@ public class LearningGraph {
 
     private int index = 0;
     private int labelDependencies = -1;
+    // the ids of the features in each feature table they were requested for, released along with the table
+    private final Map<SymbolTable<String>, int[]> tableFeatureIds = new WeakHashMap<>();
 
     public LearningGraph(SymbolTable<String> fL) {
         this.featureLibrary = fL;
     }
 
+    /**
+     * Ids of the features of this graph in the feature table, e.g. the one of a {@link DenseParamVector}, indexed by
+     * their ids in the feature library of the graph. Computed once per table, and extended if the library grows.
+     *
+     * @param featureTable the feature table
+     * @return the ids of the features in the table
+     */
+    public int[] getFeatureIds(SymbolTable<String> featureTable) {
+        synchronized (tableFeatureIds) {
+            int[] known = tableFeatureIds.get(featureTable);
+            if (known != null && known.length > featureLibrary.size()) { return known; }
+            int[] ids = new int[featureLibrary.size() + 1];
+            int start = 1;
+            if (known != null) {
+                start = known.length;
+                System.arraycopy(known, 0, ids, 0, start);
+            }
+            for (int i = start; i < ids.length; i++) {
+                ids[i] = featureTable.getId(featureLibrary.getSymbol(i));
+            }
+            tableFeatureIds.put(featureTable, ids);
+            return ids;
+        }
+    }
+
     public int[] getNodes() {
         int[] nodes = new int[node_hi];
         for (int i = 0; i < node_hi; i++) { nodes[i] = i; }
@@ -113,6 +145,30 @@ public class LearningGraph {
         }
     }
 
+    /**
+     * Writes the graph in the binary format read by {@link LearningGraphBuilder#deserialize(java.nio.ByteBuffer)}:
+     * the feature library, unless it is the master one, followed by the length-prefixed arrays of the graph, where
+     * the lower and upper bounds of the outlinks of the nodes and of the labels of the edges are stored as offsets.
+     */
+    public void serialize(DataOutput out) throws IOException {
+        boolean master = featureLibrary == LearningGraphBuilder.getFeatures();
+        out.writeBoolean(master);
+        if (!master) {
+            out.writeInt(featureLibrary.size());
+            for (int i = 1; i <= featureLibrary.size(); i++) {
+                LearningGraphBuilder.writeString(out, featureLibrary.getSymbol(i));
+            }
+        }
+        out.writeInt(index);
+        out.writeInt(node_hi);
+        out.writeInt(labelDependencies);
+        LearningGraphBuilder.writeOffsets(out, node_near_lo, node_near_hi);
+        LearningGraphBuilder.writeInts(out, edge_dest);
+        LearningGraphBuilder.writeOffsets(out, edge_labels_lo, edge_labels_hi);
+        LearningGraphBuilder.writeInts(out, label_feature_id);
+        LearningGraphBuilder.writeWeights(out, label_feature_weight);
+    }
+
     public int nodeSize() {
         return node_hi - index;
     }
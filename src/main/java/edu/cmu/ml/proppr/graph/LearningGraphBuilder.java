@@ -46,6 +46,12 @@ package edu.cmu.ml.proppr.graph;
 import edu.cmu.ml.proppr.util.SimpleSymbolTable;
 import edu.cmu.ml.proppr.util.SymbolTable;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 
 public abstract class LearningGraphBuilder {
@@ -146,6 +152,206 @@ public abstract class LearningGraphBuilder {
         return g;
     }
 
+    /**
+     * Reads a graph written by {@link LearningGraph#serialize(DataOutput)}, from the current position of the buffer.
+     * The arrays of the graph are bulk copied from the buffer, which may be memory-mapped, without any parsing.
+     *
+     * @param buffer the buffer
+     * @return the graph
+     * @throws GraphFormatException if the buffer does not hold a valid graph
+     */
+    public LearningGraph deserialize(ByteBuffer buffer) throws GraphFormatException {
+        try {
+            SymbolTable<String> features;
+            if (buffer.get() != 0) {
+                features = getFeatures();
+                if (features == null) {
+                    throw new GraphFormatException("Binary graph refers to the master feature index, but none is set");
+                }
+            } else {
+                features = new SimpleSymbolTable<String>();
+                int featureSize = buffer.getInt();
+                for (int i = 0; i < featureSize; i++) { features.insert(readString(buffer)); }
+            }
+            LearningGraph g = new LearningGraph(features);
+            g.setIndex(buffer.getInt());
+            g.node_hi = buffer.getInt();
+            g.setLabelDependencies(buffer.getInt());
+            int[] nodeOffsets = readInts(buffer);
+            g.edge_dest = readInts(buffer);
+            int[] edgeOffsets = readInts(buffer);
+            g.label_feature_id = readInts(buffer);
+            g.label_feature_weight = readWeights(buffer);
+            if (nodeOffsets.length != g.node_hi + 1 || edgeOffsets.length != g.edge_dest.length + 1
+                    || g.label_feature_weight.length != g.label_feature_id.length) {
+                throw new GraphFormatException("Corrupted binary graph: inconsistent array sizes");
+            }
+            g.node_near_lo = Arrays.copyOf(nodeOffsets, g.node_hi);
+            g.node_near_hi = Arrays.copyOfRange(nodeOffsets, 1, nodeOffsets.length);
+            g.edge_labels_lo = Arrays.copyOf(edgeOffsets, g.edge_dest.length);
+            g.edge_labels_hi = Arrays.copyOfRange(edgeOffsets, 1, edgeOffsets.length);
+            for (int v : g.edge_dest) {
+                if (v < 0 || v >= g.node_hi) {
+                    throw new GraphFormatException("Corrupted binary graph: node size is listed = " + g.node_hi
+                                                           + " but has an edge with dest " + v);
+                }
+            }
+            return g;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new GraphFormatException("Truncated binary graph: " + e);
+        }
+    }
+
+    /**
+     * Writes a length-prefixed int array, with the narrowest width, in bytes, that holds all its values: one or two
+     * bytes for small non-negative values, four bytes otherwise.
+     */
+    public static void writeInts(DataOutput out, int[] values) throws IOException {
+        int width = Byte.BYTES;
+        for (int v : values) {
+            if (v < 0 || v > 0xFFFF) {
+                width = Integer.BYTES;
+                break;
+            }
+            if (v > 0xFF) { width = Short.BYTES; }
+        }
+        out.writeInt(values.length);
+        out.writeByte(width);
+        for (int v : values) {
+            switch (width) {
+                case Byte.BYTES:
+                    out.writeByte(v);
+                    break;
+                case Short.BYTES:
+                    out.writeShort(v);
+                    break;
+                default:
+                    out.writeInt(v);
+            }
+        }
+    }
+
+    /**
+     * Reads a length-prefixed int array, advancing the buffer.
+     */
+    public static int[] readInts(ByteBuffer buffer) {
+        int length = readLength(buffer);
+        int width = buffer.get();
+        if ((long) length * width > buffer.remaining()) {
+            throw new IllegalArgumentException("Array of " + length + " ints beyond the end of the buffer");
+        }
+        int[] values = new int[length];
+        switch (width) {
+            case Byte.BYTES:
+                for (int i = 0; i < values.length; i++) { values[i] = buffer.get() & 0xFF; }
+                break;
+            case Short.BYTES:
+                for (int i = 0; i < values.length; i++) { values[i] = buffer.getShort() & 0xFFFF; }
+                break;
+            case Integer.BYTES:
+                buffer.asIntBuffer().get(values);
+                buffer.position(buffer.position() + values.length * Integer.BYTES);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown int width " + width);
+        }
+        return values;
+    }
+
+    /**
+     * Writes the offsets of contiguous ranges, given by their lower and upper bounds, as a single array whose last
+     * element is the upper bound of the last range.
+     */
+    public static void writeOffsets(DataOutput out, int[] lo, int[] hi) throws IOException {
+        int[] offsets = Arrays.copyOf(lo, lo.length + 1);
+        offsets[lo.length] = lo.length > 0 ? hi[lo.length - 1] : 0;
+        for (int i = 0; i < lo.length; i++) {
+            if (hi[i] != offsets[i + 1]) { throw new IllegalStateException("Ranges of the graph are not contiguous"); }
+        }
+        writeInts(out, offsets);
+    }
+
+    /**
+     * Writes a length-prefixed array of weights: with no values, if they are all 1.0; as floats, if none of them
+     * loses precision; or as doubles, otherwise.
+     */
+    public static void writeWeights(DataOutput out, double[] values) throws IOException {
+        int width = 0;
+        for (double v : values) {
+            if ((float) v != v) {
+                width = Double.BYTES;
+                break;
+            }
+            if (v != 1.0) { width = Float.BYTES; }
+        }
+        out.writeInt(values.length);
+        out.writeByte(width);
+        for (double v : values) {
+            if (width == Float.BYTES) {
+                out.writeFloat((float) v);
+            } else if (width == Double.BYTES) {
+                out.writeDouble(v);
+            }
+        }
+    }
+
+    /**
+     * Reads a length-prefixed array of weights, advancing the buffer.
+     */
+    public static double[] readWeights(ByteBuffer buffer) {
+        int length = readLength(buffer);
+        int width = buffer.get();
+        if ((long) length * width > buffer.remaining()) {
+            throw new IllegalArgumentException("Array of " + length + " weights beyond the end of the buffer");
+        }
+        double[] values = new double[length];
+        switch (width) {
+            case 0:
+                Arrays.fill(values, 1.0);
+                break;
+            case Float.BYTES:
+                for (int i = 0; i < values.length; i++) { values[i] = buffer.getFloat(); }
+                break;
+            case Double.BYTES:
+                buffer.asDoubleBuffer().get(values);
+                buffer.position(buffer.position() + values.length * Double.BYTES);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown weight width " + width);
+        }
+        return values;
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string.
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string, advancing the buffer.
+     */
+    public static String readString(ByteBuffer buffer) {
+        int length = readLength(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("String of " + length + " bytes beyond the end of the buffer");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readLength(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length " + length);
+        }
+        return length;
+    }
+
     public static String[] split(String string, char delim) {
         if (string.length() == 0) { return new String[0]; }
         int nitems = 1;
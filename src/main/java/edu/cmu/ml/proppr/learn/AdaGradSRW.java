@@ -46,14 +46,14 @@ package edu.cmu.ml.proppr.learn;
 import edu.cmu.ml.proppr.examples.PosNegRWExample;
 import edu.cmu.ml.proppr.util.SRWOptions;
 import edu.cmu.ml.proppr.util.StatusLogger;
+import edu.cmu.ml.proppr.util.math.DenseParamVector;
 import edu.cmu.ml.proppr.util.math.ParamVector;
-import edu.cmu.ml.proppr.util.math.SimpleParamVector;
 import gnu.trove.iterator.TIntDoubleIterator;
 import gnu.trove.map.TIntDoubleMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
 
 /**
  * The AdaGrad version of SRW (see below for description)
@@ -81,7 +81,8 @@ public class AdaGradSRW extends SRW {
     private static final Logger log = LogManager.getLogger(AdaGradSRW.class);
     private static final double MIN_GRADIENT = Math.sqrt(Double.MIN_VALUE) * 10;
     // This makes AdaGradSRW stateful, but SRW should only ever be used by one thread at a time
-    private ParamVector<String, ?> totSqGrad = null;
+    // indexed by the ids of its own feature table, and shared by the copies
+    private DenseParamVector totSqGrad = null;
 
     public AdaGradSRW() {
         super(new SRWOptions());
@@ -89,7 +90,7 @@ public class AdaGradSRW extends SRW {
 
     public AdaGradSRW(SRWOptions params) {
         super(params);
-        totSqGrad = new SimpleParamVector<String>(new ConcurrentHashMap<String, Double>());
+        totSqGrad = new DenseParamVector();
     }
 
     /**
@@ -117,8 +118,9 @@ public class AdaGradSRW extends SRW {
 
     @Override
     protected double learningRate(String feature) {
-        if (!totSqGrad.containsKey(feature)) { return 0.0; }
-        return c.eta / Math.sqrt(this.totSqGrad.get(feature));
+        Double rt = totSqGrad.get(feature);
+        if (rt == null) { return 0.0; }
+        return c.eta / Math.sqrt(rt);
     }
 
     @Override
@@ -129,7 +131,27 @@ public class AdaGradSRW extends SRW {
     }
 
     public void setTotSqGrad(ParamVector<String, ?> t) {
-        this.totSqGrad = t;
+        this.totSqGrad = t == null || t instanceof DenseParamVector ? (DenseParamVector) t : new DenseParamVector(t);
+    }
+
+    /**
+     * AdaGrad step with a gradient summed over a batch of examples
+     */
+    @Override
+    public void applyGradient(ParamVector<String, ?> params, ParamVector<String, Double> gradient) {
+        for (Map.Entry<String, Double> grad : gradient.entrySet()) {
+            // avoid underflow since we're summing the square
+            if (Math.abs(grad.getValue()) < MIN_GRADIENT) { continue; }
+            String feature = grad.getKey();
+            if (trainable(feature)) {
+                double g = grad.getValue();
+                double rt = totSqGrad.addAndGet(totSqGrad.getFeatureId(feature), g * g);
+                params.adjustValue(feature, -c.eta / Math.sqrt(rt) * g);
+                if (params.get(feature).isInfinite()) {
+                    log.warn("Infinity at " + feature + "; gradient " + g + "; rt " + rt);
+                }
+            }
+        }
     }
 
     /**
@@ -141,6 +163,10 @@ public class AdaGradSRW extends SRW {
      */
     protected void agd(ParamVector<String, ?> params, PosNegRWExample ex) {
         TIntDoubleMap gradient = gradient(params, ex);
+        // the running totals, and dense vectors, are updated by the feature ids of their tables
+        DenseParamVector dense = params instanceof DenseParamVector ? (DenseParamVector) params : null;
+        int[] totalIds = ex.getGraph().getFeatureIds(totSqGrad.getFeatureTable());
+        int[] paramIds = dense != null ? ex.getGraph().getFeatureIds(dense.getFeatureTable()) : null;
         // apply gradient to param vector
         for (TIntDoubleIterator grad = gradient.iterator(); grad.hasNext(); ) {
             grad.advance();
@@ -149,22 +175,22 @@ public class AdaGradSRW extends SRW {
             String feature = ex.getGraph().featureLibrary.getSymbol(grad.key());
 
             if (trainable(feature)) {
-                Double g = grad.value();
-
-                //first update the running total of the square of the gradient
-                totSqGrad.adjustValue(feature, g * g);
-
-                //now get the running total
-//				Double rt = totSqGrad.get(feature);
+                double g = grad.value();
+                //first update the running total of the square of the gradient, and get it
+                double rt = totSqGrad.addAndGet(totalIds[grad.key()], g * g);
 
                 //w_{t+1, i} = w_{t, i} - \eta * g_{t,i} / \sqrt{ G,i }
-
-//				Double descentVal = - c.eta * g / Math.sqrt(rt);
-
-                params.adjustValue(feature, -learningRate(feature) * g);
-
-                if (params.get(feature).isInfinite()) {
-                    log.warn("Infinity at " + feature + "; gradient " + grad.value() + "; rt " + totSqGrad.get(feature));
+                double descentVal = -(c.eta / Math.sqrt(rt)) * g;
+
+                double value;
+                if (dense != null) {
+                    value = dense.addAndGet(paramIds[grad.key()], descentVal);
+                } else {
+                    params.adjustValue(feature, descentVal);
+                    value = params.get(feature);
+                }
+                if (Double.isInfinite(value)) {
+                    log.warn("Infinity at " + feature + "; gradient " + g + "; rt " + rt);
                 }
             }
         }
@@ -0,0 +1,261 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.learn;
+
+import edu.cmu.ml.proppr.examples.PprExample;
+import edu.cmu.ml.proppr.graph.LearningGraph;
+import gnu.trove.iterator.TIntDoubleIterator;
+import gnu.trove.map.TIntDoubleMap;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffers of the power iteration of {@link SRW}, kept by each thread across iterations and examples, so
+ * the propagation of the scores and of their gradients does not allocate once the buffers are large enough.
+ * <p>
+ * The scores are kept in two ping-pong arrays. The gradients are kept in two ping-pong compressed rows, one row of
+ * (feature, value) pairs per node, which are built by pulling the contributions of the incoming edges of each node
+ * into a sparse accumulator indexed by feature.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class InferenceWorkspace {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Number of nodes of the current example.
+     */
+    public int nodes;
+    /**
+     * Scores of the current and of the next iteration, and the start vector.
+     */
+    public double[] p = new double[INITIAL_CAPACITY];
+    public double[] pNext = new double[INITIAL_CAPACITY];
+    public double[] seed = new double[INITIAL_CAPACITY];
+    /**
+     * Gradient rows of the current and of the next iteration: the row of node u is in
+     * [dStart[u], dStart[u + 1]) of the feature and value arrays.
+     */
+    public int[] dStart = new int[INITIAL_CAPACITY + 1];
+    public int[] dFeature = new int[INITIAL_CAPACITY];
+    public double[] dValue = new double[INITIAL_CAPACITY];
+    public int[] dNextStart = new int[INITIAL_CAPACITY + 1];
+    public int[] dNextFeature = new int[INITIAL_CAPACITY];
+    public double[] dNextValue = new double[INITIAL_CAPACITY];
+    /**
+     * Incoming edges of node v, sorted by source node, are inEdge[inStart[v]] to inEdge[inStart[v + 1] - 1];
+     * edgeSource holds the source node of each edge.
+     */
+    public int[] inStart = new int[INITIAL_CAPACITY + 1];
+    public int[] inEdge = new int[INITIAL_CAPACITY];
+    public int[] edgeSource = new int[INITIAL_CAPACITY];
+    /**
+     * Sparse accumulator: the value of each feature, the stamp of the last row that touched it, and the features
+     * touched by the current row, in order.
+     */
+    public double[] accumulator = new double[INITIAL_CAPACITY];
+    public int[] stamp = new int[INITIAL_CAPACITY];
+    public int[] touched = new int[INITIAL_CAPACITY];
+    public int touchedSize;
+    private int currentStamp;
+
+    /**
+     * Prepares the workspace for the example: sizes the buffers, indexes the incoming edges, copies the start vector
+     * and clears the scores and gradients.
+     *
+     * @param ex the example
+     */
+    public void prepare(PprExample ex) {
+        LearningGraph graph = ex.getGraph();
+        nodes = graph.node_hi;
+        int edges = graph.node_hi > 0 ? graph.node_near_hi[graph.node_hi - 1] : 0;
+        if (p.length < nodes) {
+            int capacity = Math.max(nodes, p.length * 2);
+            p = new double[capacity];
+            pNext = new double[capacity];
+            seed = new double[capacity];
+            dStart = new int[capacity + 1];
+            dNextStart = new int[capacity + 1];
+            inStart = new int[capacity + 1];
+        }
+        if (inEdge.length < edges) {
+            int capacity = Math.max(edges, inEdge.length * 2);
+            inEdge = new int[capacity];
+            edgeSource = new int[capacity];
+        }
+        int features = graph.featureLibrary.size() + 1;
+        if (accumulator.length < features) {
+            int capacity = Math.max(features, accumulator.length * 2);
+            accumulator = new double[capacity];
+            stamp = new int[capacity];
+            touched = new int[capacity];
+            currentStamp = 0;
+        }
+
+        Arrays.fill(p, 0, nodes, 0.0);
+        Arrays.fill(seed, 0, nodes, 0.0);
+        for (TIntDoubleIterator it = ex.getQueryVec().iterator(); it.hasNext(); ) {
+            it.advance();
+            seed[it.key()] = it.value();
+            p[it.key()] = it.value();
+        }
+        Arrays.fill(dStart, 0, nodes + 1, 0);
+        indexIncomingEdges(graph);
+        dNextStart[0] = 0;
+    }
+
+    /**
+     * Counting sort of the edges by destination; the edges are visited in order of source node, so each list of
+     * incoming edges keeps that order.
+     */
+    private void indexIncomingEdges(LearningGraph graph) {
+        Arrays.fill(inStart, 0, nodes + 1, 0);
+        for (int u = 0; u < nodes; u++) {
+            for (int eid = graph.node_near_lo[u]; eid < graph.node_near_hi[u]; eid++) {
+                edgeSource[eid] = u;
+                inStart[graph.edge_dest[eid] + 1]++;
+            }
+        }
+        for (int v = 0; v < nodes; v++) { inStart[v + 1] += inStart[v]; }
+        // uses dNextStart as the insertion cursor of each node
+        System.arraycopy(inStart, 0, dNextStart, 0, nodes);
+        for (int u = 0; u < nodes; u++) {
+            for (int eid = graph.node_near_lo[u]; eid < graph.node_near_hi[u]; eid++) {
+                inEdge[dNextStart[graph.edge_dest[eid]]++] = eid;
+            }
+        }
+    }
+
+    /**
+     * Starts the accumulation of a new row.
+     */
+    public void startRow() {
+        touchedSize = 0;
+        if (++currentStamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            currentStamp = 1;
+        }
+    }
+
+    /**
+     * Adds the value to the feature of the current row.
+     *
+     * @param feature the feature
+     * @param value   the value
+     */
+    public void accumulate(int feature, double value) {
+        if (stamp[feature] != currentStamp) {
+            stamp[feature] = currentStamp;
+            accumulator[feature] = value;
+            touched[touchedSize++] = feature;
+        } else {
+            accumulator[feature] += value;
+        }
+    }
+
+    /**
+     * Writes the accumulated row as the next gradient of the node; rows must be written in order of node.
+     *
+     * @param v the node
+     */
+    public void emitRow(int v) {
+        int start = dNextStart[v];
+        int end = start + touchedSize;
+        if (dNextFeature.length < end) {
+            int capacity = Math.max(end, dNextFeature.length * 2);
+            dNextFeature = Arrays.copyOf(dNextFeature, capacity);
+            dNextValue = Arrays.copyOf(dNextValue, capacity);
+        }
+        for (int i = 0; i < touchedSize; i++) {
+            dNextFeature[start + i] = touched[i];
+            dNextValue[start + i] = accumulator[touched[i]];
+        }
+        dNextStart[v + 1] = end;
+    }
+
+    /**
+     * Makes the next scores and gradients the current ones.
+     */
+    public void swap() {
+        double[] swapP = p;
+        p = pNext;
+        pNext = swapP;
+        int[] swapStart = dStart;
+        dStart = dNextStart;
+        dNextStart = swapStart;
+        int[] swapFeature = dFeature;
+        dFeature = dNextFeature;
+        dNextFeature = swapFeature;
+        double[] swapValue = dValue;
+        dValue = dNextValue;
+        dNextValue = swapValue;
+    }
+
+    /**
+     * Stores the scores and gradients in the example. Only the nodes with incoming edges get a gradient, and only
+     * after at least one iteration.
+     *
+     * @param ex         the example
+     * @param iterations the number of iterations run
+     */
+    public void store(PprExample ex, int iterations) {
+        if (ex.p == null || ex.p.length != nodes) { ex.p = new double[nodes]; }
+        System.arraycopy(p, 0, ex.p, 0, nodes);
+        if (ex.dp == null || ex.dp.length != nodes) { ex.dp = new TIntDoubleMap[nodes]; }
+        for (int v = 0; v < nodes; v++) {
+            if (iterations == 0 || inStart[v] == inStart[v + 1]) {
+                ex.dp[v] = null;
+                continue;
+            }
+            TIntDoubleMap row = new TIntDoubleHashMap(Math.max(dStart[v + 1] - dStart[v], 1));
+            for (int i = dStart[v]; i < dStart[v + 1]; i++) { row.put(dFeature[i], dValue[i]); }
+            ex.dp[v] = row;
+        }
+    }
+
+}
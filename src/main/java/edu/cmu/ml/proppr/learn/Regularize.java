@@ -76,6 +76,18 @@ public class Regularize {
                               ParamVector<String, ?> apply, String f, LossData loss, double learningRate) {
     }
 
+    /**
+     * This is a sparse lazy update: the closed form of gap
+     * regularization updates of a feature, returned as the adjustment
+     * to its value. Used by {@link SparseLazyRegularizationSchedule},
+     * which works with any parameter vector. Override to provide a
+     * particular regularization function.
+     */
+    protected double lazyDecay(SRWOptions c, ParamVector<String, ?> params, String f, int gap, LossData loss,
+                               double learningRate) {
+        return 0;
+    }
+
     /**
      * Utility function to avoid race conditions that put lazy
      * regularization in an invalid state.
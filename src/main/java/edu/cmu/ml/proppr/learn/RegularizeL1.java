@@ -115,4 +115,17 @@ public class RegularizeL1 extends Regularize {
             loss.add(LOSS.REGULARIZATION, gap * c.mu * Math.abs(value));
         }
     }
+
+    /**
+     * The proximal operator of g updates: takes at most g * learningRate * mu off the value of theta, towards zero.
+     */
+    @Override
+    protected double lazyDecay(SRWOptions c, ParamVector<String, ?> params, String f, int gap, LossData loss,
+                               double learningRate) {
+        double shrinkageVal = gap * learningRate * c.mu;
+        if (c.mu == 0 || Double.isInfinite(shrinkageVal)) { return 0; }
+        double value = Dictionary.safeGet(params, f);
+        loss.add(LOSS.REGULARIZATION, gap * c.mu * Math.abs(value));
+        return -Math.signum(value) * Math.min(Math.abs(value), shrinkageVal);
+    }
 }
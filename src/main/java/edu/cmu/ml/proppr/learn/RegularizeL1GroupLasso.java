@@ -101,4 +101,44 @@ public class RegularizeL1GroupLasso extends RegularizeL1 {
         }
         loss.add(LOSS.REGULARIZATION, gap * c.mu);
     }
+
+    /**
+     * The closed form of g updates of {@link #lazyUpdate(SRWOptions, MuParamVector, ParamVector, String, LossData,
+     * double)}: the group lasso term, taken from the values of the group when the feature is caught up, and then the
+     * proximal operator of L1, over the value shrunk by the group term.
+     */
+    @Override
+    protected double lazyDecay(SRWOptions c, ParamVector<String, ?> params, String f, int gap, LossData loss,
+                               double learningRate) {
+        double value = Dictionary.safeGet(params, f);
+        double decayed = value;
+
+        double sumofsquares = 0;
+        String target = "#" + f;
+        if (c.diagonalDegree.containsKey(target)) {
+            sumofsquares = value * value;
+            for (String s : c.affinity.get(target)) {
+                double svalue = Dictionary.safeGet(params, s);
+                sumofsquares = sumofsquares + svalue * svalue;
+            }
+        }
+
+        //Group Lasso
+        if (c.zeta != 0) {
+            double grouplasso = 0.5 * Math.pow(sumofsquares, -0.5);
+            if (!Double.isInfinite(grouplasso)) {
+                double shrinkageVal = gap * learningRate * c.zeta * grouplasso;
+                decayed = Math.signum(decayed) * Math.max(0.0, Math.abs(decayed) - shrinkageVal);
+                loss.add(LOSS.REGULARIZATION, shrinkageVal);
+            }
+        }
+
+        //L1 with a proximal operator
+        double shrinkageVal = gap * learningRate * c.mu;
+        if ((c.mu != 0) && (!Double.isInfinite(shrinkageVal))) {
+            decayed = Math.signum(decayed) * Math.max(0.0, Math.abs(decayed) - shrinkageVal);
+        }
+        loss.add(LOSS.REGULARIZATION, gap * c.mu);
+        return decayed - value;
+    }
 }
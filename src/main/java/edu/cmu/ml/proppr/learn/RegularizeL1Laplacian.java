@@ -97,4 +97,38 @@ public class RegularizeL1Laplacian extends RegularizeL1 {
             loss.add(LOSS.REGULARIZATION, gap * c.mu);
         }
     }
+
+    /**
+     * The closed form of g updates of {@link #lazyUpdate(SRWOptions, MuParamVector, ParamVector, String, LossData,
+     * double)}: the laplacian term, taken from the values of the neighbours when the feature is caught up, and then
+     * the proximal operator of L1, over the value moved by the laplacian term.
+     */
+    @Override
+    protected double lazyDecay(SRWOptions c, ParamVector<String, ?> params, String f, int gap, LossData loss,
+                               double learningRate) {
+        double value = Dictionary.safeGet(params, f);
+
+        double laplacian = 0;
+        String target = "#" + f;
+        if (c.diagonalDegree.containsKey(target)) {
+            double negativeSum = 0;
+            for (String s : c.affinity.get(target)) {
+                negativeSum -= Dictionary.safeGet(params, s);
+            }
+            laplacian = c.diagonalDegree.get(target) * value + negativeSum;
+        }
+
+        //Laplacian
+        double powerTerm = Math.pow(1 - 2 * c.zeta * learningRate * laplacian, gap);
+        double decayed = value + laplacian * (powerTerm - 1);
+        loss.add(LOSS.REGULARIZATION, gap * c.zeta * Math.pow(value, 2));
+
+        //L1 with a proximal operator
+        double shrinkageVal = gap * learningRate * c.mu;
+        if ((c.mu != 0) && (!Double.isInfinite(shrinkageVal))) {
+            decayed = Math.signum(decayed) * Math.max(0.0, Math.abs(decayed) - shrinkageVal);
+            loss.add(LOSS.REGULARIZATION, gap * c.mu);
+        }
+        return decayed - value;
+    }
 }
@@ -109,14 +109,19 @@ public class RegularizeL2 extends Regularize {
                               String f, LossData loss, double learningRate) {
         int gap = getGap(params, f);
         if (gap == 0) { return; }
+        //FIXME: opportunity for out-of-date `value`; probably ought to convert to a try loop
+        apply.adjustValue(f, lazyDecay(c, params, f, gap, loss, learningRate));
+    }
 
+    @Override
+    protected double lazyDecay(SRWOptions c, ParamVector<String, ?> params, String f, int gap, LossData loss,
+                               double learningRate) {
         double value = Dictionary.safeGet(params, f);
         double powerTerm = Math.pow(1 - 2 * c.mu * learningRate, gap);
         double weightDecay = value * (powerTerm - 1);
-        //FIXME: opportunity for out-of-date `value`; probably ought to convert to a try loop
         if (log.isDebugEnabled()) { log.debug("Regularizing " + f + " += " + -weightDecay); }
         double l2loss = gap * c.mu * Math.pow(value, 2);
         loss.add(LOSS.REGULARIZATION, l2loss);
-        apply.adjustValue(f, weightDecay);
+        return weightDecay;
     }
 }
@@ -51,9 +51,9 @@ import edu.cmu.ml.proppr.learn.tools.FixedWeightRules;
 import edu.cmu.ml.proppr.learn.tools.LossData;
 import edu.cmu.ml.proppr.learn.tools.LossData.LOSS;
 import edu.cmu.ml.proppr.learn.tools.SquashingFunction;
-import edu.cmu.ml.proppr.util.Dictionary;
 import edu.cmu.ml.proppr.util.SRWOptions;
 import edu.cmu.ml.proppr.util.StatusLogger;
+import edu.cmu.ml.proppr.util.math.DenseParamVector;
 import edu.cmu.ml.proppr.util.math.ParamVector;
 import edu.cmu.ml.proppr.util.math.SimpleParamVector;
 import gnu.trove.iterator.TIntDoubleIterator;
@@ -92,6 +92,7 @@ public class SRW {
     private static final Logger log = LogManager.getLogger(SRW.class);
     private static final int MAX_ZERO_LOGS = 10;
     private static final Random random = new Random();
+    private static final ThreadLocal<InferenceWorkspace> workspaces = ThreadLocal.withInitial(InferenceWorkspace::new);
     protected FixedWeightRules fixedWeightRules;
     //	protected Set<String> untrainedFeatures;
     protected int epoch;
@@ -200,6 +201,9 @@ public class SRW {
     protected void load(ParamVector<String, ?> params, PosNegRWExample example) {
         PprExample ex = (PprExample) example;
         int dM_cursor = 0;
+        // dense vectors are read by the feature ids of their table, without resolving the feature names
+        DenseParamVector dense = params instanceof DenseParamVector ? (DenseParamVector) params : null;
+        int[] tableIds = dense != null ? ex.getGraph().getFeatureIds(dense.getFeatureTable()) : null;
         for (int uid = 0; uid < ex.getGraph().node_hi; uid++) {
             // (a); (b): initialization
             double tu = 0;
@@ -214,9 +218,10 @@ public class SRW {
                 // i. s_{uv} = w * phi_{uv}, a scalar:
                 suv[xvi] = 0;
                 for (int lid = ex.getGraph().edge_labels_lo[eid]; lid < ex.getGraph().edge_labels_hi[eid]; lid++) {
-                    suv[xvi] += params.get(ex.getGraph().featureLibrary.getSymbol(ex.getGraph()
-                                                                                          .label_feature_id[lid])) *
-                            ex.getGraph().label_feature_weight[lid];
+                    int fid = ex.getGraph().label_feature_id[lid];
+                    double w = dense != null ? dense.getValue(tableIds[fid]) :
+                            params.get(ex.getGraph().featureLibrary.getSymbol(fid));
+                    suv[xvi] += w * ex.getGraph().label_feature_weight[lid];
                 }
                 // ii. t_u += f(s_{uv}), a scalar:
                 tu += c.squashingFunction.edgeWeight(suv[xvi]);
@@ -291,20 +296,15 @@ public class SRW {
      * @param params
      */
     protected void inference(ParamVector<String, ?> params, PosNegRWExample example, StatusLogger status) {
-        PosNegRWExample ex = example;
-        ex.p = new double[ex.getGraph().node_hi];
-        ex.dp = new TIntDoubleMap[ex.getGraph().node_hi];
-        Arrays.fill(ex.p, 0.0);
+        PprExample ex = (PprExample) example;
+        InferenceWorkspace workspace = workspaces.get();
         // copy query into p
-        for (TIntDoubleIterator it = ex.getQueryVec().iterator(); it.hasNext(); ) {
-            it.advance();
-            ex.p[it.key()] = it.value();
-        }
+        workspace.prepare(ex);
         for (int i = 0; i < c.apr.maxDepth; i++) {
             if (log.isInfoEnabled() && status.due(3)) { log.info("APR: iter " + (i + 1) + " of " + (c.apr.maxDepth)); }
-            inferenceUpdate(ex, status);
+            inferenceUpdate(ex, workspace, status);
         }
-
+        workspace.store(ex, c.apr.maxDepth);
     }
 
     /**
@@ -312,14 +312,26 @@ public class SRW {
      */
     protected void sgd(ParamVector<String, ?> params, PosNegRWExample ex) {
         TIntDoubleMap gradient = gradient(params, ex);
+        // dense vectors are updated by the feature ids of their table, after the gradient may have added features to
+        // the graph
+        DenseParamVector dense = params instanceof DenseParamVector ? (DenseParamVector) params : null;
+        int[] tableIds = dense != null ? ex.getGraph().getFeatureIds(dense.getFeatureTable()) : null;
         // apply gradient to param vector
         for (TIntDoubleIterator grad = gradient.iterator(); grad.hasNext(); ) {
             grad.advance();
             if (grad.value() == 0) { continue; }
             String feature = ex.getGraph().featureLibrary.getSymbol(grad.key());
             if (trainable(feature)) {
-                params.adjustValue(feature, -learningRate(feature) * grad.value());
-                if (params.get(feature).isInfinite()) {
+                double value;
+                if (dense != null) {
+                    int id = tableIds[grad.key()];
+                    dense.adjustValue(id, -learningRate(feature) * grad.value());
+                    value = dense.getValue(id);
+                } else {
+                    params.adjustValue(feature, -learningRate(feature) * grad.value());
+                    value = params.get(feature);
+                }
+                if (Double.isInfinite(value)) {
                     log.warn("Infinity at " + feature + "; gradient " + grad.value());
                 }
             }
@@ -331,56 +343,66 @@ public class SRW {
         return !fixedWeightRules.isFixed(feature);
     }
 
-    protected void inferenceUpdate(PosNegRWExample example, StatusLogger status) {
-        PprExample ex = (PprExample) example;
-        double[] pNext = new double[ex.getGraph().node_hi];
-        TIntDoubleMap[] dNext = new TIntDoubleMap[ex.getGraph().node_hi];
+    /**
+     * one step of the power iteration over the buffers of the workspace, which does not allocate once they are large
+     * enough
+     */
+    protected void inferenceUpdate(PprExample ex, InferenceWorkspace workspace, StatusLogger status) {
+        LearningGraph graph = ex.getGraph();
+        double[] p = workspace.p;
+        double[] pNext = workspace.pNext;
+        Arrays.fill(pNext, 0, workspace.nodes, 0.0);
         // p: 2. for each node u
-        for (int uid = 0; uid < ex.getGraph().node_hi; uid++) {
+        for (int uid = 0; uid < graph.node_hi; uid++) {
             if (log.isInfoEnabled() && status.due(4)) {
-                log.info("Inference: node " + (uid + 1) + " of " + (ex.getGraph().node_hi));
+                log.info("Inference: node " + (uid + 1) + " of " + (graph.node_hi));
             }
             // p: 2(a) p_u^{t+1} += alpha * s_u
-            pNext[uid] += c.apr.alpha * Dictionary.safeGet(ex.getQueryVec(), uid, 0.0);
+            pNext[uid] += c.apr.alpha * workspace.seed[uid];
             // p: 2(b) for each neighbor v of u:
-            for (int eid = ex.getGraph().node_near_lo[uid], xvi = 0; eid < ex.getGraph().node_near_hi[uid]; eid++,
-                    xvi++) {
-                int vid = ex.getGraph().edge_dest[eid];
+            for (int eid = graph.node_near_lo[uid], xvi = 0; eid < graph.node_near_hi[uid]; eid++, xvi++) {
+                int vid = graph.edge_dest[eid];
                 // p: 2(b)i. p_v^{t+1} += (1-alpha) * p_u^t * M_uv
-                if (vid >= pNext.length) {
-                    throw new IllegalStateException("vid=" + vid + " > pNext.length=" + pNext.length);
+                if (vid >= graph.node_hi) {
+                    throw new IllegalStateException("vid=" + vid + " > pNext.length=" + graph.node_hi);
                 }
-                pNext[vid] += (1 - c.apr.alpha) * ex.p[uid] * ex.M[uid][xvi];
+                pNext[vid] += (1 - c.apr.alpha) * p[uid] * ex.M[uid][xvi];
+            }
+        }
+
+        // d: pulls the contributions of the incoming edges (u, v) of each node v, in order of u
+        int[] dStart = workspace.dStart;
+        int[] dFeature = workspace.dFeature;
+        double[] dValue = workspace.dValue;
+        for (int vid = 0; vid < graph.node_hi; vid++) {
+            workspace.startRow();
+            for (int in = workspace.inStart[vid]; in < workspace.inStart[vid + 1]; in++) {
+                int eid = workspace.inEdge[in];
+                int uid = workspace.edgeSource[eid];
+                int xvi = eid - graph.node_near_lo[uid];
                 // d: i. for each feature i in dM_uv:
-                if (dNext[vid] == null) { dNext[vid] = new TIntDoubleHashMap(ex.dM_hi[uid][xvi] - ex.dM_lo[uid][xvi]); }
                 for (int dmi = ex.dM_lo[uid][xvi]; dmi < ex.dM_hi[uid][xvi]; dmi++) {
                     // d_vi^{t+1} += (1-alpha) * p_u^{t} * dM_uvi
                     if (ex.dM_value[dmi] == 0) { continue; }
-                    double inc = (1 - c.apr.alpha) * ex.p[uid] * ex.dM_value[dmi];
-                    dNext[vid].adjustOrPutValue(ex.dM_feature_id[dmi], inc, inc);
+                    workspace.accumulate(ex.dM_feature_id[dmi], (1 - c.apr.alpha) * p[uid] * ex.dM_value[dmi]);
                 }
                 // d: ii. for each feature i in d_u^t
-                if (ex.dp[uid] == null) {
-                    continue; // skip when d is empty
-                }
-                for (TIntDoubleIterator it = ex.dp[uid].iterator(); it.hasNext(); ) {
-                    it.advance();
-                    if (it.value() == 0) { continue; }
+                for (int di = dStart[uid]; di < dStart[uid + 1]; di++) {
+                    if (dValue[di] == 0) { continue; }
                     // d_vi^{t+1} += (1-alpha) * d_ui^t * M_uv
-                    double inc = (1 - c.apr.alpha) * it.value() * ex.M[uid][xvi];
-                    dNext[vid].adjustOrPutValue(it.key(), inc, inc);
+                    workspace.accumulate(dFeature[di], (1 - c.apr.alpha) * dValue[di] * ex.M[uid][xvi]);
                 }
             }
+            workspace.emitRow(vid);
         }
 
         // sanity check on p
         if (log.isDebugEnabled()) {
             double sum = 0;
-            for (double d : pNext) { sum += d; }
+            for (int uid = 0; uid < graph.node_hi; uid++) { sum += pNext[uid]; }
             if (Math.abs(sum - 1.0) > c.apr.epsilon) { log.error("invalid p computed: " + sum); }
         }
-        ex.p = pNext;
-        ex.dp = dNext;
+        workspace.swap();
     }
 
     protected TIntDoubleMap gradient(ParamVector<String, ?> params, PosNegRWExample example) {
@@ -416,6 +438,15 @@ public class SRW {
 
     public void accumulateGradient(ParamVector<String, ?> params, PosNegRWExample example,
                                    ParamVector<String, ?> accumulator, StatusLogger status) {
+        accumulateGradient(params, example, accumulator, status, example.length());
+    }
+
+    /**
+     * adds the gradient of the example, divided by the normalizer, to the accumulator, without editing params other
+     * than initializing the features of the example
+     */
+    public void accumulateGradient(ParamVector<String, ?> params, PosNegRWExample example,
+                                   ParamVector<String, ?> accumulator, StatusLogger status, double normalizer) {
         log.debug("Gradient calculating on " + example);
 
         initializeFeatures(params, example.getGraph());
@@ -426,14 +457,29 @@ public class SRW {
         TIntDoubleMap gradient = gradient(params, example);
 
         for (Map.Entry<String, Double> e : prepare.entrySet()) {
-            if (trainable(e.getKey())) { accumulator.adjustValue(e.getKey(), -e.getValue() / example.length()); }
+            if (trainable(e.getKey())) { accumulator.adjustValue(e.getKey(), -e.getValue() / normalizer); }
         }
         for (TIntDoubleIterator it = gradient.iterator(); it.hasNext(); ) {
             it.advance();
             String feature = example.getGraph().featureLibrary.getSymbol(it.key());
             if (trainable(feature)) {
-                accumulator.adjustValue(example.getGraph().featureLibrary.getSymbol(it.key()), it.value() / example
-                        .length());
+                accumulator.adjustValue(example.getGraph().featureLibrary.getSymbol(it.key()), it.value() / normalizer);
+            }
+        }
+    }
+
+    /**
+     * edits params by a gradient summed over a batch of examples, as a single step
+     */
+    public void applyGradient(ParamVector<String, ?> params, ParamVector<String, Double> gradient) {
+        for (Map.Entry<String, Double> grad : gradient.entrySet()) {
+            if (grad.getValue() == 0) { continue; }
+            String feature = grad.getKey();
+            if (trainable(feature)) {
+                params.adjustValue(feature, -learningRate(feature) * grad.getValue());
+                if (Double.isInfinite(params.get(feature))) {
+                    log.warn("Infinity at " + feature + "; gradient " + grad.getValue());
+                }
             }
         }
     }
@@ -0,0 +1,215 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.learn;
+
+import edu.cmu.ml.proppr.examples.RWExample;
+import edu.cmu.ml.proppr.graph.LearningGraph;
+import edu.cmu.ml.proppr.util.ConcurrentSymbolTable;
+import edu.cmu.ml.proppr.util.SymbolTable;
+import edu.cmu.ml.proppr.util.math.DenseParamVector;
+import edu.cmu.ml.proppr.util.math.ParamVector;
+import gnu.trove.map.TIntDoubleMap;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Sparse lazy ("just-in-time") regularization.
+ * <p>
+ * Each example is a step of the schedule. Instead of regularizing every feature at every step, the schedule
+ * records, by the id of the feature in the table of the {@link DenseParamVector} (or in a table of its own, for other
+ * parameter vectors), the last step in which the feature was
+ * regularized; and applies the closed form of the skipped steps, given by
+ * {@link Regularize#lazyDecay(edu.cmu.ml.proppr.util.SRWOptions, ParamVector, String, int,
+ * edu.cmu.ml.proppr.learn.tools.LossData, double)}, only when the feature is touched by an example, or at the end of
+ * the epoch, when the learning rate changes. So the cost of each example is proportional to the features of its
+ * graph, instead of to all the features.
+ * <p>
+ * Unlike {@link LocalRegularizationSchedule}, it works with any parameter vector. The steps are shared by the copies
+ * of the schedule of the learners of a trainer.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class SparseLazyRegularizationSchedule extends RegularizationSchedule {
+
+    protected final Steps steps;
+
+    public SparseLazyRegularizationSchedule(SRW srw, Regularize r) {
+        this(srw, r, new Steps());
+    }
+
+    protected SparseLazyRegularizationSchedule(SRW srw, Regularize r, Steps steps) {
+        super(srw, r);
+        this.steps = steps;
+    }
+
+    @Override
+    public void regularization(ParamVector<String, ?> params, RWExample ex, TIntDoubleMap gradient) {
+        // the regularization was already applied, lazily, by prepareForExample
+    }
+
+    @Override
+    public Set<String> localFeatures(ParamVector<String, ?> paramVec, LearningGraph graph) {
+        return graph.getFeatureSet();
+    }
+
+    /**
+     * Restarts the steps, taking the features already in the parameters as regularized up to now.
+     */
+    @Override
+    public ParamVector<String, ?> setupParams(ParamVector<String, ?> params) {
+        steps.reset(params instanceof DenseParamVector ? ((DenseParamVector) params).getFeatureTable() :
+                            new ConcurrentSymbolTable<>());
+        for (String f : params.keySet()) { steps.advance(steps.featureTable.getId(f)); }
+        return params;
+    }
+
+    /**
+     * Starts a new step, and catches up the regularization of the features of the graph.
+     */
+    @Override
+    public void prepareForExample(ParamVector<String, ?> params, LearningGraph graph, ParamVector<String, ?> apply) {
+        int[] tableIds = graph.getFeatureIds(steps.featureTable);
+        steps.tick();
+        for (int localId : graph.label_feature_id) {
+            int gap = steps.advance(tableIds[localId]);
+            if (gap == 0) { continue; }
+            String f = graph.featureLibrary.getSymbol(localId);
+            if (!parent.trainable(f)) { continue; }
+            apply.adjustValue(f, reg.lazyDecay(parent.c, params, f, gap, parent._cumulativeLoss(),
+                                               parent.learningRate(f)));
+        }
+    }
+
+    /**
+     * Catches up the regularization of all the features, at the end of the epoch.
+     */
+    @Override
+    public void cleanupParams(ParamVector<String, ?> params, ParamVector<String, ?> apply) {
+        for (String f : params.keySet()) {
+            int gap = steps.advance(steps.featureTable.getId(f));
+            if (gap == 0 || !parent.trainable(f)) { continue; }
+            apply.adjustValue(f, reg.lazyDecay(parent.c, params, f, gap, parent._cumulativeLoss(),
+                                               parent.learningRate(f)));
+        }
+    }
+
+    @Override
+    public RegularizationSchedule copy(SRW srw) {
+        return new SparseLazyRegularizationSchedule(srw, this.reg, this.steps);
+    }
+
+    /**
+     * The current step, and the last step in which each feature was regularized, by the id of the feature.
+     * <p>
+     * The clock and the steps of the features are atomic, so the learners of a trainer tick and advance them without
+     * locking. The steps are kept in fixed-size chunks, allocated on the first use of their range of ids and never
+     * reallocated, so a step written while the steps grow is not lost.
+     */
+    protected static class Steps {
+
+        private static final int CHUNK_BITS = 10;
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        // the table of the ids of the features
+        private volatile SymbolTable<String> featureTable = new ConcurrentSymbolTable<>();
+        private final AtomicInteger current = new AtomicInteger();
+        // the last step plus one, so 0 means a feature that was not seen since the reset
+        private volatile AtomicIntegerArray[] last = new AtomicIntegerArray[0];
+
+        /**
+         * Restarts the steps, with the ids of the feature table. It must not be called while the steps are in use.
+         *
+         * @param featureTable the feature table
+         */
+        public synchronized void reset(SymbolTable<String> featureTable) {
+            this.featureTable = featureTable;
+            current.set(0);
+            last = new AtomicIntegerArray[0];
+        }
+
+        public void tick() {
+            current.incrementAndGet();
+        }
+
+        /**
+         * Marks the feature as regularized up to the current step.
+         *
+         * @param id the id of the feature
+         * @return the number of steps skipped since the feature was last regularized; or 1, if it was not seen since
+         * the reset, since it is a new feature
+         */
+        public int advance(int id) {
+            int step = current.get();
+            int previous = chunk(id).getAndSet(id & CHUNK_MASK, step + 1);
+            return previous == 0 ? 1 : step - (previous - 1);
+        }
+
+        /**
+         * Gets the chunk holding the id, allocating it if needed.
+         *
+         * @param id the id
+         * @return the chunk
+         */
+        private AtomicIntegerArray chunk(int id) {
+            AtomicIntegerArray[] chunks = last;
+            int index = id >>> CHUNK_BITS;
+            if (index < chunks.length && chunks[index] != null) { return chunks[index]; }
+            return grow(index);
+        }
+
+        private synchronized AtomicIntegerArray grow(int index) {
+            AtomicIntegerArray[] chunks = last;
+            if (index >= chunks.length) { chunks = Arrays.copyOf(chunks, Math.max(index + 1, chunks.length * 2)); }
+            if (chunks[index] == null) { chunks[index] = new AtomicIntegerArray(CHUNK_SIZE); }
+            last = chunks;
+            return chunks[index];
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.learn.tools;
+
+import edu.cmu.ml.proppr.Grounder;
+import edu.cmu.ml.proppr.examples.PosNegRWExample;
+import edu.cmu.ml.proppr.graph.ArrayLearningGraphBuilder;
+import edu.cmu.ml.proppr.graph.GraphFormatException;
+import edu.cmu.ml.proppr.graph.LearningGraphBuilder;
+import edu.cmu.ml.proppr.learn.SRW;
+import edu.cmu.ml.proppr.util.ParsedFile;
+import edu.cmu.ml.proppr.util.SimpleSymbolTable;
+import edu.cmu.ml.proppr.util.SymbolTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A file of grounded examples in binary format: a header followed by length-prefixed records, each one written by
+ * {@link PosNegRWExample#serialize(DataOutput)} and read back by
+ * {@link RWExampleParser#parse(ByteBuffer, LearningGraphBuilder, SRW)}.
+ * <p>
+ * The file is memory-mapped, and iterating over it gives a read-only view of each record, without reading the file
+ * into the heap nor parsing any text.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class BinaryRWExampleFile implements Iterable<ByteBuffer> {
+
+    /**
+     * The magic number of the files: "PPRB".
+     */
+    public static final int MAGIC = 0x50505242;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final Logger log = LogManager.getLogger(BinaryRWExampleFile.class);
+    private static final long WINDOW_SIZE = Integer.MAX_VALUE;
+
+    private final File file;
+    private final long size;
+
+    public BinaryRWExampleFile(File file) throws IOException {
+        if (!isBinary(file)) { throw new IOException("Not a binary grounded file: " + file); }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readInt();
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported version " + version + " of binary grounded file: " + file);
+            }
+        }
+        this.file = file;
+        this.size = file.length();
+    }
+
+    /**
+     * Checks if the file starts with the header of the binary format.
+     *
+     * @param file the file
+     * @return {@code true} if it is a binary grounded file
+     */
+    public static boolean isBinary(File file) {
+        if (!file.isFile() || file.length() < HEADER_SIZE) { return false; }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Converts a grounded file from the text format to the binary one. If there is a feature index next to the text
+     * file, it is copied next to the binary file, since graphs that refer to the master feature index are written
+     * without their features.
+     *
+     * @param args the text grounded file and the binary file to write
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryRWExampleFile <text grounded file> <binary grounded file>");
+            System.exit(-1);
+        }
+        try {
+            File text = new File(args[0]);
+            File binary = new File(args[1]);
+            long start = System.currentTimeMillis();
+            int count = convert(text, binary);
+            log.info("Converted " + count + " examples in " + (System.currentTimeMillis() - start) + " ms: " +
+                             text.length() + " bytes of text to " + binary.length() + " bytes");
+        } catch (Throwable t) {
+            t.printStackTrace();
+            System.exit(-1);
+        }
+    }
+
+    /**
+     * Converts a grounded file from the text format to the binary one, using the feature index next to the text file,
+     * if any. The feature index is copied next to the binary file, unless both files are the same, in which case the
+     * text file is replaced by the binary one.
+     *
+     * @param text   the text grounded file
+     * @param binary the binary file to write
+     * @return the number of converted examples
+     * @throws IOException          if an error occurs when reading or writing the files
+     * @throws GraphFormatException if a grounded example is malformed
+     */
+    public static int convert(File text, File binary) throws IOException, GraphFormatException {
+        File featureIndex = new File(text.getPath() + Grounder.FEATURE_INDEX_EXTENSION);
+        SymbolTable<String> masterFeatures = new SimpleSymbolTable<String>();
+        if (featureIndex.exists()) {
+            ParsedFile features = new ParsedFile(featureIndex);
+            for (String line : features) { masterFeatures.insert(line.trim()); }
+            features.close();
+        }
+        boolean inPlace = text.getAbsoluteFile().equals(binary.getAbsoluteFile());
+        File output = inPlace ? File.createTempFile(binary.getName(), null, binary.getAbsoluteFile().getParentFile())
+                : binary;
+        ParsedFile examples = new ParsedFile(text);
+        int count;
+        try {
+            count = convert(masterFeatures, examples, output);
+        } catch (IOException | GraphFormatException | RuntimeException e) {
+            if (inPlace) { output.delete(); }
+            throw e;
+        } finally {
+            examples.close();
+        }
+        if (inPlace) {
+            Files.move(output.toPath(), binary.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else if (featureIndex.exists()) {
+            Files.copy(featureIndex.toPath(), new File(binary.getPath() + Grounder.FEATURE_INDEX_EXTENSION).toPath(),
+                       StandardCopyOption.REPLACE_EXISTING);
+        }
+        return count;
+    }
+
+    /**
+     * Converts grounded examples from the text format to a binary file.
+     *
+     * @param masterFeatures the master feature index, possibly empty
+     * @param examples       the grounded examples, in text format
+     * @param binary         the binary file to write
+     * @return the number of converted examples
+     * @throws IOException          if an error occurs when writing the file
+     * @throws GraphFormatException if a grounded example is malformed
+     */
+    public static int convert(SymbolTable<String> masterFeatures, Iterable<String> examples, File binary)
+            throws IOException, GraphFormatException {
+        if (masterFeatures.size() > 0) { LearningGraphBuilder.setFeatures(masterFeatures); }
+        RWExampleParser parser = new RWExampleParser();
+        LearningGraphBuilder builder = new ArrayLearningGraphBuilder();
+        SRW learner = new SRW();
+        int count = 0;
+        try (Writer writer = new Writer(binary)) {
+            for (String s : examples) {
+                writer.write(parser.parse(s, builder.copy(), learner));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public Iterator<ByteBuffer> iterator() {
+        return new RecordIterator();
+    }
+
+    /**
+     * Writes grounded examples to a binary file.
+     */
+    public static class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+        private final DataOutputStream recordOut = new DataOutputStream(record);
+
+        public Writer(File file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        public void write(PosNegRWExample example) throws IOException {
+            record.reset();
+            example.serialize(recordOut);
+            recordOut.flush();
+            out.writeInt(record.size());
+            record.writeTo(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Iterates over the records of the file, mapping a window of the file at a time, since a single mapping is
+     * limited to {@link Integer#MAX_VALUE} bytes.
+     */
+    private class RecordIterator implements Iterator<ByteBuffer> {
+
+        private long offset = HEADER_SIZE;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        @Override
+        public boolean hasNext() {
+            return offset < size;
+        }
+
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext()) { throw new NoSuchElementException(); }
+            map(offset, Integer.BYTES);
+            int length = window.getInt((int) (offset - windowStart));
+            map(offset, Integer.BYTES + (long) length);
+            ByteBuffer record = window.duplicate();
+            int start = (int) (offset - windowStart) + Integer.BYTES;
+            record.limit(start + length).position(start);
+            offset += Integer.BYTES + length;
+            return record.slice().asReadOnlyBuffer();
+        }
+
+        private void map(long from, long length) {
+            if (from + length > size) {
+                throw new IllegalStateException("Truncated binary grounded file: " + file + " at byte " + from);
+            }
+            if (window != null && from >= windowStart && from + length <= windowStart + window.capacity()) { return; }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                windowStart = from;
+                window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW_SIZE, size - from));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map binary grounded file: " + file, e);
+            }
+            if (length > window.capacity()) {
+                throw new IllegalStateException("Record larger than " + WINDOW_SIZE + " bytes in " + file);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.learn.tools;
+
+import edu.cmu.ml.proppr.examples.PosNegRWExample;
+import edu.cmu.ml.proppr.graph.LearningGraph;
+import edu.cmu.ml.proppr.util.SymbolTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps parsed examples across trainings, keyed by their grounded string, so that an example whose grounding did
+ * not change is not parsed again. The least recently used examples are dropped once the estimated memory of the
+ * cache exceeds its budget.
+ * <p>
+ * Grounded strings refer to features by their id in the master feature table of the training, which may change
+ * between trainings; so an example is only reused if the features of its graph have the same ids in the new table.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class RWExampleCache {
+
+    private static final Logger log = LogManager.getLogger(RWExampleCache.class);
+    private static final int NODE_MEMORY = 64;
+    private static final int EDGE_MEMORY = 40;
+    private static final int LABEL_MEMORY = 12;
+    private static final int DEPENDENCY_MEMORY = 12;
+    private static final int CHAR_MEMORY = 2;
+
+    protected final long memoryBudget;
+    protected final LinkedHashMap<String, PosNegRWExample> examples = new LinkedHashMap<>(16, 0.75f, true);
+    protected long memoryUsage;
+    protected int hits;
+    protected int misses;
+
+    /**
+     * Constructs a cache.
+     *
+     * @param memoryBudget the estimated memory budget, in bytes
+     */
+    public RWExampleCache(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Estimates the memory of a cached example.
+     *
+     * @param key     the grounded string
+     * @param example the parsed example
+     * @return the estimated memory, in bytes
+     */
+    protected static long estimateMemory(String key, PosNegRWExample example) {
+        LearningGraph graph = example.getGraph();
+        return (long) key.length() * CHAR_MEMORY + (long) graph.node_hi * NODE_MEMORY +
+                (long) graph.edge_dest.length * EDGE_MEMORY + (long) graph.label_feature_id.length * LABEL_MEMORY +
+                (long) graph.labelDependencySize() * DEPENDENCY_MEMORY;
+    }
+
+    /**
+     * Gets the parsed example of the grounded string, if it is cached and its features have the same ids in the
+     * master feature table.
+     *
+     * @param key            the grounded string
+     * @param masterFeatures the master feature table of the training
+     * @return the example, or null
+     */
+    public synchronized PosNegRWExample get(String key, SymbolTable<String> masterFeatures) {
+        PosNegRWExample example = examples.get(key);
+        if (example != null && !sameFeatures(example.getGraph(), masterFeatures)) {
+            remove(key);
+            example = null;
+        }
+        if (example == null) { misses++; } else { hits++; }
+        return example;
+    }
+
+    /**
+     * Checks if the features of the graph have the same ids in the master feature table.
+     *
+     * @param graph          the graph
+     * @param masterFeatures the master feature table
+     * @return true if they have
+     */
+    protected static boolean sameFeatures(LearningGraph graph, SymbolTable<String> masterFeatures) {
+        if (graph.featureLibrary == masterFeatures) { return true; }
+        for (int id : graph.label_feature_id) {
+            if (id > masterFeatures.size() ||
+                    !graph.featureLibrary.getSymbol(id).equals(masterFeatures.getSymbol(id))) { return false; }
+        }
+        return true;
+    }
+
+    /**
+     * Caches the parsed example of the grounded string, dropping the least recently used examples to stay within
+     * the budget.
+     *
+     * @param key     the grounded string
+     * @param example the parsed example
+     */
+    public synchronized void put(String key, PosNegRWExample example) {
+        long memory = estimateMemory(key, example);
+        if (memory > memoryBudget) { return; }
+        remove(key);
+        examples.put(key, example);
+        memoryUsage += memory;
+        Iterator<Map.Entry<String, PosNegRWExample>> iterator = examples.entrySet().iterator();
+        while (memoryUsage > memoryBudget && iterator.hasNext()) {
+            Map.Entry<String, PosNegRWExample> eldest = iterator.next();
+            memoryUsage -= estimateMemory(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+        }
+    }
+
+    private void remove(String key) {
+        PosNegRWExample removed = examples.remove(key);
+        if (removed != null) { memoryUsage -= estimateMemory(key, removed); }
+    }
+
+    /**
+     * Removes all the examples.
+     */
+    public synchronized void clear() {
+        if (log.isDebugEnabled()) {
+            log.debug("Clearing example cache: " + examples.size() + " examples, " + hits + " hits, " + misses +
+                              " misses");
+        }
+        examples.clear();
+        memoryUsage = 0;
+    }
+
+    public synchronized int size() {
+        return examples.size();
+    }
+
+    public synchronized long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+}
@@ -53,12 +53,25 @@ import gnu.trove.map.hash.TIntDoubleHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 public class RWExampleParser {
 
     //public static final String MAJOR_DELIM="\t";
     public static final char MAJOR_DELIM = '\t';
     public static final char MINOR_DELIM = ',';
     private static final Logger log = LogManager.getLogger(RWExampleParser.class);
+    /**
+     * The format of the grounded examples written as lines of text.
+     */
+    public static final Format<String> TEXT = (example, builder, learner) ->
+            new RWExampleParser().parse(example, builder, learner);
+    /**
+     * The format of the grounded examples written as binary records of a {@link BinaryRWExampleFile}.
+     */
+    public static final Format<ByteBuffer> BINARY = (example, builder, learner) ->
+            new RWExampleParser().parse(example, builder, learner);
 
     public PosNegRWExample parse(String line, LearningGraphBuilder builder, SRW learner) throws GraphFormatException {
         //String[] parts = line.trim().split(MAJOR_DELIM,5);
@@ -89,6 +102,28 @@ public class RWExampleParser {
         return learner.makeExample(parts[0], g, queryVec, posList, negList);
     }
 
+    /**
+     * Parses an example written by {@link PosNegRWExample#serialize(java.io.DataOutput)}. The record is not
+     * modified, so it can be parsed again in the next epoch.
+     */
+    public PosNegRWExample parse(ByteBuffer record, LearningGraphBuilder builder, SRW learner)
+            throws GraphFormatException {
+        ByteBuffer in = record.duplicate();
+        String name;
+        TIntDoubleMap queryVec = new TIntDoubleHashMap();
+        int[] posList, negList;
+        try {
+            name = LearningGraphBuilder.readString(in);
+            for (int u : LearningGraphBuilder.readInts(in)) { queryVec.put(u, 1.0); }
+            posList = LearningGraphBuilder.readInts(in);
+            negList = LearningGraphBuilder.readInts(in);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new GraphFormatException("Truncated binary grounded example: " + e);
+        }
+        LearningGraph g = builder.deserialize(in);
+        return learner.makeExample(name, g, queryVec, posList, negList);
+    }
+
     private int[] parseNodes(String string) {
         String[] nodeStrings = LearningGraphBuilder.split(string, MINOR_DELIM);
         int[] nodes = new int[nodeStrings.length];
@@ -97,4 +132,25 @@ public class RWExampleParser {
         }
         return nodes;
     }
+
+    /**
+     * A format of grounded examples, which parses each example of the format into a {@link PosNegRWExample}.
+     *
+     * @param <T> the type of the grounded examples
+     */
+    @FunctionalInterface
+    public interface Format<T> {
+
+        /**
+         * Parses the grounded example.
+         *
+         * @param example the grounded example
+         * @param builder the graph builder
+         * @param learner the learner
+         * @return the parsed example
+         * @throws GraphFormatException if the example is malformed
+         */
+        PosNegRWExample parse(T example, LearningGraphBuilder builder, SRW learner) throws GraphFormatException;
+
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.prove;
+
+import edu.cmu.ml.proppr.prove.wam.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compressed sparse row (CSR) view of the part of a proof graph already expanded by a power iteration prover.
+ * <p>
+ * States are numbered in the order they are discovered and the normalized outlinks of a state are frozen into
+ * contiguous primitive arrays the first time the state is expanded. Since the outlinks of a state never change across
+ * iterations, each iteration only scans these arrays instead of hashing states.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class CsrStateGraph {
+
+    protected static final int INITIAL_NODE_CAPACITY = 64;
+    protected static final int INITIAL_EDGE_CAPACITY = 256;
+
+    protected final Map<State, Integer> ids = new HashMap<>();
+    protected final List<State> states = new ArrayList<>();
+
+    protected int[] begin = new int[INITIAL_NODE_CAPACITY];
+    protected int[] end = new int[INITIAL_NODE_CAPACITY];
+    protected boolean[] expanded = new boolean[INITIAL_NODE_CAPACITY];
+
+    protected int[] destination = new int[INITIAL_EDGE_CAPACITY];
+    protected float[] weight = new float[INITIAL_EDGE_CAPACITY];
+    protected int edges;
+
+    /**
+     * Gets the id of the state, numbering it if it has not been seen yet.
+     *
+     * @param state the state
+     * @return the id of the state
+     */
+    public int getId(State state) {
+        Integer id = ids.get(state);
+        if (id != null) { return id; }
+        id = states.size();
+        ids.put(state, id);
+        states.add(state);
+        if (id == begin.length) {
+            int capacity = begin.length * 2;
+            begin = Arrays.copyOf(begin, capacity);
+            end = Arrays.copyOf(end, capacity);
+            expanded = Arrays.copyOf(expanded, capacity);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the state of the id.
+     *
+     * @param id the id
+     * @return the state
+     */
+    public State getState(int id) {
+        return states.get(id);
+    }
+
+    /**
+     * Gets the number of numbered states.
+     *
+     * @return the number of numbered states
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Checks if the outlinks of the state have already been frozen.
+     *
+     * @param id the id of the state
+     * @return {@code true} if the state has been expanded
+     */
+    public boolean isExpanded(int id) {
+        return expanded[id];
+    }
+
+    /**
+     * Freezes the normalized outlinks of the state, numbering the children that have not been seen yet.
+     *
+     * @param id       the id of the state
+     * @param outlinks the normalized outlinks of the state
+     */
+    public void expand(int id, Map<State, Double> outlinks) {
+        int required = edges + outlinks.size();
+        if (required > destination.length) {
+            int capacity = Math.max(required, destination.length * 2);
+            destination = Arrays.copyOf(destination, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+        begin[id] = edges;
+        for (Map.Entry<State, Double> entry : outlinks.entrySet()) {
+            destination[edges] = getId(entry.getKey());
+            weight[edges] = entry.getValue().floatValue();
+            edges++;
+        }
+        end[id] = edges;
+        expanded[id] = true;
+    }
+
+    /**
+     * Gets the index of the first outlink of the state.
+     *
+     * @param id the id of an expanded state
+     * @return the index of the first outlink
+     */
+    public int getBegin(int id) {
+        return begin[id];
+    }
+
+    /**
+     * Gets the index after the last outlink of the state.
+     *
+     * @param id the id of an expanded state
+     * @return the index after the last outlink
+     */
+    public int getEnd(int id) {
+        return end[id];
+    }
+
+    /**
+     * Gets the destinations of the outlinks, indexed from {@link #getBegin(int)} to {@link #getEnd(int)}.
+     *
+     * @return the destinations of the outlinks
+     */
+    public int[] getDestinations() {
+        return destination;
+    }
+
+    /**
+     * Gets the normalized weights of the outlinks, indexed from {@link #getBegin(int)} to {@link #getEnd(int)}.
+     *
+     * @return the normalized weights of the outlinks
+     */
+    public float[] getWeights() {
+        return weight;
+    }
+
+}
@@ -70,6 +70,7 @@ public class DprProver extends Prover<StateProofGraph> {
     // for debug
     protected Backtrace<State> backtrace = new Backtrace<State>(log);
     protected ProofGraph current;
+    protected ProvingBudget budget;
     private int maxTreeDepth = -1;
 
     public DprProver() {
@@ -112,6 +113,7 @@ public class DprProver extends Prover<StateProofGraph> {
             throw new IllegalStateException("DprProver not threadsafe -- one instance per thread only, please!");
         }
         this.current = pg;
+        this.budget = new ProvingBudget(apr);
 
         Map<State, Double> p = new HashMap<State, Double>();
         Map<State, Double> r = new HashMap<State, Double>();
@@ -130,6 +132,11 @@ public class DprProver extends Prover<StateProofGraph> {
                 log.info(Thread.currentThread() + " iteration: " + numIterations + " pushes: " + pushCounter + " " +
                                  "r-states: " + r.size() + " p-states: " + p.size());
             }
+            if (budget.isExhausted()) {
+                if (log.isDebugEnabled()) { log.debug("Budget exhausted after " + budget.getPushes() + " pushes"); }
+                pg.setBudgetExhausted(true);
+                break;
+            }
             if (iterEpsilon == apr.epsilon && pushCounter == 0) { break; }
             numPushes += pushCounter;
         }
@@ -176,9 +183,11 @@ public class DprProver extends Prover<StateProofGraph> {
             }
             return pushCounter;
         }
+        if (budget.isExhausted()) { return pushCounter; }
         try {
             int deg = pg.pgDegree(u);
             if (r.get(u) / deg > iterEpsilon) {
+                if (budget.spend()) { return pushCounter; }
                 backtrace.push(u);
                 pushCounter += 1;
                 try {
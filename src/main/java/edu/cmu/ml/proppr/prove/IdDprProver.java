@@ -71,6 +71,7 @@ public class IdDprProver extends Prover<CachingIdProofGraph> {
     protected LongDense.AbstractFloatVector params = null;
     protected IdDprProver parent = null;
     private int maxTreeDepth;
+    protected ProvingBudget budget;
 
     public IdDprProver() {
         this(false);
@@ -112,6 +113,9 @@ public class IdDprProver extends Prover<CachingIdProofGraph> {
     public Map<State, Double> prove(CachingIdProofGraph pg, StatusLogger status) {
         LongDense.FloatVector p = new LongDense.FloatVector();
         prove(pg, p, status);
+        if (pg.isMemoryExhausted() && log.isDebugEnabled()) {
+            log.debug("Memory cap reached, refused expansions: " + pg.getCappedExpansions());
+        }
         if (apr.traceDepth != 0) {
             log.info("== proof graph: edges/nodes " + pg.edgeSize() + "/" + pg.nodeSize());
             log.info(pg.treeView(apr.traceDepth, apr.traceRoot, weighter, p));
@@ -154,6 +158,7 @@ public class IdDprProver extends Prover<CachingIdProofGraph> {
         int numIterations = 0;
         double iterEpsilon = 1.0;
         this.completedStates = 0;
+        this.budget = new ProvingBudget(apr);
         for (int pushCounter = 0; ; ) {
             iterEpsilon = Math.max(iterEpsilon / 10, apr.epsilon);
             pushCounter = this.proveState(pg, p, r, state0, 0, iterEpsilon, params, status);
@@ -162,6 +167,11 @@ public class IdDprProver extends Prover<CachingIdProofGraph> {
                 log.info(Thread.currentThread() + " iteration: " + numIterations + " pushes: " + pushCounter + " " +
                                  "r-states: " + r.size() + " p-states: " + p.size());
             }
+            if (budget.isExhausted()) {
+                if (log.isDebugEnabled()) { log.debug("Budget exhausted after " + budget.getPushes() + " pushes"); }
+                pg.setBudgetExhausted(true);
+                break;
+            }
             if (iterEpsilon == apr.epsilon && pushCounter == 0) { break; }
             if (apr.stopEarly >= 0 && this.completedStates > apr.stopEarly) {
                 log.info("Stopping early...");
@@ -190,9 +200,14 @@ public class IdDprProver extends Prover<CachingIdProofGraph> {
             }
             return pushCounter;
         }
+        if (budget.isExhausted()) { return pushCounter; }
+        // once the graph is at its memory cap, the residual of the unexpanded frontier is left unpushed; as the
+        // epsilon schedule decreases, the refused states are those with the lowest residuals
         try {
+            if (!cg.expand(uid, this.weighter)) { return pushCounter; }
             int deg = cg.getDegreeById(uid, this.weighter);
             if (r.get(uid) / deg > iterEpsilon) {
+                if (budget.spend()) { return pushCounter; }
                 pushCounter += 1;
                 try {
                     double z = cg.getTotalWeightOfOutlinks(uid, params, this.weighter);
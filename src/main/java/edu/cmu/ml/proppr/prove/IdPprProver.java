@@ -69,6 +69,7 @@ public class IdPprProver extends Prover<CachingIdProofGraph> {
     private static final boolean TRUELOOP = true;
     protected boolean trace;
     protected LongDense.AbstractFloatVector params = null;
+    protected ProvingBudget budget;
 
     public IdPprProver() {
         this(DEFAULT_TRACE);
@@ -105,6 +106,9 @@ public class IdPprProver extends Prover<CachingIdProofGraph> {
     @Override
     public Map<State, Double> prove(CachingIdProofGraph pg, StatusLogger status) {
         LongDense.FloatVector p = proveVec(pg, status);
+        if (pg.isMemoryExhausted() && log.isDebugEnabled()) {
+            log.debug("Memory cap reached, refused expansions: " + pg.getCappedExpansions());
+        }
         if (apr.traceDepth != 0) {
             log.info("== proof graph: edges/nodes " + pg.edgeSize() + "/" + pg.nodeSize());
             log.info(pg.treeView(apr.traceDepth, apr.traceRoot, weighter, p));
@@ -128,10 +132,17 @@ public class IdPprProver extends Prover<CachingIdProofGraph> {
 
         LongDense.FloatVector nextVec = new LongDense.FloatVector();
         LongDense.FloatVector tmp;
+        this.budget = new ProvingBudget(apr);
 
         for (int i = 0; i < this.apr.maxDepth; i++) {
             // vec = walkOnce(cg,vec,params,f);
             walkOnceBuffered(pg, vec, nextVec, params);
+            if (budget.isExhausted()) {
+                // keep the last complete iteration as the approximate solution
+                if (log.isDebugEnabled()) { log.debug("Budget exhausted at depth " + (i + 1)); }
+                pg.setBudgetExhausted(true);
+                break;
+            }
             // save vec as the next buffer, then point vec at the new result
             tmp = vec;
             tmp.clear();
@@ -165,6 +176,12 @@ public class IdPprProver extends Prover<CachingIdProofGraph> {
             for (int uid = cg.getRootId(); uid < vec.size(); uid++) {
                 double vu = vec.get(uid);
                 if (vu >= 0.0) {
+                    if (budget != null && budget.spend()) { return; }
+                    if (!cg.expand(uid, this.weighter)) {
+                        // memory cap reached: the mass stays on the unexpanded frontier state
+                        nextVec.inc(uid, vu * (1.0 - apr.alpha));
+                        continue;
+                    }
                     double z = cg.getTotalWeightOfOutlinks(uid, params, this.weighter);
                     int d = cg.getDegreeById(uid, this.weighter);
                     for (int i = 0; i < d; i++) {
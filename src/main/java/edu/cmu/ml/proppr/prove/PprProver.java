@@ -53,6 +53,7 @@ import edu.cmu.ml.proppr.util.StatusLogger;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -66,12 +67,14 @@ import java.util.Map;
 public class PprProver extends Prover<StateProofGraph> {
 
     private static final double SEED_WEIGHT = 1.0;
+    private static final int INITIAL_CAPACITY = 64;
     private static final Logger log = LogManager.getLogger(PprProver.class);
     private static final boolean DEFAULT_TRACE = false;
     private static final boolean RESTART = true;
     private static final boolean TRUELOOP = true;
     private static final boolean NORMLX_TRUELOOP = true;
     protected boolean trace;
+    protected ProvingBudget budget;
 
     public PprProver() {
         this(DEFAULT_TRACE);
@@ -108,31 +111,46 @@ public class PprProver extends Prover<StateProofGraph> {
 
     @Override
     public Map<State, Double> prove(StateProofGraph pg, StatusLogger status) {
-        Map<State, Double> startVec = new HashMap<State, Double>();
-        startVec.put(pg.getStartState(), SEED_WEIGHT);
-        Map<State, Double> vec = startVec;
+        CsrStateGraph graph = new CsrStateGraph();
+        int start = graph.getId(pg.getStartState());
+        double[] vec = new double[INITIAL_CAPACITY];
+        boolean[] reached = new boolean[INITIAL_CAPACITY];
+        double[] nextVec = new double[INITIAL_CAPACITY];
+        boolean[] nextReached = new boolean[INITIAL_CAPACITY];
+        vec[start] = SEED_WEIGHT;
+        reached[start] = true;
+        this.budget = new ProvingBudget(apr);
 
         for (int i = 0; i < this.apr.maxDepth; i++) {
-            vec = walkOnce(pg, vec);
+            int n = graph.size();
+            if (!expandReached(pg, graph, reached, n)) {
+                // keep the last complete iteration as the approximate solution
+                if (log.isDebugEnabled()) { log.debug("Budget exhausted at iteration " + (i + 1)); }
+                pg.setBudgetExhausted(true);
+                break;
+            }
+            if (nextVec.length < graph.size()) {
+                int capacity = Math.max(graph.size(), nextVec.length * 2);
+                nextVec = new double[capacity];
+                nextReached = new boolean[capacity];
+            } else {
+                Arrays.fill(nextVec, 0.0);
+                Arrays.fill(nextReached, false);
+            }
+            walkOnce(graph, start, n, vec, reached, nextVec, nextReached);
+            double[] swapVec = vec;
+            vec = nextVec;
+            nextVec = swapVec;
+            boolean[] swapReached = reached;
+            reached = nextReached;
+            nextReached = swapReached;
             if (log.isInfoEnabled() && status.due(1)) { log.info("iteration/descent " + (i - 1) + " complete"); }
             if (log.isDebugEnabled()) {
                 log.debug("after iteration " + (i + 1) + " :" +
-                                  Dictionary.buildString(vec, new StringBuilder(), "\n\t"));
+                                  Dictionary.buildString(toMap(graph, vec, reached), new StringBuilder(), "\n\t"));
             }
-//			System.out.println("ppr iter "+(i+1)+" size "+vec.size());
-/*
-            for (Map.Entry<State,Double> e : vec.entrySet()) {
-				try {
-					State s = e.getKey();
-					System.out.println(" - "+e.getValue()+"\t"+s.canonicalHash()+"\t"+pg.getInterpreter()
-					.canonicalForm(pg.getStartState(),s));
-				} catch (LogicProgramException ex) {
-					throw new IllegalStateException(ex);
-				}
-			}
-*/
         }
-        return vec;
+        return toMap(graph, vec, reached);
     }
 
     @Override
@@ -140,27 +158,61 @@ public class PprProver extends Prover<StateProofGraph> {
         return StateProofGraph.class;
     }
 
-    protected Map<State, Double> walkOnce(StateProofGraph pg, Map<State, Double> vec) {
-        Map<State, Double> nextVec = new HashMap<State, Double>();
-        int i = 1, n = vec.size();
-        // p[u in s] += alpha * s[u]
-        Dictionary.increment(nextVec, pg.getStartState(), apr.alpha * SEED_WEIGHT);
-        for (Map.Entry<State, Double> p : vec.entrySet()) {
-            if (log.isInfoEnabled()) { log.info("state " + (i++) + " of " + n); }
+    /**
+     * Freezes the outlinks of the reached states that have not been expanded yet, spending one unit of the budget per
+     * reached state.
+     *
+     * @return false if the budget was exhausted before all reached states were visited
+     */
+    protected boolean expandReached(StateProofGraph pg, CsrStateGraph graph, boolean[] reached, int n) {
+        for (int u = 0; u < n; u++) {
+            if (!reached[u]) { continue; }
+            if (budget != null && budget.spend()) { return false; }
+            if (log.isInfoEnabled()) { log.info("state " + (u + 1) + " of " + n); }
+            if (graph.isExpanded(u)) { continue; }
             try {
-                for (Map.Entry<State, Double> e : this.normalizedOutlinks(pg, p.getKey()).entrySet()) {
-                    if (log.isTraceEnabled()) {
-                        log.trace("walkonce normalizedOutlinks " + p.getKey() + " " + e.getValue() + " " + e.getKey());
-                    }
-                    // p[v] += (1-alpha) * Muv * p[u]
-                    Dictionary.increment(nextVec, e.getKey(), e.getValue() * (1 - apr.alpha) * p.getValue(), "" +
-                            "(elided)");
-                }
+                graph.expand(u, this.normalizedOutlinks(pg, graph.getState(u)));
             } catch (LogicProgramException e) {
                 throw new IllegalStateException(e);
             }
         }
-        return nextVec;
+        return true;
+    }
+
+    /**
+     * Performs one step of the power iteration over the frozen outlinks of the first n states.
+     */
+    protected void walkOnce(CsrStateGraph graph, int start, int n, double[] vec, boolean[] reached,
+                            double[] nextVec, boolean[] nextReached) {
+        int[] destinations = graph.getDestinations();
+        float[] weights = graph.getWeights();
+        // p[u in s] += alpha * s[u]
+        nextVec[start] += apr.alpha * SEED_WEIGHT;
+        nextReached[start] = true;
+        for (int u = 0; u < n; u++) {
+            if (!reached[u]) { continue; }
+            double mass = (1 - apr.alpha) * vec[u];
+            for (int e = graph.getBegin(u); e < graph.getEnd(u); e++) {
+                if (log.isTraceEnabled()) {
+                    log.trace("walkonce normalizedOutlinks " + graph.getState(u) + " " + weights[e] + " " +
+                                      graph.getState(destinations[e]));
+                }
+                // p[v] += (1-alpha) * Muv * p[u]
+                nextVec[destinations[e]] += weights[e] * mass;
+                nextReached[destinations[e]] = true;
+            }
+        }
+    }
+
+    /**
+     * Converts the reached states of the vector back to a map.
+     */
+    protected static Map<State, Double> toMap(CsrStateGraph graph, double[] vec, boolean[] reached) {
+        Map<State, Double> result = new HashMap<State, Double>();
+        for (int u = 0; u < graph.size() && u < reached.length; u++) {
+            if (reached[u]) { result.put(graph.getState(u), vec[u]); }
+        }
+        return result;
     }
 
     protected Map<State, Double> normalizedOutlinks(StateProofGraph pg, State s) throws LogicProgramException {
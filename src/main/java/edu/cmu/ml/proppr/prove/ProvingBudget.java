@@ -0,0 +1,109 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.prove;
+
+import edu.cmu.ml.proppr.util.APROptions;
+
+/**
+ * Work budget of a single proof, based on {@link APROptions#maxPushes} and {@link APROptions#maxProvingTime}.
+ * <p>
+ * Provers spend one unit of the budget per push (or per visited state, for power iteration) and stop as soon as the
+ * budget is exhausted, returning the approximate solution computed so far.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class ProvingBudget {
+
+    /**
+     * The number of pushes between two checks of the clock.
+     */
+    public static final int TIME_CHECK_INTERVAL = 64;
+    protected static final long MILLISECONDS_TO_NANOSECONDS = 1000000L;
+
+    protected final int maxPushes;
+    protected final boolean timed;
+    protected final long deadline;
+    protected int pushes;
+    protected boolean exhausted;
+
+    /**
+     * Starts a new budget with the limits of the {@link APROptions}.
+     *
+     * @param apr the {@link APROptions}
+     */
+    public ProvingBudget(APROptions apr) {
+        this.maxPushes = apr.maxPushes;
+        this.timed = apr.maxProvingTime >= 0;
+        // System.nanoTime() may be negative, so the deadline can be any value and only the flag tells if it is set
+        this.deadline = timed ? System.nanoTime() + apr.maxProvingTime * MILLISECONDS_TO_NANOSECONDS : 0;
+    }
+
+    /**
+     * Spends one unit of the budget. The unit must be spent before the work it pays for, which must not be done if
+     * this method reports that the budget is exhausted.
+     *
+     * @return {@code true} if the budget is exhausted
+     */
+    public boolean spend() {
+        if (exhausted) { return true; }
+        pushes++;
+        if (maxPushes >= 0 && pushes > maxPushes) {
+            exhausted = true;
+        } else if (timed && pushes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+            exhausted = true;
+        }
+        return exhausted;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public int getPushes() {
+        return pushes;
+    }
+
+}
@@ -58,7 +58,12 @@ import edu.cmu.ml.proppr.util.math.SimpleSparse;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /* ************************** optimized version of the proofgraph  *********************** */
 public class CachingIdProofGraph extends ProofGraph implements InferenceGraph {
@@ -67,10 +72,27 @@ public class CachingIdProofGraph extends ProofGraph implements InferenceGraph {
      * The logger
      */
     public static final Logger logger = LogManager.getLogger();
+    /**
+     * Estimated bytes of an expanded node, of each of its edges and of each feature of an edge.
+     */
+    public static final long NODE_MEMORY = 64;
+    public static final long EDGE_MEMORY = 40;
+    public static final long FEATURE_MEMORY = 8;
+    private static final AtomicLong totalMemoryUsage = new AtomicLong();
+    /**
+     * The graphs charged to the global accounting. Their memory is charged until they are closed, once their proof is
+     * done with. The graphs that are never closed are released once they are garbage collected.
+     */
+    private static final ReferenceQueue<CachingIdProofGraph> collectedGraphs = new ReferenceQueue<>();
+    private static final Set<MemoryCharge> chargedGraphs = ConcurrentHashMap.newKeySet();
     private LongDense.ObjVector<SimpleSparse.FloatMatrix> nodeVec;
     private ConcurrentSymbolTable<State> nodeTab;
     private SymbolTable<Feature> featureTab;
     private int edgeCount = 0;
+    private long memoryUsage = 0;
+    private MemoryCharge memoryCharge;
+    private boolean closed;
+    private int cappedExpansions = 0;
 
     public CachingIdProofGraph(Query query, APROptions apr, WamProgram program,
                                WamPlugin... plugins) throws LogicProgramException {
@@ -207,9 +229,101 @@ public class CachingIdProofGraph extends ProofGraph implements InferenceGraph {
 
     public void setOutlinks(int uid, List<Outlink> outlinks, FeatureDictWeighter weighter) {
         edgeCount += outlinks.size();
+        long memory = NODE_MEMORY + EDGE_MEMORY * outlinks.size();
+        for (Outlink o : outlinks) { memory += FEATURE_MEMORY * o.fd.size(); }
+        memoryUsage += memory;
+        if (apr != null && apr.maxTotalGraphMemory >= 0 && !closed) { chargeMemory(memory); }
         nodeVec.set(uid, outlinksAsMatrix(outlinks, weighter));
     }
 
+    /**
+     * Charges the memory to the global accounting, until this graph is closed.
+     */
+    private synchronized void chargeMemory(long memory) {
+        releaseCollectedGraphs();
+        if (memoryCharge == null) {
+            memoryCharge = new MemoryCharge(this);
+            chargedGraphs.add(memoryCharge);
+        }
+        memoryCharge.memory.addAndGet(memory);
+        totalMemoryUsage.addAndGet(memory);
+    }
+
+    /**
+     * Releases the memory charged by this graph from the global accounting. The graph can still be read and lazily
+     * expanded, but its further expansions are no longer charged nor refused by the global cap.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (memoryCharge == null) { return; }
+        if (chargedGraphs.remove(memoryCharge)) { totalMemoryUsage.addAndGet(-memoryCharge.memory.getAndSet(0)); }
+        memoryCharge.clear();
+        memoryCharge = null;
+    }
+
+    /**
+     * Releases the memory of the graphs that were garbage collected without being closed from the global accounting.
+     */
+    private static void releaseCollectedGraphs() {
+        Reference<? extends CachingIdProofGraph> reference;
+        while ((reference = collectedGraphs.poll()) != null) {
+            MemoryCharge charge = (MemoryCharge) reference;
+            if (chargedGraphs.remove(charge)) { totalMemoryUsage.addAndGet(-charge.memory.getAndSet(0)); }
+        }
+    }
+
+    /**
+     * Expands the node, if it is not expanded yet and the memory caps allow it.
+     *
+     * @return true if the node is expanded, false if its expansion was refused because of the memory caps
+     */
+    public boolean expand(int uid, FeatureDictWeighter weighter) throws LogicProgramException {
+        expandIfNeeded(uid, weighter);
+        return nodeVec.get(uid) != null || nodeTab.getSymbol(uid) == null;
+    }
+
+    /**
+     * True if the node is already expanded, or if expanding it keeps this graph and all the charged graphs within
+     * their memory caps. The root is always expandable. A refused expansion is counted and flags the graph as memory
+     * exhausted.
+     */
+    private boolean canExpand(int uid) {
+        if (uid == getRootId() || nodeVec.get(uid) != null || apr == null) { return true; }
+        final boolean totalCapped = apr.maxTotalGraphMemory >= 0 && !closed;
+        if (totalCapped) { releaseCollectedGraphs(); }
+        if ((apr.maxGraphMemory >= 0 && memoryUsage >= apr.maxGraphMemory) ||
+                (totalCapped && totalMemoryUsage.get() >= apr.maxTotalGraphMemory)) {
+            cappedExpansions++;
+            setMemoryExhausted(true);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Estimated bytes of the expanded nodes and edges of this graph.
+     */
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Estimated bytes of the expanded nodes and edges of all the graphs charged to the global memory cap, i.e. the
+     * graphs not closed yet.
+     */
+    public static long getTotalMemoryUsage() {
+        releaseCollectedGraphs();
+        return totalMemoryUsage.get();
+    }
+
+    /**
+     * Number of expansions refused because of the memory caps.
+     */
+    public int getCappedExpansions() {
+        return cappedExpansions;
+    }
+
     public SimpleSparse.FloatMatrix outlinksAsMatrix(List<Outlink> outlinks, FeatureDictWeighter weighter) {
         // convert the outlinks to a sparse matrix
         SimpleSparse.FloatMatrix mat = new SimpleSparse.FloatMatrix(outlinks.size());
@@ -237,7 +351,7 @@ public class CachingIdProofGraph extends ProofGraph implements InferenceGraph {
 
     public int getDegreeById(int ui, FeatureDictWeighter weighter) throws LogicProgramException {
         expandIfNeeded(ui, weighter);
-        return nodeVec.get(ui).index.length;
+        return getDegreeByIdWithoutLazyExpansion(ui);
     }
 
     public int getDegreeByIdWithoutLazyExpansion(int ui) {
@@ -289,9 +403,9 @@ public class CachingIdProofGraph extends ProofGraph implements InferenceGraph {
         return 1;
     }
 
-    /* produce and cache outlinks if you haven't yet */
+    /* produce and cache outlinks if you haven't yet, and the memory caps allow it; a refused node has no outlinks */
     private void expandIfNeeded(int uid, FeatureDictWeighter weighter) throws LogicProgramException {
-        if (nodeVec.get(uid) == null) {
+        if (nodeVec.get(uid) == null && canExpand(uid)) {
             State u = nodeTab.getSymbol(uid);
             if (u != null) {
                 List<Outlink> outlinks = this.computeOutlinks(u, true);
@@ -720,4 +834,18 @@ public class CachingIdProofGraph extends ProofGraph implements InferenceGraph {
         }
     }
 
+    /**
+     * The memory charged by a graph to the global accounting, released once the graph is closed or, as a fallback,
+     * garbage collected.
+     */
+    private static class MemoryCharge extends PhantomReference<CachingIdProofGraph> {
+
+        private final AtomicLong memory = new AtomicLong();
+
+        private MemoryCharge(CachingIdProofGraph graph) {
+            super(graph, collectedGraphs);
+        }
+
+    }
+
 }
@@ -0,0 +1,211 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.prove.wam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linked form of a {@link WamProgram}, with the string operands resolved once so the {@link WamInterpreter} does not
+ * hash strings on its hot path:
+ * <p>
+ * 1) instructions = the instructions of the program, as an array indexed by address;
+ * <p>
+ * 2) operands = for each pushconst and unifyconst instruction, the index of its constant in constants, and -1 for
+ * the other instructions;
+ * <p>
+ * 3) addresses = for each label, the array of addresses where the clauses of the label start.
+ * <p>
+ * Constant indexes are local to the linked program; each interpreter maps them to the ids of its own constant table.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class LinkedProgram {
+
+    protected final LinkedProgram base;
+    protected final int offset;
+    protected final int numberOfConstants;
+    protected final Instruction[] instructions;
+    protected final int[] operands;
+    protected final String[] constants;
+    protected final Map<String, Integer> constantIndex;
+    protected final Map<String, int[]> addresses;
+
+    /**
+     * Links the instructions and labels of a program.
+     *
+     * @param instructions the instructions
+     * @param labels       the addresses of each label
+     */
+    public LinkedProgram(List<Instruction> instructions, Map<String, List<Integer>> labels) {
+        this(null, instructions, labels);
+    }
+
+    /**
+     * Links the instructions and labels of a program appended to an already linked program, as the query part of a
+     * {@link WamQueryProgram}. The base is not copied: its addresses and constant indexes are kept, and only the
+     * appended part is linked.
+     *
+     * @param base         the linked program this one extends, or null
+     * @param instructions the instructions appended to the base
+     * @param labels       the addresses of each label, relative to the start of the appended instructions
+     */
+    public LinkedProgram(LinkedProgram base, List<Instruction> instructions, Map<String, List<Integer>> labels) {
+        this.base = base;
+        this.offset = base == null ? 0 : base.size();
+        int baseConstants = base == null ? 0 : base.numberOfConstants;
+        this.instructions = instructions.toArray(new Instruction[0]);
+        this.operands = new int[this.instructions.length];
+        this.constantIndex = new HashMap<>();
+        List<String> constantList = new ArrayList<>();
+        for (int i = 0; i < this.instructions.length; i++) {
+            Instruction inst = this.instructions[i];
+            operands[i] = -1;
+            if (inst.opcode == Instruction.OP.pushconst || inst.opcode == Instruction.OP.unifyconst) {
+                int index = base == null ? -1 : base.getConstantIndex(inst.s);
+                if (index < 0) {
+                    Integer local = constantIndex.get(inst.s);
+                    if (local == null) {
+                        local = baseConstants + constantList.size();
+                        constantIndex.put(inst.s, local);
+                        constantList.add(inst.s);
+                    }
+                    index = local;
+                }
+                operands[i] = index;
+            }
+        }
+        this.constants = constantList.toArray(new String[0]);
+        this.numberOfConstants = baseConstants + constants.length;
+        this.addresses = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> label : labels.entrySet()) {
+            int[] previous = base == null ? null : base.getAddresses(label.getKey());
+            if (previous == null) { previous = new int[0]; }
+            int[] merged = Arrays.copyOf(previous, previous.length + label.getValue().size());
+            for (int i = 0; i < label.getValue().size(); i++) {
+                merged[previous.length + i] = offset + label.getValue().get(i);
+            }
+            addresses.put(label.getKey(), merged);
+        }
+    }
+
+    /**
+     * Gets the number of instructions.
+     *
+     * @return the number of instructions
+     */
+    public int size() {
+        return offset + instructions.length;
+    }
+
+    /**
+     * Gets the instruction at the address.
+     *
+     * @param address the address
+     * @return the instruction
+     */
+    public Instruction getInstruction(int address) {
+        return address < offset ? base.getInstruction(address) : instructions[address - offset];
+    }
+
+    /**
+     * Gets the index of the constant operand of the instruction at the address.
+     *
+     * @param address the address
+     * @return the index of the constant, or -1 if the instruction has no constant operand
+     */
+    public int getOperand(int address) {
+        return address < offset ? base.getOperand(address) : operands[address - offset];
+    }
+
+    /**
+     * Gets the constant of the index.
+     *
+     * @param index the index
+     * @return the constant
+     */
+    public String getConstant(int index) {
+        int baseConstants = numberOfConstants - constants.length;
+        return index < baseConstants ? base.getConstant(index) : constants[index - baseConstants];
+    }
+
+    /**
+     * Gets the index of the constant.
+     *
+     * @param constant the constant
+     * @return the index of the constant, or -1 if the constant is not an operand of the program
+     */
+    public int getConstantIndex(String constant) {
+        Integer index = constantIndex.get(constant);
+        if (index != null) { return index; }
+        return base == null ? -1 : base.getConstantIndex(constant);
+    }
+
+    /**
+     * Gets the number of constants.
+     *
+     * @return the number of constants
+     */
+    public int getNumberOfConstants() {
+        return numberOfConstants;
+    }
+
+    /**
+     * Gets the addresses where the clauses of the label start.
+     *
+     * @param label the label
+     * @return the addresses, or null if the label is not in the program
+     */
+    public int[] getAddresses(String label) {
+        int[] local = addresses.get(label);
+        if (local != null || base == null) { return local; }
+        return base.getAddresses(label);
+    }
+
+}
@@ -80,6 +80,8 @@ public abstract class ProofGraph {
     private int[] variableIds;
     private Map<Feature, Double> trueLoopFD;
     private Feature restartFeature;
+    private boolean budgetExhausted;
+    private boolean memoryExhausted;
 
     protected ProofGraph() {
         startState = null;
@@ -289,4 +291,34 @@ public abstract class ProofGraph {
         return this.interpreter;
     }
 
+    /**
+     * True if the prover ran out of its work budget on this graph, so the solution is only an approximation.
+     */
+    public boolean isBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    public void setBudgetExhausted(boolean budgetExhausted) {
+        this.budgetExhausted = budgetExhausted;
+    }
+
+    /**
+     * True if the prover stopped expanding states because the graph reached its memory cap, so the solution is only
+     * an approximation.
+     */
+    public boolean isMemoryExhausted() {
+        return memoryExhausted;
+    }
+
+    public void setMemoryExhausted(boolean memoryExhausted) {
+        this.memoryExhausted = memoryExhausted;
+    }
+
+    /**
+     * Releases the resources held for the proof of this graph, once the proof is done with. The graph can still be
+     * read afterwards, e.g. as the graph of a grounded example. By default, it does nothing.
+     */
+    public void close() {
+    }
+
 }
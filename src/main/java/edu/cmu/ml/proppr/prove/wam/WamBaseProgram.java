@@ -73,6 +73,7 @@ public class WamBaseProgram extends WamProgram {
     private final Map<Integer, String> instLabels;
     private final Map<String, List<Integer>> labels;
     private int saveLength;
+    private volatile LinkedProgram linked;
 
     public WamBaseProgram() {
         instructions = new ArrayList<Instruction>();
@@ -102,6 +103,7 @@ public class WamBaseProgram extends WamProgram {
     @Override
     public void append(Instruction inst) {
         instructions.add(inst);
+        linked = null;
     }
 
     /* (non-Javadoc)
@@ -110,6 +112,7 @@ public class WamBaseProgram extends WamProgram {
     @Override
     public void setInstruction(int placeToPatch, Instruction instruction) {
         this.instructions.set(placeToPatch, instruction);
+        linked = null;
     }
 
     /* (non-Javadoc)
@@ -137,6 +140,7 @@ public class WamBaseProgram extends WamProgram {
         instLabels.put(i, label);
         if (!labels.containsKey(label)) { labels.put(label, new ArrayList<Integer>()); }
         labels.get(label).add(i);
+        linked = null;
     }
 
     /* (non-Javadoc)
@@ -161,6 +165,7 @@ public class WamBaseProgram extends WamProgram {
     @Override
     public void save() {
         this.saveLength = this.instructions.size();
+        link();
     }
 
     /* (non-Javadoc)
@@ -171,6 +176,24 @@ public class WamBaseProgram extends WamProgram {
         for (int i = this.instructions.size() - 1; i >= this.saveLength; i--) {
             this.instructions.remove(i);
         }
+        linked = null;
+    }
+
+    @Override
+    public LinkedProgram link() {
+        LinkedProgram current = linked;
+        if (current == null) {
+            current = new LinkedProgram(instructions, labels);
+            linked = current;
+        }
+        return current;
+    }
+
+    /**
+     * Links the program as the continuation of a linked base program.
+     */
+    LinkedProgram link(LinkedProgram base) {
+        return new LinkedProgram(base, instructions, labels);
     }
 
 }
@@ -93,6 +93,8 @@ public class WamInterpreter {
     private MutableState state;
     private SymbolTable<String> constantTable;
     private Map<Feature, Double> reportedFeatures;
+    private LinkedProgram linkedProgram;
+    private int[] constantIds;
 
     public WamInterpreter(WamProgram program, WamPlugin[] plugins) {
         this(new SimpleSymbolTable<String>(), program, plugins);
@@ -154,18 +156,31 @@ public class WamInterpreter {
         state.setCompleted(false);
         this.reportedFeatures = new HashMap<Feature, Double>();
 
+        LinkedProgram code = linkedProgram();
         //execute opcodes until we fail, the program completes, or we hit a callp opcode (indicated by setting pc=-1)
         // or we hit a freport opcode (indicated by setting reportedFeatures to a non-empty set)
         while (!state.isFailed() && !state.isCompleted() && this.reportedFeatures.isEmpty() && state
                 .getProgramCounter() >= 0) {
-            Instruction inst = this.program.getInstruction(state.getProgramCounter());
-            execute(inst, computeFeatures);
+            int address = state.getProgramCounter();
+            execute(code.getInstruction(address), code.getOperand(address), computeFeatures);
         }
         //if(state.isCompleted() && log.isDebugEnabled()) log.debug(this.constantTable.toString());
         return this.reportedFeatures;
     }
 
     public void execute(Instruction inst, boolean computeFeatures) {
+        execute(inst, -1, computeFeatures);
+    }
+
+    /**
+     * Executes the instruction. When the constant index of the instruction in the linked program is given, its
+     * constant is resolved through the cache of constant ids instead of the constant table.
+     *
+     * @param inst            the instruction
+     * @param constantIndex   the index of the constant operand in the linked program, or -1
+     * @param computeFeatures if the features are to be computed
+     */
+    private void execute(Instruction inst, int constantIndex, boolean computeFeatures) {
         if (log.isDebugEnabled()) { log.debug(inst); }
         if (!computeFeatures && inst.opcode.isFeature()) {
             //TODO: pc+= 1 here?
@@ -182,7 +197,9 @@ public class WamInterpreter {
                     returnp();
                     break;
                 case pushconst:
-                    pushconst(inst.s);
+                    if (constantIndex < 0) { pushconst(inst.s); } else {
+                        pushconst(constantId(constantIndex, true));
+                    }
                     break;
                 case pushfreevar:
                     pushfreevar(inst.i1);
@@ -191,7 +208,9 @@ public class WamInterpreter {
                     pushboundvar(inst.i1);
                     break;
                 case unifyconst:
-                    unifyconst(inst.s, inst.i1);
+                    if (constantIndex < 0) { unifyconst(inst.s, inst.i1); } else {
+                        unifyconst(inst.s, constantId(constantIndex, false), inst.i1);
+                    }
                     break;
                 case initfreevar:
                     initfreevar(inst.i1, inst.i2);
@@ -267,10 +286,11 @@ public class WamInterpreter {
                 return result;
             }
         }
-        if (!this.program.hasLabel(s.getJumpTo())) {
+        int[] addresses = linkedProgram().getAddresses(s.getJumpTo());
+        if (addresses == null) {
             throw new LogicProgramException("Unknown predicate " + s.getJumpTo());
         }
-        for (Integer address : program.getAddresses(s.getJumpTo())) {
+        for (int address : addresses) {
             if (log.isDebugEnabled()) { log.debug("Executing " + s.getJumpTo() + " from " + address); }
             this.restoreState(s);
             //if (log.isDebugEnabled()) log.debug(this.constantTable.toString());
@@ -304,6 +324,37 @@ public class WamInterpreter {
 
     public void setConstantTable(SimpleSymbolTable<String> ct) {
         this.constantTable = ct;
+        this.linkedProgram = null;
+    }
+
+    /**
+     * Gets the linked version of the program, resetting the cache of constant ids when the program changes.
+     */
+    private LinkedProgram linkedProgram() {
+        LinkedProgram current = program.link();
+        if (current != linkedProgram) {
+            linkedProgram = current;
+            constantIds = new int[current.getNumberOfConstants()];
+        }
+        return current;
+    }
+
+    /**
+     * Gets the id, in the constant table, of the constant of the index in the linked program.
+     *
+     * @param index  the index of the constant in the linked program
+     * @param insert if the constant is to be inserted in the constant table, when it is not there yet
+     * @return the id of the constant, or 0 if it is not in the constant table and insert is false
+     */
+    private int constantId(int index, boolean insert) {
+        int id = constantIds[index];
+        if (id == 0) {
+            String constant = linkedProgram.getConstant(index);
+            if (!insert && !constantTable.hasId(constant)) { return 0; }
+            id = constantTable.getId(constant);
+            constantIds[index] = id;
+        }
+        return id;
     }
 
     public List<FeatureBuilder> getFeatureStack() {
@@ -351,7 +402,10 @@ public class WamInterpreter {
     }
 
     public void pushconst(String a) {
-        int id = getConstantTable().getId(a);
+        pushconst(getConstantTable().getId(a));
+    }
+
+    private void pushconst(int id) {
         state.appendHeap(state.createConstantCell(id));
         state.incrementProgramCounter();
     }
@@ -372,21 +426,24 @@ public class WamInterpreter {
     }
 
     public void unifyconst(String a, int relativeHeapIndex) throws LogicProgramException {
+        unifyconst(a, getConstantTable().hasId(a) ? getConstantTable().getId(a) : 0, relativeHeapIndex);
+    }
+
+    /**
+     * Unifies with the constant, whose id is already resolved; an id of 0 means the constant is not in the constant
+     * table yet, and it is only inserted if it gets bound.
+     */
+    private void unifyconst(String a, int aid, int relativeHeapIndex) throws LogicProgramException {
         if (relativeHeapIndex >= 0) { throw new IllegalStateException("relative heap index must be <0"); }
         int i = state.getHeapSize() + relativeHeapIndex;
         int ri = state.dereference(i);
         if (state.hasConstantAt(ri)) {
-            if (!getConstantTable().hasId(a)) {
-                state.setFailed(true);
-            } else {
-                int aid = getConstantTable().getId(a);
-                state.setFailed(state.getIdOfConstantAt(ri) != aid);
-            }
+            state.setFailed(aid == 0 || state.getIdOfConstantAt(ri) != aid);
         } else {
             if (!state.hasFreeAt(ri)) {
                 throw new LogicProgramException("ri(=" + ri + ") is neither free nor constant?");
             }
-            state.setHeap(ri, state.createConstantCell(getConstantTable().getId(a)));
+            state.setHeap(ri, state.createConstantCell(aid != 0 ? aid : getConstantTable().getId(a)));
             state.collapsePointers(i, ri);
         }
         state.incrementProgramCounter();
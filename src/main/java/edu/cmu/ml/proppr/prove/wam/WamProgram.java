@@ -85,5 +85,11 @@ public abstract class WamProgram {
 
     public abstract void save();
 
+    /**
+     * Links the program, resolving its string operands and labels once. The linked program is cached until the
+     * program changes.
+     */
+    public abstract LinkedProgram link();
+
     public abstract void revert();
 }
\ No newline at end of file
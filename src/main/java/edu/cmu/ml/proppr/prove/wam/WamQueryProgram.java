@@ -49,7 +49,8 @@ import java.util.List;
 public class WamQueryProgram extends WamProgram {
 
     private final WamProgram masterProgram;
-    private WamProgram queryProgram;
+    private WamBaseProgram queryProgram;
+    private LinkedProgram linked;
 
     public WamQueryProgram(WamProgram master) {
         this.masterProgram = master;
@@ -58,11 +59,13 @@ public class WamQueryProgram extends WamProgram {
     @Override
     public void append(Instruction inst) {
         this.queryProgram.append(inst);
+        linked = null;
     }
 
     @Override
     public void setInstruction(int placeToPatch, Instruction instruction) {
         this.queryProgram.setInstruction(placeToPatch, instruction);
+        linked = null;
     }
 
     @Override
@@ -79,6 +82,7 @@ public class WamQueryProgram extends WamProgram {
     @Override
     public void insertLabel(String label) {
         queryProgram.insertLabel(label);
+        linked = null;
     }
 
     @Override
@@ -106,5 +110,14 @@ public class WamQueryProgram extends WamProgram {
     @Override
     public void revert() {
         this.queryProgram = new WamBaseProgram();
+        linked = null;
+    }
+
+    @Override
+    public LinkedProgram link() {
+        LinkedProgram base = masterProgram.link();
+        if (queryProgram == null) { return base; }
+        if (linked == null || linked.base != base) { linked = queryProgram.link(base); }
+        return linked;
     }
 }
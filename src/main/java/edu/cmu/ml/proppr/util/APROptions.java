@@ -50,11 +50,31 @@ public class APROptions {
     public static final int TRACEDEPTH_DEFAULT = 0;
     public static final int TRACEROOT_DEFAULT = 1;
     public static final int STOPEARLY_DEFAULT = -1;
+    public static final int MAXPUSHES_DEFAULT = -1;
+    public static final long MAXPROVINGTIME_DEFAULT = -1;
+    public static final long MAXGRAPHMEMORY_DEFAULT = -1;
+    public static final long MAXTOTALGRAPHMEMORY_DEFAULT = -1;
     public int maxDepth;
     public double alpha;
     public double epsilon;
     public int traceDepth, traceRoot;
     public int stopEarly;
+    /**
+     * Work budget of a single query: the maximum number of pushes (or visited states, for power iteration) and the
+     * maximum proving time, in milliseconds. When the budget runs out, the prover returns its current approximate
+     * solution and flags the proof graph. Negative values mean no limit.
+     */
+    public int maxPushes = MAXPUSHES_DEFAULT;
+    public long maxProvingTime = MAXPROVINGTIME_DEFAULT;
+    /**
+     * Memory cap, in estimated bytes, of the expanded nodes and edges of a single cached proof graph and of all the
+     * cached proof graphs being proved at the same time; a graph is charged until it is closed, once its proof is
+     * done with, or garbage collected, if it is never closed. Once a cap is reached, the graphs stop expanding new
+     * states and the prover degrades to the approximate solution over the graph expanded so far. Negative values mean
+     * no cap.
+     */
+    public long maxGraphMemory = MAXGRAPHMEMORY_DEFAULT;
+    public long maxTotalGraphMemory = MAXTOTALGRAPHMEMORY_DEFAULT;
 
     public APROptions(String... optionValues) {
         this();
@@ -90,6 +110,22 @@ public class APROptions {
             case stopEarly:
                 this.stopEarly = Integer.parseInt(setting[1]);
                 return;
+            case pushes:
+            case maxPushes:
+                this.maxPushes = Integer.parseInt(setting[1]);
+                return;
+            case time:
+            case maxProvingTime:
+                this.maxProvingTime = Long.parseLong(setting[1]);
+                return;
+            case memory:
+            case maxGraphMemory:
+                this.maxGraphMemory = Long.parseLong(setting[1]);
+                return;
+            case totalMemory:
+            case maxTotalGraphMemory:
+                this.maxTotalGraphMemory = Long.parseLong(setting[1]);
+                return;
             default:
                 throw new IllegalArgumentException("No option to set '" + setting[0] + "'");
         }
@@ -104,6 +140,20 @@ public class APROptions {
         this.stopEarly = stopEarly;
     }
 
+    /**
+     * True if there is a work budget for each query.
+     */
+    public boolean isBudgeted() {
+        return maxPushes >= 0 || maxProvingTime >= 0;
+    }
+
+    /**
+     * True if there is a memory cap for the cached proof graphs.
+     */
+    public boolean isMemoryCapped() {
+        return maxGraphMemory >= 0 || maxTotalGraphMemory >= 0;
+    }
+
     private enum names {
         eps,
         epsilon,
@@ -112,6 +162,14 @@ public class APROptions {
         depth,
         stop,
         stopEarly,
+        pushes,
+        maxPushes,
+        time,
+        maxProvingTime,
+        memory,
+        maxGraphMemory,
+        totalMemory,
+        maxTotalGraphMemory,
         traceDepth,
         traceRoot
     }
@@ -0,0 +1,185 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.util.math;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A copy-on-write view of a dense parameter vector. Reads fall through to the base vector, while writes are kept in
+ * the overlay's own chunks, so a candidate can be trained from the base weights without copying them. Removing a
+ * weight leaves a tombstone in the overlay, hiding the weight of the base.
+ * <p>
+ * The base vector must not change while the overlay is in use. Only the chunks touched by the candidate are
+ * allocated, and {@link #fold()} writes the changed weights back into the base, once the candidate is accepted.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class DenseOverlayParamVector extends DenseParamVector {
+
+    /**
+     * Raw bits of a weight removed in the overlay; a NaN payload no arithmetic operation produces.
+     */
+    protected static final long TOMBSTONE = 0x7ff80000deaddeadL;
+
+    protected final DenseParamVector base;
+
+    /**
+     * Constructs an overlay over the base vector, sharing its feature table.
+     *
+     * @param base the base vector
+     */
+    public DenseOverlayParamVector(DenseParamVector base) {
+        super(base.getFeatureTable());
+        this.base = base;
+    }
+
+    /**
+     * Gets the base vector.
+     *
+     * @return the base vector
+     */
+    public DenseParamVector getBase() {
+        return base;
+    }
+
+    @Override
+    protected boolean isWeight(long bits) {
+        return bits != ABSENT && bits != TOMBSTONE;
+    }
+
+    @Override
+    public boolean containsId(int id) {
+        long bits = bits(id);
+        return bits == ABSENT ? base.containsId(id) : bits != TOMBSTONE;
+    }
+
+    @Override
+    public double getValue(int id) {
+        long bits = bits(id);
+        if (bits == ABSENT) { return base.getValue(id); }
+        return bits == TOMBSTONE ? 0.0 : Double.longBitsToDouble(bits);
+    }
+
+    @Override
+    protected double initialValue(int id, long previous) {
+        return previous == TOMBSTONE ? 0.0 : base.getValue(id);
+    }
+
+    /**
+     * Counts the weight as new only if it was removed in the overlay, or if the base does not have it; the touched
+     * ids are kept, so they can be folded.
+     */
+    @Override
+    protected void added(int id, long previous) {
+        ids.add(id);
+        if (previous == TOMBSTONE || !base.containsId(id)) { count.incrementAndGet(); }
+    }
+
+    @Override
+    public Double removeId(int id) {
+        if (!containsId(id)) { return null; }
+        AtomicLongArray chunk = chunk(id);
+        int offset = id & CHUNK_MASK;
+        long previous;
+        do {
+            previous = chunk.get(offset);
+            if (previous == TOMBSTONE || previous == ABSENT && !base.containsId(id)) { return null; }
+        } while (!chunk.compareAndSet(offset, previous, TOMBSTONE));
+        ids.add(id);
+        count.decrementAndGet();
+        return previous == ABSENT ? base.getValue(id) : Double.longBitsToDouble(previous);
+    }
+
+    @Override
+    protected Iterable<Integer> candidateIds() {
+        Set<Integer> union = new TreeSet<>(ids);
+        for (int id : base.candidateIds()) { union.add(id); }
+        return union;
+    }
+
+    @Override
+    public int size() {
+        return base.size() + count.get();
+    }
+
+    /**
+     * Copies the overlay, keeping the same base vector. Only the ids touched by the overlay are copied.
+     *
+     * @return the copy
+     */
+    @Override
+    public DenseOverlayParamVector copy() {
+        DenseOverlayParamVector copy = new DenseOverlayParamVector(base);
+        for (int id : ids) {
+            long bits = bits(id);
+            if (bits == ABSENT) { continue; }
+            copy.chunk(id).set(id & CHUNK_MASK, bits);
+            copy.ids.add(id);
+        }
+        copy.count.set(count.get());
+        return copy;
+    }
+
+    /**
+     * Writes the weights changed in the overlay into the base vector, removing the ones removed in the overlay.
+     *
+     * @return the base vector
+     */
+    public DenseParamVector fold() {
+        for (int id : ids) {
+            long bits = bits(id);
+            if (bits == TOMBSTONE) {
+                base.removeId(id);
+            } else if (bits != ABSENT) {
+                base.setValue(id, Double.longBitsToDouble(bits));
+            }
+        }
+        return base;
+    }
+
+}
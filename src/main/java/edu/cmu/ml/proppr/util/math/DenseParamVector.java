@@ -0,0 +1,542 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package edu.cmu.ml.proppr.util.math;
+
+import edu.cmu.ml.proppr.util.ConcurrentSymbolTable;
+import edu.cmu.ml.proppr.util.SymbolTable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A parameter vector backed by a feature-id table and growable arrays of raw double bits, instead of a map from
+ * feature name to boxed weight.
+ * <p>
+ * Every feature gets a single id in the feature table of the vector, which is shared by its copies and overlays, so
+ * learners can read and update weights by id; feature names are only resolved when the vector is iterated, e.g. to
+ * save or print it. A new vector gets a new table, and {@link #compact()} drops the features without weight from it.
+ * Weights are stored in fixed-size chunks, allocated on the first write to their range of ids and never reallocated,
+ * so concurrent updates are lock-free compare-and-set loops that neither allocate nor sleep, even while the vector
+ * grows. The ids with weight are tracked, so iterating the vector costs its size, not the size of the table.
+ * <p>
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+public class DenseParamVector extends ParamVector<String, Double> {
+
+    protected static final int CHUNK_BITS = 12;
+    protected static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    protected static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /**
+     * Raw bits of a weight that is not in the vector; a NaN payload no arithmetic operation produces.
+     */
+    protected static final long ABSENT = 0x7ff80000deadbeefL;
+    /**
+     * The table is worth compacting when it has more than this factor times the features with weight.
+     */
+    protected static final int COMPACTION_FACTOR = 2;
+
+    protected final SymbolTable<String> featureTable;
+    protected final AtomicInteger count = new AtomicInteger();
+    /**
+     * The ids that may have a weight; it may briefly hold an id whose weight is being removed, so iterations check it.
+     */
+    protected final Set<Integer> ids = new ConcurrentSkipListSet<>();
+    protected volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    /**
+     * Constructs an empty vector, with a new feature table.
+     */
+    public DenseParamVector() {
+        this(new ConcurrentSymbolTable<>());
+    }
+
+    /**
+     * Constructs an empty vector sharing the feature table, so the ids of the features are the same in both.
+     *
+     * @param featureTable the feature table
+     */
+    public DenseParamVector(SymbolTable<String> featureTable) {
+        this.featureTable = featureTable;
+    }
+
+    /**
+     * Constructs a vector with the weights of the map, with a new feature table.
+     *
+     * @param map the weights
+     */
+    public DenseParamVector(Map<String, Double> map) {
+        this();
+        putAll(map);
+    }
+
+    /**
+     * Gets the feature table of the vector, shared by its copies and overlays.
+     *
+     * @return the feature table
+     */
+    public SymbolTable<String> getFeatureTable() {
+        return featureTable;
+    }
+
+    /**
+     * Gets the id of the feature in the table, inserting it if needed.
+     *
+     * @param feature the feature
+     * @return the id of the feature
+     */
+    public int getFeatureId(String feature) {
+        return featureTable.getId(feature);
+    }
+
+    /**
+     * Gets the feature of the id in the table.
+     *
+     * @param id the id
+     * @return the feature
+     */
+    public String getFeature(int id) {
+        return featureTable.getSymbol(id);
+    }
+
+    /**
+     * Gets the chunk holding the id, allocating it if needed.
+     *
+     * @param id the id
+     * @return the chunk
+     */
+    protected AtomicLongArray chunk(int id) {
+        AtomicLongArray[] current = chunks;
+        int index = id >>> CHUNK_BITS;
+        if (index < current.length && current[index] != null) { return current[index]; }
+        return grow(index);
+    }
+
+    /**
+     * Allocates the chunk of the index, growing the chunk array only if the index is beyond it. The chunk array is
+     * replaced as a whole, and existing chunks are kept, so concurrent updates on them are not lost.
+     *
+     * @param index the index of the chunk
+     * @return the chunk of the index
+     */
+    protected synchronized AtomicLongArray grow(int index) {
+        AtomicLongArray[] current = chunks;
+        if (index < current.length && current[index] != null) { return current[index]; }
+        int length = index < current.length ? current.length : Math.max(index + 1, current.length * 2);
+        AtomicLongArray[] grown = Arrays.copyOf(current, length);
+        long[] absent = new long[CHUNK_SIZE];
+        Arrays.fill(absent, ABSENT);
+        grown[index] = new AtomicLongArray(absent);
+        chunks = grown;
+        return grown[index];
+    }
+
+    /**
+     * Gets the raw bits stored for the id, without allocating its chunk.
+     *
+     * @param id the id
+     * @return the raw bits, or {@link #ABSENT}
+     */
+    protected long bits(int id) {
+        AtomicLongArray[] current = chunks;
+        int index = id >>> CHUNK_BITS;
+        if (index >= current.length || current[index] == null) { return ABSENT; }
+        return current[index].get(id & CHUNK_MASK);
+    }
+
+    /**
+     * Checks if the raw bits hold a weight.
+     *
+     * @param bits the raw bits
+     * @return {@code true} if the bits hold a weight
+     */
+    protected boolean isWeight(long bits) {
+        return bits != ABSENT;
+    }
+
+    /**
+     * Gets the weight a feature without weight starts from, when it is adjusted.
+     *
+     * @param id       the id of the feature
+     * @param previous the raw bits stored for the id
+     * @return the initial weight
+     */
+    protected double initialValue(int id, long previous) {
+        return 0.0;
+    }
+
+    /**
+     * Called when a feature without weight gets one.
+     *
+     * @param id       the id of the feature
+     * @param previous the raw bits stored for the id before
+     */
+    protected void added(int id, long previous) {
+        ids.add(id);
+        count.incrementAndGet();
+    }
+
+    /**
+     * Called when the weight of a feature is removed.
+     *
+     * @param id the id of the feature
+     */
+    protected void removed(int id) {
+        count.decrementAndGet();
+        ids.remove(id);
+        // a concurrent write may have added the weight back, before its id was removed
+        if (containsId(id)) { ids.add(id); }
+    }
+
+    /**
+     * Gets the ids that may have a weight in the vector, in increasing order.
+     *
+     * @return the ids
+     */
+    protected Iterable<Integer> candidateIds() {
+        return ids;
+    }
+
+    /**
+     * Checks if the feature of the id has a weight in the vector.
+     *
+     * @param id the id of the feature
+     * @return {@code true} if the feature has a weight
+     */
+    public boolean containsId(int id) {
+        return isWeight(bits(id));
+    }
+
+    /**
+     * Gets the weight of the feature of the id.
+     *
+     * @param id the id of the feature
+     * @return the weight, or 0 if the feature has no weight
+     */
+    public double getValue(int id) {
+        long bits = bits(id);
+        return isWeight(bits) ? Double.longBitsToDouble(bits) : 0.0;
+    }
+
+    /**
+     * Sets the weight of the feature of the id.
+     *
+     * @param id    the id of the feature
+     * @param value the weight
+     */
+    public void setValue(int id, double value) {
+        long previous = chunk(id).getAndSet(id & CHUNK_MASK, Double.doubleToRawLongBits(value));
+        if (!isWeight(previous)) { added(id, previous); }
+    }
+
+    /**
+     * Adds the value to the weight of the feature of the id; a feature without weight starts at 0.
+     *
+     * @param id    the id of the feature
+     * @param value the value to add
+     */
+    public void adjustValue(int id, double value) {
+        addAndGet(id, value);
+    }
+
+    /**
+     * Adds the value to the weight of the feature of the id, as {@link #adjustValue(int, double)}, and gets the
+     * resulting weight.
+     *
+     * @param id    the id of the feature
+     * @param value the value to add
+     * @return the weight after the addition
+     */
+    public double addAndGet(int id, double value) {
+        AtomicLongArray chunk = chunk(id);
+        int offset = id & CHUNK_MASK;
+        long previous;
+        long next;
+        do {
+            previous = chunk.get(offset);
+            next = Double.doubleToRawLongBits((isWeight(previous) ? Double.longBitsToDouble(previous) :
+                    initialValue(id, previous)) + value);
+        } while (!chunk.compareAndSet(offset, previous, next));
+        if (!isWeight(previous)) { added(id, previous); }
+        return Double.longBitsToDouble(next);
+    }
+
+    /**
+     * Removes the weight of the feature of the id.
+     *
+     * @param id the id of the feature
+     * @return the removed weight, or null if the feature had no weight
+     */
+    public Double removeId(int id) {
+        if (!containsId(id)) { return null; }
+        long previous = chunk(id).getAndSet(id & CHUNK_MASK, ABSENT);
+        if (!isWeight(previous)) { return null; }
+        removed(id);
+        return Double.longBitsToDouble(previous);
+    }
+
+    /**
+     * Gets the id of a key, if it is a feature of the table.
+     *
+     * @param key the key
+     * @return the id, or 0 if the key is not a feature of the table
+     */
+    protected int idOf(Object key) {
+        if (!(key instanceof String) || !featureTable.hasId((String) key)) { return 0; }
+        return featureTable.getId((String) key);
+    }
+
+    /**
+     * Checks if most of the features of the table have no weight in this vector, e.g. the features of rejected
+     * candidates trained over it, so it is worth to {@link #compact()} it.
+     *
+     * @return {@code true} if the vector is worth compacting
+     */
+    public boolean isCompactable() {
+        return featureTable.size() > (long) COMPACTION_FACTOR * size() + CHUNK_SIZE;
+    }
+
+    /**
+     * Creates a vector with the weights of this one, over a new feature table holding only their features.
+     *
+     * @return the compacted vector
+     */
+    public DenseParamVector compact() {
+        DenseParamVector compacted = new DenseParamVector();
+        for (int id : candidateIds()) {
+            if (containsId(id)) { compacted.setValue(compacted.getFeatureId(getFeature(id)), getValue(id)); }
+        }
+        return compacted;
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int id = idOf(key);
+        return id > 0 && containsId(id);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int id : candidateIds()) {
+            if (containsId(id) && Double.valueOf(getValue(id)).equals(value)) { return true; }
+        }
+        return false;
+    }
+
+    @Override
+    public Double get(Object key) {
+        int id = idOf(key);
+        return id > 0 && containsId(id) ? getValue(id) : null;
+    }
+
+    @Override
+    public Double put(String key, Double value) {
+        setValue(getFeatureId(key), value);
+        return value;
+    }
+
+    @Override
+    public Double remove(Object key) {
+        int id = idOf(key);
+        return id > 0 ? removeId(id) : null;
+    }
+
+    @Override
+    public synchronized void putAll(Map<? extends String, ? extends Double> m) {
+        for (Map.Entry<? extends String, ? extends Double> e : m.entrySet()) {
+            setValue(getFeatureId(e.getKey()), e.getValue());
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int id : candidateIds()) { removeId(id); }
+    }
+
+    @Override
+    public Set<String> keySet() {
+        Set<String> keys = new LinkedHashSet<>();
+        for (int id : candidateIds()) {
+            if (containsId(id)) { keys.add(getFeature(id)); }
+        }
+        return keys;
+    }
+
+    @Override
+    public Collection<Double> values() {
+        List<Double> values = new ArrayList<>();
+        for (int id : candidateIds()) {
+            if (containsId(id)) { values.add(getValue(id)); }
+        }
+        return values;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Double>> entrySet() {
+        final List<Map.Entry<String, Double>> entries = new ArrayList<>();
+        for (int id : candidateIds()) {
+            if (containsId(id)) { entries.add(new DenseEntry(id)); }
+        }
+        return new AbstractSet<Map.Entry<String, Double>>() {
+            @Override
+            public Iterator<Map.Entry<String, Double>> iterator() {
+                return entries.iterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override
+    public void adjustValue(String key, double value) {
+        adjustValue(getFeatureId(key), value);
+    }
+
+    /**
+     * Copies the vector, sharing its feature table.
+     *
+     * @return the copy
+     */
+    @Override
+    public DenseParamVector copy() {
+        DenseParamVector copy = new DenseParamVector(featureTable);
+        AtomicLongArray[] current = chunks;
+        AtomicLongArray[] copied = new AtomicLongArray[current.length];
+        long[] buffer = new long[CHUNK_SIZE];
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == null) { continue; }
+            for (int j = 0; j < CHUNK_SIZE; j++) { buffer[j] = current[i].get(j); }
+            copied[i] = new AtomicLongArray(buffer);
+        }
+        copy.chunks = copied;
+        copy.ids.addAll(ids);
+        copy.count.set(count.get());
+        return copy;
+    }
+
+    @Override
+    protected Double newValue(Double value) {
+        return value;
+    }
+
+    /**
+     * Gets a snapshot of the weights as a map, since the vector has no backing map. Changes to the snapshot are not
+     * written back to the vector.
+     *
+     * @return the snapshot of the weights
+     */
+    @Override
+    protected ConcurrentHashMap<String, Double> getBackingStore() {
+        ConcurrentHashMap<String, Double> snapshot = new ConcurrentHashMap<>();
+        for (int id : candidateIds()) {
+            if (containsId(id)) { snapshot.put(getFeature(id), getValue(id)); }
+        }
+        return snapshot;
+    }
+
+    @Override
+    protected Double getWeight(Double value) {
+        return value;
+    }
+
+    /**
+     * Entry of the vector, writing through to it.
+     */
+    protected class DenseEntry implements Map.Entry<String, Double> {
+
+        protected final int id;
+
+        protected DenseEntry(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getKey() {
+            return getFeature(id);
+        }
+
+        @Override
+        public Double getValue() {
+            return DenseParamVector.this.getValue(id);
+        }
+
+        @Override
+        public Double setValue(Double value) {
+            double previous = DenseParamVector.this.getValue(id);
+            DenseParamVector.this.setValue(id, value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) { return false; }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return getKey().equals(e.getKey()) && getValue().equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+    }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package br.ufrj.cos.knowledge.theory.evaluation.metric;
+
+import br.ufrj.cos.knowledge.example.AtomExample;
+import br.ufrj.cos.knowledge.example.Example;
+import br.ufrj.cos.knowledge.example.ProPprExample;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.logic.AccuracyMetric;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.logic.F1ScoreMetric;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.logic.PrecisionMetric;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.logic.RecallMetric;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic.LikelihoodMetric;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic.LogLikelihoodMetric;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic.PrecisionRecallCurveMetric;
+import br.ufrj.cos.knowledge.theory.evaluation.metric.probabilistic.RocCurveMetric;
+import br.ufrj.cos.logic.Atom;
+import br.ufrj.cos.logic.Constant;
+import br.ufrj.cos.logic.Predicate;
+import br.ufrj.cos.logic.Term;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+@SuppressWarnings("ALL")
+public class PartialEvaluationTest {
+
+    public static final int NUMBER_OF_EXAMPLES = 30;
+    public static final int ATOMS_PER_EXAMPLE = 3;
+    public static final long SEED = 19;
+    public static final double DELTA = 1e-12;
+
+    private static final Predicate PREDICATE = new Predicate("p", 2);
+
+    private static List<TheoryMetric> buildMetrics() {
+        return Arrays.asList(new AccuracyMetric(), new PrecisionMetric(), new RecallMetric(), new F1ScoreMetric(),
+                             new LikelihoodMetric(), new LogLikelihoodMetric(), new RocCurveMetric(),
+                             new PrecisionRecallCurveMetric());
+    }
+
+    private static List<Example> buildExamples(Random random) {
+        List<Example> examples = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+            List<AtomExample> atomExamples = new ArrayList<>();
+            for (int j = 0; j < ATOMS_PER_EXAMPLE; j++) {
+                atomExamples.add(new AtomExample(buildAtom(i, j), random.nextBoolean()));
+            }
+            examples.add(new ProPprExample(buildAtom(i, -1), atomExamples));
+        }
+        return examples;
+    }
+
+    private static Atom buildAtom(int example, int answer) {
+        List<Term> terms = new ArrayList<>();
+        terms.add(new Constant("a" + example));
+        terms.add(new Constant("b" + answer));
+        return new Atom(PREDICATE, terms);
+    }
+
+    private static Map<Example, Map<Atom, Double>> buildInferredResult(List<Example> examples, Random random,
+                                                                       double notInferredProbability) {
+        Map<Example, Map<Atom, Double>> inferredResult = new HashMap<>();
+        for (Example example : examples) {
+            if (random.nextDouble() < notInferredProbability) { continue; }
+            Map<Atom, Double> atomValues = new HashMap<>();
+            for (AtomExample atomExample : example.getGroundedQuery()) {
+                if (random.nextDouble() < 0.75) { atomValues.put(atomExample.getAtom(), random.nextDouble()); }
+            }
+            inferredResult.put(example, atomValues);
+        }
+        return inferredResult;
+    }
+
+    private static PartialEvaluation evaluatePartially(TheoryMetric metric, List<Example> examples,
+                                                       Map<Example, Map<Atom, Double>> inferredResult) {
+        PartialEvaluation partialEvaluation = metric.createPartialEvaluation();
+        for (Example example : examples) {
+            partialEvaluation.add(example, inferredResult.get(example));
+        }
+        return partialEvaluation;
+    }
+
+    private static void assertPartialEqualsFull(double notInferredProbability) {
+        Random random = new Random(SEED);
+        List<Example> examples = buildExamples(random);
+        Map<Example, Map<Atom, Double>> inferredResult = buildInferredResult(examples, random,
+                                                                             notInferredProbability);
+        for (TheoryMetric metric : buildMetrics()) {
+            double full = metric.evaluate(inferredResult, examples);
+            double partial = evaluatePartially(metric, examples, inferredResult).getValue();
+            Assert.assertEquals(metric.toString(), full, partial, DELTA);
+        }
+    }
+
+    @Test
+    public void TEST_ALL_INFERRED() {
+        assertPartialEqualsFull(0.0);
+    }
+
+    @Test
+    public void TEST_SOME_NOT_INFERRED() {
+        assertPartialEqualsFull(0.25);
+    }
+
+    @Test
+    public void TEST_NONE_INFERRED() {
+        assertPartialEqualsFull(1.0);
+    }
+
+    @Test
+    public void TEST_EMPTY() {
+        for (TheoryMetric metric : buildMetrics()) {
+            double full = metric.evaluate(Collections.emptyMap(), Collections.emptyList());
+            double partial = metric.createPartialEvaluation().getValue();
+            Assert.assertEquals(metric.toString(), full, partial, DELTA);
+        }
+    }
+
+    @Test
+    public void TEST_BEST_POSSIBLE_VALUE() {
+        Random random = new Random(SEED);
+        List<Example> examples = buildExamples(random);
+        Map<Example, Map<Atom, Double>> inferredResult = buildInferredResult(examples, random, 0.25);
+        for (TheoryMetric metric : buildMetrics()) {
+            double full = metric.evaluate(inferredResult, examples);
+            PartialEvaluation partialEvaluation = metric.createPartialEvaluation();
+            for (int i = 0; i < examples.size(); i++) {
+                double best = partialEvaluation.getBestPossibleValue(examples.subList(i, examples.size()));
+                Assert.assertTrue(metric.toString() + " at " + i, metric.compare(best, full) >= 0);
+                partialEvaluation.add(examples.get(i), inferredResult.get(examples.get(i)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package br.ufrj.cos.knowledge.theory.manager.revision.operator;
+
+import br.ufrj.cos.knowledge.example.AtomExample;
+import br.ufrj.cos.knowledge.example.Example;
+import br.ufrj.cos.logic.*;
+import br.ufrj.cos.util.HornClauseUtils;
+import br.ufrj.cos.util.multithreading.CandidateStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+@SuppressWarnings("ALL")
+public class LiteralAppendOperatorTest {
+
+    public static final int NUMBER_OF_THREADS = 2;
+
+    private static final Variable X = new Variable("X");
+    private static final Variable Y = new Variable("Y");
+    private static final HornClause INITIAL_CLAUSE = new HornClause(new Atom("p", Arrays.asList(X, Y)),
+                                                                     new Conjunction());
+    private static final Atom SUBSTITUTION_GOAL =
+            HornClauseUtils.buildSubstitutionClause(INITIAL_CLAUSE).getHead();
+
+    private final Map<Example, Set<Atom>> relevants = new LinkedHashMap<>();
+    private final Map<Example, Map<Atom, Double>> inferredExamples = new LinkedHashMap<>();
+
+    public LiteralAppendOperatorTest() {
+        // e and q are supported by two examples, s and r by one; q and s have variables out of the clause
+        addExample("a", "b", atom("e", "a", "b"), atom("q", "a", "m"));
+        addExample("c", "d", atom("e", "c", "d"), atom("q", "c", "n"), atom("s", "c", "o"));
+        addExample("g", "h", atom("r", "g"));
+    }
+
+    private static Atom atom(String predicate, String... constants) {
+        return new Atom(predicate, Arrays.stream(constants).map(Constant::new).collect(Collectors.toList()));
+    }
+
+    private void addExample(String first, String second, Atom... exampleRelevants) {
+        Example example = new AtomExample(atom("p", first, second), true);
+        relevants.put(example, new HashSet<>(Arrays.asList(exampleRelevants)));
+        Atom answer = new Atom(SUBSTITUTION_GOAL.getPredicate(),
+                               Arrays.asList(new Constant(first), new Constant(second)));
+        inferredExamples.put(example, Collections.singletonMap(answer, 1.0));
+    }
+
+    private RelevantLiteralAppendOperator buildOperator(int minimumCandidateSupport) {
+        RelevantLiteralAppendOperator operator = new RelevantLiteralAppendOperator() {
+            @Override
+            protected Set<Atom> getRelevantsFromExample(Example example) {
+                return relevants.get(example);
+            }
+        };
+        operator.numberOfThreads = NUMBER_OF_THREADS;
+        operator.minimumCandidateSupport = minimumCandidateSupport;
+        return operator;
+    }
+
+    private List<Literal> streamCandidates(int minimumCandidateSupport) {
+        CandidateStream<Literal> stream = buildOperator(minimumCandidateSupport)
+                .streamLiteralCandidatesFromExamples(INITIAL_CLAUSE, SUBSTITUTION_GOAL, inferredExamples,
+                                                     new HashSet<>());
+        List<Literal> candidates = new ArrayList<>();
+        for (Literal literal : stream) {
+            candidates.add(literal);
+        }
+        return candidates;
+    }
+
+    private static Set<String> predicates(Collection<? extends Literal> literals) {
+        return literals.stream().map(Literal::getName).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void TEST_STREAM_SUPPORTED_CANDIDATES() {
+        List<Literal> candidates = streamCandidates(2);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("e", "q")), predicates(candidates));
+        // the q literals of both examples are merged, even if their free variables were named differently
+        Assert.assertEquals(2, candidates.size());
+        Assert.assertTrue(candidates.contains(new Literal(new Atom("e", Arrays.asList(X, Y)))));
+    }
+
+    @Test
+    public void TEST_STREAM_ALL_CANDIDATES() {
+        List<Literal> candidates = streamCandidates(1);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("e", "q", "s", "r")), predicates(candidates));
+        Assert.assertEquals(4, candidates.size());
+    }
+
+    @Test
+    public void TEST_STREAM_NO_CANDIDATES() {
+        Assert.assertTrue(streamCandidates(3).isEmpty());
+    }
+
+    @Test
+    public void TEST_NON_POSITIVE_SUPPORT_STREAMS_ALL_CANDIDATES() {
+        Assert.assertEquals(4, streamCandidates(0).size());
+    }
+
+    @Test
+    public void TEST_SUPPORTED_CANDIDATES() {
+        Set<Literal> candidates = buildOperator(2).getLiteralCandidatesFromExamples(
+                INITIAL_CLAUSE, SUBSTITUTION_GOAL, inferredExamples, new HashSet<>(), true);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("e", "q")), predicates(candidates));
+    }
+
+    @Test
+    public void TEST_RENAME_FREE_VARIABLES() {
+        Set<Term> fixedTerms = LiteralAppendOperator.getFixedTerms(INITIAL_CLAUSE);
+        Literal first = new Literal(new Atom("q", Arrays.asList(X, new Variable("A"))));
+        Literal second = new Literal(new Atom("q", Arrays.asList(X, new Variable("B"))));
+        Literal renamed = LiteralAppendOperator.renameFreeVariables(first, fixedTerms, SUBSTITUTION_GOAL);
+        Literal renamedSecond = LiteralAppendOperator.renameFreeVariables(second, fixedTerms, SUBSTITUTION_GOAL);
+        Assert.assertEquals(renamed.toString(), renamedSecond.toString());
+        Assert.assertEquals(new EquivalentAtom(renamed, fixedTerms), new EquivalentAtom(renamedSecond, fixedTerms));
+        Assert.assertEquals(X, renamed.getTerms().get(0));
+        Assert.assertFalse(SUBSTITUTION_GOAL.getTerms().contains(renamed.getTerms().get(1)));
+        Literal fixed = new Literal(new Atom("e", Arrays.asList(X, Y)));
+        Assert.assertEquals(fixed, LiteralAppendOperator.renameFreeVariables(fixed, fixedTerms, SUBSTITUTION_GOAL));
+    }
+
+}
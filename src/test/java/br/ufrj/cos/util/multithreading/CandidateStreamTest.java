@@ -0,0 +1,156 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package br.ufrj.cos.util.multithreading;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+@SuppressWarnings("ALL")
+public class CandidateStreamTest {
+
+    public static final int NUMBER_OF_THREADS = 4;
+    public static final int CANDIDATES_PER_THREAD = 250;
+    public static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    public void TEST_EMPTY_STREAM() {
+        CandidateStream<Integer> stream = new CandidateStream<>();
+        stream.close();
+        Iterator<Integer> iterator = stream.iterator();
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertFalse(iterator.hasNext());
+        try {
+            iterator.next();
+            Assert.fail("The next of an empty stream must throw an exception");
+        } catch (NoSuchElementException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void TEST_CLOSED_STREAM_KEEPS_ORDER() {
+        CandidateStream<Integer> stream = new CandidateStream<>();
+        List<Integer> expected = Arrays.asList(3, 1, 2);
+        expected.forEach(stream::add);
+        stream.close();
+        List<Integer> consumed = new ArrayList<>();
+        for (Integer candidate : stream) {
+            consumed.add(candidate);
+        }
+        Assert.assertEquals(expected, consumed);
+    }
+
+    @Test
+    public void TEST_CANDIDATES_AFTER_CLOSE_ARE_IGNORED() {
+        CandidateStream<Integer> stream = new CandidateStream<>();
+        stream.add(1);
+        stream.close();
+        stream.add(2);
+        Iterator<Integer> iterator = stream.iterator();
+        Assert.assertTrue(iterator.hasNext());
+        Assert.assertEquals(Integer.valueOf(1), iterator.next());
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void TEST_CONSUME_WHILE_PRODUCING() throws Exception {
+        CandidateStream<Integer> stream = new CandidateStream<>();
+        ExecutorService pool = Executors.newFixedThreadPool(NUMBER_OF_THREADS + 1);
+        try {
+            Future<List<Integer>> consumer = pool.submit(() -> {
+                List<Integer> consumed = new ArrayList<>();
+                for (Integer candidate : stream) {
+                    consumed.add(candidate);
+                }
+                return consumed;
+            });
+            List<Future<?>> producers = new ArrayList<>();
+            for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+                final int offset = i * CANDIDATES_PER_THREAD;
+                producers.add(pool.submit(() -> {
+                    for (int j = 0; j < CANDIDATES_PER_THREAD; j++) {
+                        stream.add(offset + j);
+                    }
+                }));
+            }
+            for (Future<?> producer : producers) {
+                producer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            Assert.assertFalse(consumer.isDone());
+            stream.close();
+            List<Integer> consumed = consumer.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.assertEquals(NUMBER_OF_THREADS * CANDIDATES_PER_THREAD, consumed.size());
+            Assert.assertEquals(NUMBER_OF_THREADS * CANDIDATES_PER_THREAD, new HashSet<>(consumed).size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void TEST_CANCEL_ENDS_THE_STREAM() {
+        CandidateStream<Integer> stream = new CandidateStream<>();
+        List<Boolean> cancelled = new ArrayList<>();
+        stream.onCancel(() -> cancelled.add(true));
+        stream.add(1);
+        stream.add(2);
+        Iterator<Integer> iterator = stream.iterator();
+        Assert.assertEquals(Integer.valueOf(1), iterator.next());
+        Assert.assertFalse(stream.isCancelled());
+        stream.cancel();
+        stream.add(3);
+        Assert.assertTrue(stream.isCancelled());
+        Assert.assertEquals(Collections.singletonList(true), cancelled);
+        Assert.assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void TEST_INTERRUPTED_CONSUMER_ENDS_THE_STREAM() {
+        CandidateStream<Integer> stream = new CandidateStream<>();
+        Thread.currentThread().interrupt();
+        try {
+            Assert.assertFalse(stream.iterator().hasNext());
+            Assert.assertTrue(Thread.interrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+}
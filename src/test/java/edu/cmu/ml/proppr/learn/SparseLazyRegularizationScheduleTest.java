@@ -0,0 +1,141 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.cmu.ml.proppr.learn;
+
+import edu.cmu.ml.proppr.learn.tools.LossData;
+import edu.cmu.ml.proppr.util.SRWOptions;
+import edu.cmu.ml.proppr.util.SimpleSymbolTable;
+import edu.cmu.ml.proppr.util.SymbolTable;
+import edu.cmu.ml.proppr.util.math.DenseParamVector;
+import edu.cmu.ml.proppr.util.math.ParamVector;
+import gnu.trove.map.TIntDoubleMap;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+@SuppressWarnings("ALL")
+public class SparseLazyRegularizationScheduleTest {
+
+    private static final String FEATURE = "f";
+    private static final int GAP = 7;
+
+    private static SRWOptions options(double mu) {
+        SRWOptions options = new SRWOptions();
+        options.mu = mu;
+        options.zeta = 0;
+        options.affinity = Collections.emptyMap();
+        options.diagonalDegree = Collections.emptyMap();
+        return options;
+    }
+
+    /**
+     * Applies the eager regularization of the feature, one step at a time, as the synchronous schedule does.
+     */
+    private static double eager(Regularize regularize, SRWOptions options, double value, int steps,
+                                double learningRate) {
+        ParamVector<String, ?> params = new DenseParamVector();
+        params.put(FEATURE, value);
+        SymbolTable<String> table = new SimpleSymbolTable<>();
+        for (int i = 0; i < steps; i++) {
+            TIntDoubleMap gradient = new TIntDoubleHashMap();
+            regularize.synchronousUpdate(options, params, FEATURE, gradient, new LossData(), table);
+            params.adjustValue(FEATURE, -learningRate * gradient.get(table.getId(FEATURE)));
+        }
+        return params.get(FEATURE);
+    }
+
+    private static double lazy(Regularize regularize, SRWOptions options, double value, int steps,
+                               double learningRate) {
+        ParamVector<String, ?> params = new DenseParamVector();
+        params.put(FEATURE, value);
+        return value + regularize.lazyDecay(options, params, FEATURE, steps, new LossData(), learningRate);
+    }
+
+    @Test
+    public void TEST_LAZY_L2_EQUALS_EAGER() {
+        SRWOptions options = options(0.01);
+        for (double value : new double[]{1.5, -0.75, 0.0}) {
+            Assert.assertEquals(eager(new RegularizeL2(), options, value, GAP, 0.5),
+                                lazy(new RegularizeL2(), options, value, GAP, 0.5), 1e-12);
+        }
+    }
+
+    @Test
+    public void TEST_LAZY_L1_EQUALS_EAGER() {
+        SRWOptions options = options(0.01);
+        for (double value : new double[]{1.5, -0.75}) {
+            Assert.assertEquals(eager(new RegularizeL1(), options, value, GAP, 0.5),
+                                lazy(new RegularizeL1(), options, value, GAP, 0.5), 1e-12);
+        }
+    }
+
+    @Test
+    public void TEST_LAZY_L1_STOPS_AT_ZERO() {
+        SRWOptions options = options(0.1);
+        for (double value : new double[]{0.25, -0.25}) {
+            Assert.assertEquals(0.0, eager(new RegularizeL1(), options, value, GAP, 1.0), 1e-12);
+            Assert.assertEquals(0.0, lazy(new RegularizeL1(), options, value, GAP, 1.0), 1e-12);
+        }
+    }
+
+    @Test
+    public void TEST_LAZY_GROUP_REGULARIZATIONS_WITHOUT_GROUPS_EQUAL_L1() {
+        SRWOptions options = options(0.01);
+        double expected = lazy(new RegularizeL1(), options, 1.5, GAP, 0.5);
+        Assert.assertEquals(expected, lazy(new RegularizeL1GroupLasso(), options, 1.5, GAP, 0.5), 1e-12);
+        Assert.assertEquals(expected, lazy(new RegularizeL1Laplacian(), options, 1.5, GAP, 0.5), 1e-12);
+    }
+
+    @Test
+    public void TEST_STEPS() {
+        SparseLazyRegularizationSchedule.Steps steps = new SparseLazyRegularizationSchedule.Steps();
+        steps.reset(new SimpleSymbolTable<>());
+        int far = 5 * 1024 + 3;
+        Assert.assertEquals(1, steps.advance(1));
+        Assert.assertEquals(1, steps.advance(far));
+        for (int i = 0; i < GAP; i++) { steps.tick(); }
+        Assert.assertEquals(GAP, steps.advance(1));
+        Assert.assertEquals(0, steps.advance(1));
+        steps.tick();
+        Assert.assertEquals(GAP + 1, steps.advance(far));
+
+        steps.reset(new SimpleSymbolTable<>());
+        Assert.assertEquals(1, steps.advance(far));
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.cmu.ml.proppr.learn.tools;
+
+import edu.cmu.ml.proppr.examples.PosNegRWExample;
+import edu.cmu.ml.proppr.graph.ArrayLearningGraphBuilder;
+import edu.cmu.ml.proppr.graph.LearningGraph;
+import edu.cmu.ml.proppr.learn.SRW;
+import edu.cmu.ml.proppr.util.SimpleSymbolTable;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+@SuppressWarnings("ALL")
+public class BinaryRWExampleFileTest {
+
+    private static final List<String> EXAMPLES = Arrays.asList(
+            "p(a,X)\t1\t2\t3\t3\t4\t4\tid(restart):f1:f2\t1->2:2@0.5\t1->3:3\t2->1:1\t3->1:1",
+            "p(b,X)\t1\t3\t\t3\t3\t4\tid(restart):f1:f2\t1->2:2,3@2.0\t2->3:3\t3->1:1");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertSameExample(PosNegRWExample expected, PosNegRWExample actual) {
+        Assert.assertEquals(expected.getQueryVec(), actual.getQueryVec());
+        Assert.assertArrayEquals(expected.getPosList(), actual.getPosList());
+        Assert.assertArrayEquals(expected.getNegList(), actual.getNegList());
+        LearningGraph expectedGraph = expected.getGraph();
+        LearningGraph actualGraph = actual.getGraph();
+        Assert.assertEquals(expectedGraph.node_hi, actualGraph.node_hi);
+        Assert.assertArrayEquals(expectedGraph.node_near_lo, actualGraph.node_near_lo);
+        Assert.assertArrayEquals(expectedGraph.node_near_hi, actualGraph.node_near_hi);
+        Assert.assertArrayEquals(expectedGraph.edge_dest, actualGraph.edge_dest);
+        Assert.assertArrayEquals(expectedGraph.edge_labels_lo, actualGraph.edge_labels_lo);
+        Assert.assertArrayEquals(expectedGraph.edge_labels_hi, actualGraph.edge_labels_hi);
+        Assert.assertArrayEquals(expectedGraph.label_feature_weight, actualGraph.label_feature_weight, 0.0);
+        Assert.assertEquals(expectedGraph.label_feature_id.length, actualGraph.label_feature_id.length);
+        for (int i = 0; i < expectedGraph.label_feature_id.length; i++) {
+            Assert.assertEquals(expectedGraph.featureLibrary.getSymbol(expectedGraph.label_feature_id[i]),
+                                actualGraph.featureLibrary.getSymbol(actualGraph.label_feature_id[i]));
+        }
+        Assert.assertEquals(expectedGraph.getFeatureSet(), actualGraph.getFeatureSet());
+    }
+
+    @Test
+    public void TEST_ROUND_TRIP() throws Exception {
+        File binary = folder.newFile("examples.grounded.bin");
+        Assert.assertEquals(EXAMPLES.size(),
+                            BinaryRWExampleFile.convert(new SimpleSymbolTable<>(), EXAMPLES, binary));
+        Assert.assertTrue(BinaryRWExampleFile.isBinary(binary));
+
+        RWExampleParser parser = new RWExampleParser();
+        SRW learner = new SRW();
+        List<PosNegRWExample> read = new ArrayList<>();
+        for (ByteBuffer record : new BinaryRWExampleFile(binary)) {
+            read.add(parser.parse(record, new ArrayLearningGraphBuilder(), learner));
+        }
+        Assert.assertEquals(EXAMPLES.size(), read.size());
+        for (int i = 0; i < EXAMPLES.size(); i++) {
+            assertSameExample(parser.parse(EXAMPLES.get(i), new ArrayLearningGraphBuilder(), learner), read.get(i));
+        }
+    }
+
+    @Test
+    public void TEST_RECORDS_CAN_BE_PARSED_AGAIN() throws Exception {
+        File binary = folder.newFile("examples.grounded.bin");
+        BinaryRWExampleFile.convert(new SimpleSymbolTable<>(), EXAMPLES, binary);
+
+        RWExampleParser parser = new RWExampleParser();
+        SRW learner = new SRW();
+        Iterator<ByteBuffer> iterator = new BinaryRWExampleFile(binary).iterator();
+        ByteBuffer record = iterator.next();
+        assertSameExample(parser.parse(record, new ArrayLearningGraphBuilder(), learner),
+                          parser.parse(record, new ArrayLearningGraphBuilder(), learner));
+    }
+
+    @Test
+    public void TEST_EMPTY_FILE() throws Exception {
+        File binary = folder.newFile("empty.grounded.bin");
+        Assert.assertEquals(0, BinaryRWExampleFile.convert(new SimpleSymbolTable<>(), new ArrayList<>(), binary));
+        Assert.assertFalse(new BinaryRWExampleFile(binary).iterator().hasNext());
+    }
+
+    @Test
+    public void TEST_CONVERT_FILE_IN_PLACE() throws Exception {
+        File grounded = folder.newFile("examples.grounded");
+        try (FileOutputStream out = new FileOutputStream(grounded)) {
+            out.write(String.join("\n", EXAMPLES).getBytes("UTF-8"));
+        }
+        Assert.assertEquals(EXAMPLES.size(), BinaryRWExampleFile.convert(grounded, grounded));
+        Assert.assertTrue(BinaryRWExampleFile.isBinary(grounded));
+
+        RWExampleParser parser = new RWExampleParser();
+        SRW learner = new SRW();
+        int i = 0;
+        for (ByteBuffer record : new BinaryRWExampleFile(grounded)) {
+            assertSameExample(parser.parse(EXAMPLES.get(i++), new ArrayLearningGraphBuilder(), learner),
+                              parser.parse(record, new ArrayLearningGraphBuilder(), learner));
+        }
+        Assert.assertEquals(EXAMPLES.size(), i);
+        Assert.assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test(expected = IOException.class)
+    public void TEST_TEXT_FILE_IS_NOT_BINARY() throws Exception {
+        File text = folder.newFile("examples.grounded");
+        try (FileOutputStream out = new FileOutputStream(text)) {
+            out.write(EXAMPLES.get(0).getBytes("UTF-8"));
+        }
+        Assert.assertFalse(BinaryRWExampleFile.isBinary(text));
+        new BinaryRWExampleFile(text);
+    }
+
+}
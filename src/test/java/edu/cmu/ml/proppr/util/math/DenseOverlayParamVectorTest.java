@@ -0,0 +1,139 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.cmu.ml.proppr.util.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+@SuppressWarnings("ALL")
+public class DenseOverlayParamVectorTest {
+
+    private static DenseParamVector base() {
+        DenseParamVector base = new DenseParamVector();
+        base.put("a", 1.0);
+        base.put("b", 2.0);
+        return base;
+    }
+
+    @Test
+    public void TEST_READS_FALL_THROUGH() {
+        DenseParamVector base = base();
+        DenseOverlayParamVector overlay = new DenseOverlayParamVector(base);
+        Assert.assertEquals(1.0, overlay.get("a"), 0.0);
+        Assert.assertEquals(2, overlay.size());
+        Assert.assertEquals(base.keySet(), overlay.keySet());
+    }
+
+    @Test
+    public void TEST_WRITES_DO_NOT_CHANGE_BASE() {
+        DenseParamVector base = base();
+        DenseOverlayParamVector overlay = new DenseOverlayParamVector(base);
+        overlay.adjustValue("a", 0.5);
+        overlay.put("c", 3.0);
+
+        Assert.assertEquals(1.5, overlay.get("a"), 0.0);
+        Assert.assertEquals(3, overlay.size());
+        Assert.assertEquals(1.0, base.get("a"), 0.0);
+        Assert.assertFalse(base.containsKey("c"));
+        Assert.assertEquals(2, base.size());
+    }
+
+    @Test
+    public void TEST_REMOVE_HIDES_BASE_WEIGHT() {
+        DenseParamVector base = base();
+        DenseOverlayParamVector overlay = new DenseOverlayParamVector(base);
+        Assert.assertEquals(1.0, overlay.remove("a"), 0.0);
+        Assert.assertNull(overlay.remove("a"));
+
+        Assert.assertFalse(overlay.containsKey("a"));
+        Assert.assertNull(overlay.get("a"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b")), overlay.keySet());
+        Assert.assertEquals(1, overlay.size());
+        Assert.assertEquals(1.0, base.get("a"), 0.0);
+
+        overlay.adjustValue("a", 0.25);
+        Assert.assertEquals(0.25, overlay.get("a"), 0.0);
+        Assert.assertEquals(2, overlay.size());
+    }
+
+    @Test
+    public void TEST_CLEAR() {
+        DenseParamVector base = base();
+        DenseOverlayParamVector overlay = new DenseOverlayParamVector(base);
+        overlay.put("c", 3.0);
+        overlay.clear();
+
+        Assert.assertTrue(overlay.isEmpty());
+        Assert.assertTrue(overlay.keySet().isEmpty());
+        Assert.assertEquals(2, base.size());
+    }
+
+    @Test
+    public void TEST_COPY() {
+        DenseParamVector base = base();
+        DenseOverlayParamVector overlay = new DenseOverlayParamVector(base);
+        overlay.put("a", 5.0);
+        overlay.remove("b");
+        DenseOverlayParamVector copy = overlay.copy();
+        copy.put("c", 3.0);
+
+        Assert.assertSame(base, copy.getBase());
+        Assert.assertEquals(5.0, copy.get("a"), 0.0);
+        Assert.assertFalse(copy.containsKey("b"));
+        Assert.assertEquals(2, copy.size());
+        Assert.assertFalse(overlay.containsKey("c"));
+        Assert.assertEquals(1, overlay.size());
+    }
+
+    @Test
+    public void TEST_FOLD() {
+        DenseParamVector base = base();
+        DenseOverlayParamVector overlay = new DenseOverlayParamVector(base);
+        overlay.put("a", 5.0);
+        overlay.remove("b");
+        overlay.put("c", 3.0);
+
+        Assert.assertSame(base, overlay.fold());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "c")), base.keySet());
+        Assert.assertEquals(5.0, base.get("a"), 0.0);
+        Assert.assertEquals(3.0, base.get("c"), 0.0);
+        Assert.assertEquals(2, base.size());
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Online Structure Learner by Revision (OSLR) is an online relational
+ * learning algorithm that can handle continuous, open-ended
+ * streams of relational examples as they arrive. We employ
+ * techniques from theory revision to take advantage of the already
+ * acquired knowledge as a starting point, find where it should be
+ * modified to cope with the new examples, and automatically update it.
+ * We rely on the Hoeffding's bound statistical theory to decide if the
+ * model must in fact be updated accordingly to the new examples.
+ * The system is built upon ProPPR statistical relational language to
+ * describe the induced models, aiming at contemplating the uncertainty
+ * inherent to real data.
+ *
+ * Copyright (C) 2017-2018 Victor Guimarães
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package edu.cmu.ml.proppr.util.math;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Created on 19/10/26.
+ *
+ * @author Victor Guimarães
+ */
+@SuppressWarnings("ALL")
+public class DenseParamVectorTest {
+
+    @Test
+    public void TEST_GROW() {
+        DenseParamVector vector = new DenseParamVector();
+        int features = 3 * DenseParamVector.CHUNK_SIZE + 7;
+        for (int i = 0; i < features; i++) { vector.put("f" + i, (double) i); }
+        Assert.assertEquals(features, vector.size());
+        for (int i = 0; i < features; i++) { Assert.assertEquals(i, vector.get("f" + i), 0.0); }
+        Assert.assertNull(vector.get("f" + features));
+        Assert.assertFalse(vector.containsKey("f" + features));
+    }
+
+    @Test
+    public void TEST_KEY_SET() {
+        DenseParamVector vector = new DenseParamVector();
+        vector.put("a", 1.0);
+        vector.put("b", 2.0);
+        vector.put("c", 3.0);
+        Assert.assertEquals(2.0, vector.remove("b"), 0.0);
+        Assert.assertNull(vector.remove("b"));
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "c")), vector.keySet());
+        Assert.assertEquals(2, vector.size());
+        Assert.assertEquals(2, vector.entrySet().size());
+        Assert.assertEquals(2, vector.values().size());
+        Assert.assertTrue(vector.containsValue(3.0));
+        Assert.assertFalse(vector.containsValue(2.0));
+
+        vector.clear();
+        Assert.assertTrue(vector.isEmpty());
+        Assert.assertTrue(vector.keySet().isEmpty());
+    }
+
+    @Test
+    public void TEST_ADJUST_VALUE() {
+        DenseParamVector vector = new DenseParamVector();
+        vector.adjustValue("a", 0.5);
+        vector.adjustValue("a", 0.25);
+        Assert.assertEquals(0.75, vector.get("a"), 0.0);
+        Assert.assertEquals(1, vector.size());
+    }
+
+    @Test
+    public void TEST_COPY_SHARES_TABLE() {
+        DenseParamVector vector = new DenseParamVector();
+        vector.put("a", 1.0);
+        DenseParamVector copy = vector.copy();
+        copy.put("a", 2.0);
+        copy.put("b", 3.0);
+
+        Assert.assertSame(vector.getFeatureTable(), copy.getFeatureTable());
+        Assert.assertEquals(vector.getFeatureId("b"), copy.getFeatureId("b"));
+        Assert.assertEquals(1.0, vector.get("a"), 0.0);
+        Assert.assertFalse(vector.containsKey("b"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b")), copy.keySet());
+    }
+
+    @Test
+    public void TEST_TABLES_ARE_NOT_SHARED() {
+        DenseParamVector first = new DenseParamVector();
+        first.put("a", 1.0);
+        DenseParamVector second = new DenseParamVector();
+        second.put("b", 1.0);
+
+        Assert.assertNotSame(first.getFeatureTable(), second.getFeatureTable());
+        Assert.assertEquals(1, second.getFeatureTable().size());
+        Assert.assertFalse(second.containsKey("a"));
+    }
+
+    @Test
+    public void TEST_COMPACT() {
+        DenseParamVector vector = new DenseParamVector();
+        int features = 2 * DenseParamVector.CHUNK_SIZE;
+        for (int i = 0; i < 3 * features; i++) { vector.put("f" + i, (double) i); }
+        for (int i = features; i < 3 * features; i++) { vector.remove("f" + i); }
+        Assert.assertTrue(vector.isCompactable());
+
+        DenseParamVector compacted = vector.compact();
+        Assert.assertFalse(compacted.isCompactable());
+        Assert.assertEquals(features, compacted.getFeatureTable().size());
+        Assert.assertEquals(vector.getBackingStore(), compacted.getBackingStore());
+    }
+
+    @Test
+    public void TEST_BACKING_STORE() {
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("a", 1.0);
+        weights.put("b", -2.0);
+        DenseParamVector vector = new DenseParamVector(weights);
+
+        Map<String, Double> store = vector.getBackingStore();
+        Assert.assertEquals(weights, store);
+        store.put("c", 3.0);
+        Assert.assertFalse(vector.containsKey("c"));
+    }
+
+}